@@ -0,0 +1,201 @@
+package de.rojer.editablefiles.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.rojer.editablefiles.Batch;
+import de.rojer.editablefiles.EditableFile;
+import de.rojer.editablefiles.FileLogger;
+import de.rojer.editablefiles.exceptions.WrongTypeException;
+
+/**
+ * Measures the reads and writes of an {@link EditableFile} (text engine) for
+ * files of different sizes, with and without an encoding and for paths, which
+ * are in the file (hit) or not (miss). Every write rewrites the file, so the
+ * write benchmarks at a million keys are slow on purpose.
+ * <p>
+ * Run all benchmarks headless with the GC profiler (ops/s and allocation
+ * rate):
+ * 
+ * <pre>
+ * mvn -B package
+ * java -jar benchmarks/target/benchmarks.jar -prof gc
+ * </pre>
+ * 
+ * or start {@link #main(String[])}.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class EditableFileBenchmark {
+
+	/**
+	 * The amount of keys in the file
+	 */
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int keys;
+
+	/**
+	 * The encoding: "identity" (none) or "shifted" (every character moved by
+	 * {@link #SHIFT}, see {@link EditableFile#EditableFile(String, int)})
+	 */
+	@Param({ "identity", "shifted" })
+	public String encoding;
+
+	/**
+	 * "hit" for paths, which are in the file, "miss" for paths, which are not
+	 */
+	@Param({ "hit", "miss" })
+	public String workload;
+
+	/**
+	 * The offset of the shifted encoding
+	 */
+	protected static final int SHIFT = 3;
+
+	/**
+	 * The folder of the file
+	 */
+	protected File folder;
+
+	/**
+	 * The file
+	 */
+	protected EditableFile file;
+
+	/**
+	 * The next path, which isn't in the file (misses of writes insert new paths)
+	 */
+	protected int nextMiss;
+
+	/**
+	 * Creates the file
+	 * 
+	 * @throws IOException when the folder couldn't be created
+	 */
+	@Setup(Level.Trial)
+	public void createFile() throws IOException {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		folder = Files.createTempDirectory("editablefile-bench").toFile();
+		String completePath = folder.getPath() + "/bench.txt";
+		file = encoding.equals("shifted") ? new EditableFile(completePath, SHIFT) : new EditableFile(completePath);
+	}
+
+	/**
+	 * Fills the file with the keys again (deletes and inserts of the last
+	 * iteration are undone)
+	 */
+	@Setup(Level.Iteration)
+	public void fillFile() {
+		file.clearFile();
+		Batch batch = file.batch();
+		for (int i = 0; i < keys; i++) {
+			batch.writeInt("int." + i, i);
+			batch.writeString("string." + i, "value " + i);
+		}
+		batch.commit();
+		nextMiss = 0;
+	}
+
+	/**
+	 * Deletes the file
+	 */
+	@TearDown(Level.Trial)
+	public void deleteFile() {
+		file.deleteFile(file);
+		folder.delete();
+	}
+
+	// Benchmarks
+
+	@Benchmark
+	public int getInt() throws WrongTypeException {
+		return file.getInt(path("int."));
+	}
+
+	@Benchmark
+	public String getString() {
+		return file.getString(path("string."));
+	}
+
+	@Benchmark
+	public void writeInt() {
+		file.writeInt(writePath("int."), 42);
+	}
+
+	@Benchmark
+	public void writeString() {
+		file.writeString(writePath("string."), "new value");
+	}
+
+	@Benchmark
+	public void deleteLine() {
+		file.deleteLine(path("int."));
+	}
+
+	// Paths
+
+	/**
+	 * @param prefix the prefix of the paths
+	 * @return a random path, which is in the file (hit) or not (miss)
+	 */
+	protected String path(String prefix) {
+		int index = ThreadLocalRandom.current().nextInt(keys);
+		return workload.equals("hit") ? prefix + index : prefix + "missing." + index;
+	}
+
+	/**
+	 * @param prefix the prefix of the paths
+	 * @return a random path, which is in the file (hit) or a new path (miss)
+	 */
+	protected String writePath(String prefix) {
+		return workload.equals("hit") ? path(prefix) : prefix + "missing." + nextMiss++;
+	}
+
+	/**
+	 * Runs all benchmarks with the GC profiler
+	 * 
+	 * @param args the patterns of the benchmarks to run (all, if there are none)
+	 * @throws RunnerException when the benchmarks couldn't be run
+	 */
+	public static void main(String[] args) throws RunnerException {
+		OptionsBuilder options = new OptionsBuilder();
+		if (args.length == 0) {
+			options.include(EditableFileBenchmark.class.getSimpleName());
+		}
+		for (String pattern : args) {
+			options.include(pattern);
+		}
+		options.addProfiler(GCProfiler.class);
+		new Runner(options.build()).run();
+	}
+
+}
@@ -0,0 +1,345 @@
+package de.rojer.editablefiles;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import de.rojer.editablefiles.exceptions.WrongTypeException;
+
+/**
+ * Runs the reads and writes of an {@link EditableFile} on an executor and
+ * returns a {@link CompletableFuture} for every call, so the calling thread
+ * never waits for the disk. Writes are applied in the order they were issued,
+ * a read waits for all writes issued before it and a write waits for all reads
+ * issued before it, so a read never sees a later write. Reads of the same
+ * value, which are issued while the same read is still running, share its
+ * result.
+ * <p>
+ * Values, which are not of the requested type, complete the future
+ * exceptionally with a {@link WrongTypeException}.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class AsyncEditableFile {
+
+	/**
+	 * Reads a value and may fail with a {@link WrongTypeException}
+	 * 
+	 * @param <T> the type of the value
+	 */
+	protected interface Read<T> {
+
+		/**
+		 * @return the value
+		 * @throws WrongTypeException when the value has the wrong type
+		 */
+		public T read() throws WrongTypeException;
+
+	}
+
+	/**
+	 * The executor used, when no executor is given (created with the first
+	 * asynchronous file)
+	 */
+	protected static Executor defaultExecutor;
+
+	/**
+	 * The file
+	 */
+	protected EditableFile file;
+
+	/**
+	 * Runs the reads and writes
+	 */
+	protected Executor executor;
+
+	/**
+	 * The last write, which was issued (every write waits for its predecessor)
+	 */
+	protected CompletableFuture<Void> lastWrite;
+
+	/**
+	 * The reads, which are still running (type and path -> result), the next
+	 * write waits for them
+	 */
+	protected ConcurrentHashMap<String, CompletableFuture<?>> reads;
+
+	/**
+	 * Create an asynchronous file with the default executor (see
+	 * {@link #getDefaultExecutor()})
+	 * 
+	 * @param file the file
+	 */
+	public AsyncEditableFile(EditableFile file) {
+		this(file, getDefaultExecutor());
+	}
+
+	/**
+	 * Create an asynchronous file
+	 * 
+	 * @param file     the file
+	 * @param executor runs the reads and writes
+	 */
+	public AsyncEditableFile(EditableFile file, Executor executor) {
+		this.file = file;
+		this.executor = executor;
+		this.lastWrite = CompletableFuture.completedFuture(null);
+		this.reads = new ConcurrentHashMap<String, CompletableFuture<?>>();
+	}
+
+	/**
+	 * Returns the default executor: a new virtual thread for every task on Java
+	 * 21 and newer, otherwise a pool of daemon threads
+	 * 
+	 * @return the default executor
+	 */
+	public static synchronized Executor getDefaultExecutor() {
+		if (defaultExecutor == null) {
+			try {
+				defaultExecutor = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException e) {
+				defaultExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "AsyncEditableFile-worker");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+			}
+		}
+		return defaultExecutor;
+	}
+
+	// Reading
+
+	/**
+	 * Gets an integer (see {@link EditableFile#getTrueInt(String)})
+	 * 
+	 * @param path the path to the integer value
+	 * @return the integer value
+	 */
+	public CompletableFuture<Integer> getTrueInt(String path) {
+		return read("trueInt", path, () -> file.getTrueInt(path));
+	}
+
+	/**
+	 * Gets an integer (see {@link EditableFile#getInt(String)})
+	 * 
+	 * @param path the path to the integer value
+	 * @return the integer value
+	 */
+	public CompletableFuture<Integer> getInt(String path) {
+		return read("int", path, () -> file.getInt(path));
+	}
+
+	/**
+	 * Gets a character (see {@link EditableFile#getChar(String)})
+	 * 
+	 * @param path the path to the character
+	 * @return the character value
+	 */
+	public CompletableFuture<Character> getChar(String path) {
+		return read("char", path, () -> file.getChar(path));
+	}
+
+	/**
+	 * Gets a boolean (see {@link EditableFile#getBoolean(String)})
+	 * 
+	 * @param path the path to the boolean value
+	 * @return the boolean value
+	 */
+	public CompletableFuture<Boolean> getBoolean(String path) {
+		return read("boolean", path, () -> file.getBoolean(path));
+	}
+
+	/**
+	 * Gets a float (see {@link EditableFile#getFloat(String)})
+	 * 
+	 * @param path the path to the float value
+	 * @return the float value
+	 */
+	public CompletableFuture<Float> getFloat(String path) {
+		return read("float", path, () -> file.getFloat(path));
+	}
+
+	/**
+	 * Gets a double (see {@link EditableFile#getDouble(String)})
+	 * 
+	 * @param path the path to the double value
+	 * @return the double value
+	 */
+	public CompletableFuture<Double> getDouble(String path) {
+		return read("double", path, () -> file.getDouble(path));
+	}
+
+	/**
+	 * Gets a string (see {@link EditableFile#getString(String)})
+	 * 
+	 * @param path the path to the string
+	 * @return the string
+	 */
+	public CompletableFuture<String> getString(String path) {
+		return read("string", path, () -> file.getString(path));
+	}
+
+	// Writing
+
+	/**
+	 * Writes an integer to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the integer value
+	 * @return completes, when the value is written
+	 */
+	public CompletableFuture<Void> writeInt(String path, int value) {
+		return write(() -> file.writeInt(path, value));
+	}
+
+	/**
+	 * Writes a character to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the character
+	 * @return completes, when the value is written
+	 */
+	public CompletableFuture<Void> writeChar(String path, char value) {
+		return write(() -> file.writeChar(path, value));
+	}
+
+	/**
+	 * Writes a boolean to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the boolean value
+	 * @return completes, when the value is written
+	 */
+	public CompletableFuture<Void> writeBoolean(String path, boolean value) {
+		return write(() -> file.writeBoolean(path, value));
+	}
+
+	/**
+	 * Writes a float to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the float value
+	 * @return completes, when the value is written
+	 */
+	public CompletableFuture<Void> writeFloat(String path, float value) {
+		return write(() -> file.writeFloat(path, value));
+	}
+
+	/**
+	 * Writes a double to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the double value
+	 * @return completes, when the value is written
+	 */
+	public CompletableFuture<Void> writeDouble(String path, double value) {
+		return write(() -> file.writeDouble(path, value));
+	}
+
+	/**
+	 * Writes a string to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the string
+	 * @return completes, when the value is written
+	 */
+	public CompletableFuture<Void> writeString(String path, String value) {
+		return write(() -> file.writeString(path, value));
+	}
+
+	/**
+	 * Deletes a line in the file
+	 * 
+	 * @param path the path to the line
+	 * @return completes, when the line is deleted
+	 */
+	public CompletableFuture<Void> deleteLine(String path) {
+		return write(() -> file.deleteLine(path));
+	}
+
+	/**
+	 * Clears the whole content of the file
+	 * 
+	 * @return completes, when the file is cleared
+	 */
+	public CompletableFuture<Void> clearFile() {
+		return write(() -> file.clearFile());
+	}
+
+	// Scheduling
+
+	/**
+	 * Schedules a read after all writes issued so far. A read of the same type and
+	 * path, which is still running, is shared instead.
+	 * 
+	 * @param <T>  the type of the value
+	 * @param type the type of the read
+	 * @param path the path to the value
+	 * @param read reads the value
+	 * @return the value
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> CompletableFuture<T> read(String type, String path, Read<T> read) {
+		String key = type + ":" + path;
+		CompletableFuture<T> result;
+		synchronized (this) {
+			result = (CompletableFuture<T>) reads.get(key);
+			if (result == null) {
+				result = lastWrite.handle((ignored, failure) -> (Void) null).thenApplyAsync(ignored -> {
+					try {
+						return read.read();
+					} catch (WrongTypeException e) {
+						throw new CompletionException(e);
+					}
+				}, executor);
+				reads.put(key, result);
+				CompletableFuture<T> running = result;
+				running.whenComplete((value, failure) -> reads.remove(key, running));
+			}
+		}
+		return result.thenApply(value -> value);
+	}
+
+	/**
+	 * Schedules a write after all reads and writes issued so far. Reads issued
+	 * before are not shared with later reads anymore.
+	 * 
+	 * @param write the write
+	 * @return completes, when the write is done
+	 */
+	protected synchronized CompletableFuture<Void> write(Runnable write) {
+		ArrayList<CompletableFuture<?>> before = new ArrayList<CompletableFuture<?>>(reads.values());
+		before.add(lastWrite);
+		reads.clear();
+		lastWrite = CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[before.size()]))
+				.handle((ignored, failure) -> (Void) null).thenRunAsync(write, executor);
+		return lastWrite;
+	}
+
+	// Getters
+
+	/**
+	 * @return the file
+	 */
+	public EditableFile getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the executor, which runs the reads and writes
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+}
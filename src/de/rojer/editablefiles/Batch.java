@@ -0,0 +1,139 @@
+package de.rojer.editablefiles;
+
+import java.util.TreeMap;
+
+/**
+ * A batch collects many writes and deletes for an {@link EditableFile} and
+ * applies all of them at once with the storage engine of the file. The text
+ * and binary engines read and write the file only once and replace it
+ * atomically, so readers see either none or all of the changes of a batch.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class Batch {
+
+	/**
+	 * The file the changes belong to
+	 */
+	protected EditableFile file;
+
+	/**
+	 * The collected changes (path -> value or null, if deleted)
+	 */
+	protected TreeMap<String, Object> changes;
+
+	/**
+	 * Create a batch (use {@link EditableFile#batch()})
+	 * 
+	 * @param file the file the changes belong to
+	 */
+	protected Batch(EditableFile file) {
+		this.file = file;
+		this.changes = new TreeMap<String, Object>();
+	}
+
+	/**
+	 * Writes an integer to the batch
+	 * 
+	 * @param path  the path for the value
+	 * @param value the integer value
+	 */
+	public void writeInt(String path, int value) {
+		write(path, value);
+	}
+
+	/**
+	 * Writes a character to the batch
+	 * 
+	 * @param path  the path for the value
+	 * @param value the character
+	 */
+	public void writeChar(String path, char value) {
+		write(path, value);
+	}
+
+	/**
+	 * Writes a boolean to the batch
+	 * 
+	 * @param path  the path for the value
+	 * @param value the boolean value
+	 */
+	public void writeBoolean(String path, boolean value) {
+		write(path, value);
+	}
+
+	/**
+	 * Writes a float to the batch
+	 * 
+	 * @param path  the path for the value
+	 * @param value the float value
+	 */
+	public void writeFloat(String path, float value) {
+		write(path, value);
+	}
+
+	/**
+	 * Writes a double to the batch
+	 * 
+	 * @param path  the path for the value
+	 * @param value the double value
+	 */
+	public void writeDouble(String path, double value) {
+		write(path, value);
+	}
+
+	/**
+	 * Writes a string to the batch
+	 * 
+	 * @param path  the path for the value
+	 * @param value the string
+	 */
+	public void writeString(String path, String value) {
+		write(path, value + "");
+	}
+
+	/**
+	 * Deletes a line with the batch
+	 * 
+	 * @param path the path to the line
+	 */
+	public void deleteLine(String path) {
+		changes.put(path, null);
+	}
+
+	/**
+	 * Applies all changes to the file (in one pass) and empties the batch
+	 */
+	public void commit() {
+		file.commitBatch(changes);
+		changes = new TreeMap<String, Object>();
+	}
+
+	/**
+	 * Throws away all changes of the batch
+	 */
+	public void clear() {
+		changes.clear();
+	}
+
+	/**
+	 * @return the amount of changed paths in the batch
+	 */
+	public int size() {
+		return changes.size();
+	}
+
+	/**
+	 * Adds a value to the batch (the last value for a path wins)
+	 * 
+	 * @param path  the path for the value
+	 * @param value the value (an Integer, Float, Double, Boolean, Character or
+	 *              String)
+	 */
+	protected void write(String path, Object value) {
+		changes.put(path, value);
+	}
+
+}
@@ -0,0 +1,114 @@
+package de.rojer.editablefiles;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class can be used to read from and write to binary files. It works
+ * exactly like an {@link EditableFile} with the {@link BinaryStorageEngine}:
+ * the values are stored with their type in a compact binary format (see
+ * {@link BinaryStore}), so numbers don't have to be formatted and parsed and a
+ * lookup only reads a single block of the file. Keys, strings and characters
+ * are still encoded with the encoding list of the file. The cached, mapped and
+ * write-ahead log modes only apply to text files.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class BinaryFile extends EditableFile {
+
+	/**
+	 * Create a binary file
+	 * 
+	 * @param path     the path to the file
+	 * @param fileName the name of the file (with extension!)
+	 */
+	public BinaryFile(String path, String fileName) {
+		this(path + "/" + fileName);
+	}
+
+	/**
+	 * Create a binary file
+	 * 
+	 * @param completePath the complete path to the file (with extension)
+	 */
+	public BinaryFile(String completePath) {
+		super(completePath, StorageEngine.BINARY);
+	}
+
+	/**
+	 * Create a binary file with an offset encoding
+	 * 
+	 * @param path           the path to the file
+	 * @param fileName       the name of the file (with extension!)
+	 * @param offsetEncoding the amount of characters to move (positive: to the
+	 *                       right, negative: to the left)
+	 */
+	public BinaryFile(String path, String fileName, int offsetEncoding) {
+		this(path + "/" + fileName, offsetEncoding);
+	}
+
+	/**
+	 * Create a binary file with an offset encoding
+	 * 
+	 * @param completePath   the complete path to the file (with extension)
+	 * @param offsetEncoding the amount of characters to move (positive: to the
+	 *                       right, negative: to the left)
+	 */
+	public BinaryFile(String completePath, int offsetEncoding) {
+		super(completePath, offsetEncoding);
+		engine = new BinaryStorageEngine(this);
+	}
+
+	// Conversion
+
+	/**
+	 * Copies all values of a text file into a binary file (replacing its old
+	 * contents). Values with a type tag keep their type, the types of the other
+	 * values are guessed without losing any information, see
+	 * {@link ValueType#infer(String)}.
+	 * 
+	 * @param source the text file
+	 * @param target the binary file
+	 */
+	public static void fromText(EditableFile source, BinaryFile target) {
+		TreeMap<String, Object> values = new TreeMap<String, Object>();
+		EntryIterator entries = source.scan();
+		try {
+			while (entries.hasNext()) {
+				Entry entry = entries.next();
+				values.put(entry.getKey(), entry.getTypedValue());
+			}
+		} finally {
+			entries.close();
+		}
+		((BinaryStorageEngine) target.engine).replaceAll(values);
+	}
+
+	/**
+	 * Copies all values of a binary file into a text file (replacing its old
+	 * contents) with a single write
+	 * 
+	 * @param source the binary file
+	 * @param target the text file
+	 */
+	public static void toText(BinaryFile source, EditableFile target) {
+		target.clearFile();
+		Batch batch = target.batch();
+		for (Map.Entry<String, Object> value : source.readAll().entrySet()) {
+			batch.write(value.getKey(), value.getValue());
+		}
+		batch.commit();
+	}
+
+	/**
+	 * Reads all values of the file
+	 * 
+	 * @return the decoded values (path -> value)
+	 */
+	public TreeMap<String, Object> readAll() {
+		return ((BinaryStorageEngine) engine).readAll();
+	}
+
+}
@@ -0,0 +1,186 @@
+package de.rojer.editablefiles;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stores typed values in the compact binary format of a {@link BinaryStore}.
+ * Keys, strings and characters are encoded with the codec of the file.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class BinaryStorageEngine implements StorageEngine {
+
+	/**
+	 * The file the engine belongs to
+	 */
+	protected EditableFile file;
+
+	/**
+	 * The binary store of the file
+	 */
+	protected BinaryStore store;
+
+	/**
+	 * Create a binary engine
+	 * 
+	 * @param file the file the engine belongs to
+	 */
+	public BinaryStorageEngine(EditableFile file) {
+		this.file = file;
+		this.store = new BinaryStore(file.file);
+	}
+
+	@Override
+	public Object get(String key) {
+		file.lockRead();
+		try {
+			return decodeValue(store.get(file.encode(key)));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		} finally {
+			file.unlockRead();
+		}
+	}
+
+	@Override
+	public void put(String key, Object value) {
+		TreeMap<String, Object> changes = new TreeMap<String, Object>();
+		changes.put(key, value);
+		putAll(changes);
+	}
+
+	@Override
+	public void putAll(Map<String, Object> changes) {
+		file.lockWrite();
+		try {
+			TreeMap<String, Object> records = store.readAll();
+			file.metrics.addBytesRead(file.file.length());
+			long start = System.nanoTime();
+			for (Map.Entry<String, Object> change : changes.entrySet()) {
+				if (change.getValue() == null) {
+					records.remove(file.encode(change.getKey()));
+				} else {
+					records.put(file.encode(change.getKey()), encodeValue(change.getValue()));
+				}
+			}
+			file.metrics.addEncodeTime(System.nanoTime() - start);
+			store.writeAll(records, file.durability != Durability.NONE);
+			file.metrics.addBytesWritten(file.file.length());
+			file.touchBloomFilter();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			file.unlockWrite();
+		}
+	}
+
+	@Override
+	public void delete(String key) {
+		TreeMap<String, Object> changes = new TreeMap<String, Object>();
+		changes.put(key, null);
+		putAll(changes);
+	}
+
+	@Override
+	public void clear() {
+		replaceAll(new TreeMap<String, Object>());
+	}
+
+	@Override
+	public EntryIterator scan(String fromKey, String toKey, String prefix) {
+		return file.scanValues(readAll(), fromKey, toKey, prefix);
+	}
+
+	/**
+	 * Does nothing, every write is written at once
+	 */
+	@Override
+	public void flush() {
+
+	}
+
+	/**
+	 * Reads all values
+	 * 
+	 * @return the decoded values (path -> value)
+	 */
+	public TreeMap<String, Object> readAll() {
+		TreeMap<String, Object> values = new TreeMap<String, Object>();
+		file.lockRead();
+		try {
+			TreeMap<String, Object> records = store.readAll();
+			long start = System.nanoTime();
+			for (Map.Entry<String, Object> record : records.entrySet()) {
+				values.put(file.decode(record.getKey()), decodeValue(record.getValue()));
+			}
+			file.metrics.addDecodeTime(System.nanoTime() - start);
+			file.metrics.addBytesRead(file.file.length());
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			file.unlockRead();
+		}
+		return values;
+	}
+
+	/**
+	 * Replaces all values with a single write
+	 * 
+	 * @param values the new values (path -> value)
+	 */
+	public void replaceAll(Map<String, Object> values) {
+		long start = System.nanoTime();
+		TreeMap<String, Object> records = new TreeMap<String, Object>();
+		for (Map.Entry<String, Object> value : values.entrySet()) {
+			records.put(file.encode(value.getKey()), encodeValue(value.getValue()));
+		}
+		file.metrics.addEncodeTime(System.nanoTime() - start);
+		file.lockWrite();
+		try {
+			store.writeAll(records, file.durability != Durability.NONE);
+			file.metrics.addBytesWritten(file.file.length());
+			file.touchBloomFilter();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			file.unlockWrite();
+		}
+	}
+
+	/**
+	 * Encodes the characters of a value (only strings and characters, all other
+	 * types without a type of their own are stored as strings)
+	 * 
+	 * @param value the value
+	 * @return the encoded value
+	 */
+	protected Object encodeValue(Object value) {
+		if (value instanceof Character) {
+			return file.codec.encode((Character) value);
+		} else if (ValueType.of(value) == ValueType.STRING) {
+			return file.encode(String.valueOf(value));
+		}
+		return value;
+	}
+
+	/**
+	 * Decodes the characters of a value (only strings and characters)
+	 * 
+	 * @param value the value
+	 * @return the decoded value
+	 */
+	protected Object decodeValue(Object value) {
+		if (value instanceof String) {
+			return file.decode((String) value);
+		} else if (value instanceof Character) {
+			return file.codec.decode((Character) value);
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,428 @@
+package de.rojer.editablefiles;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores typed values in a compact binary file. The records (key, type tag,
+ * value) are sorted by key and grouped into blocks of about
+ * {@link #BLOCK_SIZE} bytes. A footer at the end of the file holds the first
+ * key and the offset of every block, so a lookup only reads the footer (once)
+ * and a single block. Strings are stored as UTF-8, prefixed with their length
+ * in 7-bit groups (one byte for up to 127 bytes).
+ * <p>
+ * Layout: magic, version, blocks of records, footer (amount of blocks, first
+ * key and offset of every block), offset of the footer, magic
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class BinaryStore {
+
+	/**
+	 * Identifies a binary file ("BFL1")
+	 */
+	public static final int MAGIC = 0x42464C31;
+
+	/**
+	 * The version of the layout
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The size of a block (in bytes), a block is closed after its first record
+	 * which crosses this size
+	 */
+	public static final int BLOCK_SIZE = 4096;
+
+	/**
+	 * The size of the header and of the trailer (in bytes)
+	 */
+	protected static final int HEADER_SIZE = 8, TRAILER_SIZE = 12;
+
+	/**
+	 * The binary file
+	 */
+	protected File file;
+
+	/**
+	 * The first key of every block
+	 */
+	protected String[] firstKeys;
+
+	/**
+	 * The offset of every block (the last entry is the offset of the footer)
+	 */
+	protected long[] offsets;
+
+	/**
+	 * The identity of the file, when the footer was read
+	 */
+	protected Object fileKey;
+
+	/**
+	 * The modification time (in nanoseconds) and the length of the file, when the
+	 * footer was read
+	 */
+	protected long lastModified, length = -1;
+
+	/**
+	 * Create a store
+	 * 
+	 * @param file the binary file
+	 */
+	public BinaryStore(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Looks up the value of a key
+	 * 
+	 * @param key the key
+	 * @return the value (an Integer, Float, Double, Boolean, Character or String)
+	 *         or null, if the key doesn't exist
+	 * @throws IOException when the file couldn't be read or is corrupted
+	 */
+	public synchronized Object get(String key) throws IOException {
+		loadFooter();
+		int block = findBlock(key);
+		if (block < 0) {
+			return null;
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(readBlock(block)));
+		while (in.available() > 0) {
+			String recordKey = readString(in);
+			int comparison = recordKey.compareTo(key);
+			if (comparison == 0) {
+				return readValue(in);
+			} else if (comparison > 0) {
+				return null;
+			}
+			skipValue(in);
+		}
+		return null;
+	}
+
+	/**
+	 * Reads all records of the file
+	 * 
+	 * @return the records (key -> value), sorted by key
+	 * @throws IOException when the file couldn't be read or is corrupted
+	 */
+	public synchronized TreeMap<String, Object> readAll() throws IOException {
+		TreeMap<String, Object> records = new TreeMap<String, Object>();
+		loadFooter();
+		for (int block = 0; block < firstKeys.length; block++) {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(readBlock(block)));
+			while (in.available() > 0) {
+				String key = readString(in);
+				records.put(key, readValue(in));
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Replaces the contents of the file atomically (through a temporary file)
+	 * 
+	 * @param records the records (key -> value), sorted by key
+	 * @param sync    true to force the file to the disk before it replaces the old
+	 *                one
+	 * @throws IOException when the file couldn't be written
+	 */
+	public synchronized void writeAll(TreeMap<String, Object> records, boolean sync) throws IOException {
+		File temp = EditableFile.createTempFile(file.getAbsoluteFile().getParentFile(), file.getName(), ".tmp");
+		try {
+			FileOutputStream fos = new FileOutputStream(temp);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			ArrayList<String> blockKeys = new ArrayList<String>();
+			ArrayList<Long> blockOffsets = new ArrayList<Long>();
+			long blockStart = -1;
+			for (Map.Entry<String, Object> record : records.entrySet()) {
+				if (blockStart < 0 || out.size() - blockStart >= BLOCK_SIZE) {
+					blockStart = out.size();
+					blockKeys.add(record.getKey());
+					blockOffsets.add(blockStart);
+				}
+				writeString(out, record.getKey());
+				writeValue(out, record.getValue());
+			}
+			long footer = out.size();
+			out.writeInt(blockKeys.size());
+			for (int i = 0; i < blockKeys.size(); i++) {
+				writeString(out, blockKeys.get(i));
+				out.writeLong(blockOffsets.get(i));
+			}
+			out.writeLong(footer);
+			out.writeInt(MAGIC);
+			out.flush();
+			if (sync) {
+				fos.getFD().sync();
+			}
+			out.close();
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			temp.delete();
+		}
+		length = -1;
+	}
+
+	/**
+	 * (Re-)Reads the footer, if the file was changed
+	 * 
+	 * @throws IOException when the file couldn't be read or is corrupted
+	 */
+	protected void loadFooter() throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+		long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+		if (attributes.size() == length && modified == lastModified
+				&& (fileKey == null || fileKey.equals(attributes.fileKey()))) {
+			return;
+		}
+		if (attributes.size() == 0) {
+			firstKeys = new String[0];
+			offsets = new long[] { HEADER_SIZE };
+		} else {
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				if (raf.length() < HEADER_SIZE + TRAILER_SIZE || raf.readInt() != MAGIC) {
+					throw new IOException("Not a binary file: " + file);
+				}
+				raf.seek(raf.length() - TRAILER_SIZE);
+				long footer = raf.readLong();
+				if (raf.readInt() != MAGIC) {
+					throw new IOException("Corrupted binary file: " + file);
+				}
+				byte[] bytes = new byte[(int) (raf.length() - TRAILER_SIZE - footer)];
+				raf.seek(footer);
+				raf.readFully(bytes);
+				DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+				int blocks = in.readInt();
+				firstKeys = new String[blocks];
+				offsets = new long[blocks + 1];
+				for (int i = 0; i < blocks; i++) {
+					firstKeys[i] = readString(in);
+					offsets[i] = in.readLong();
+				}
+				offsets[blocks] = footer;
+			} finally {
+				raf.close();
+			}
+		}
+		fileKey = attributes.fileKey();
+		lastModified = modified;
+		length = attributes.size();
+	}
+
+	/**
+	 * Finds the block, which would contain a key
+	 * 
+	 * @param key the key
+	 * @return the index of the block or -1, if the key is before the first block
+	 */
+	protected int findBlock(String key) {
+		int low = 0, high = firstKeys.length - 1, found = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (firstKeys[middle].compareTo(key) <= 0) {
+				found = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Reads the bytes of a block
+	 * 
+	 * @param block the index of the block
+	 * @return the bytes
+	 * @throws IOException when the file couldn't be read
+	 */
+	protected byte[] readBlock(int block) throws IOException {
+		byte[] bytes = new byte[(int) (offsets[block + 1] - offsets[block])];
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			raf.seek(offsets[block]);
+			raf.readFully(bytes);
+		} finally {
+			raf.close();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Writes a typed value (type tag followed by the value)
+	 * 
+	 * @param out   the output
+	 * @param value the value
+	 * @throws IOException when the value couldn't be written
+	 */
+	protected static void writeValue(DataOutputStream out, Object value) throws IOException {
+		ValueType type = ValueType.of(value);
+		out.writeByte(type.getTag());
+		switch (type) {
+		case INT:
+			out.writeInt((Integer) value);
+			break;
+		case FLOAT:
+			out.writeFloat((Float) value);
+			break;
+		case DOUBLE:
+			out.writeDouble((Double) value);
+			break;
+		case BOOLEAN:
+			out.writeBoolean((Boolean) value);
+			break;
+		case CHAR:
+			out.writeChar((Character) value);
+			break;
+		default:
+			writeString(out, String.valueOf(value));
+		}
+	}
+
+	/**
+	 * Reads a typed value
+	 * 
+	 * @param in the input
+	 * @return the value
+	 * @throws IOException when the value is corrupted
+	 */
+	protected static Object readValue(DataInputStream in) throws IOException {
+		ValueType type = ValueType.of((char) in.readByte());
+		if (type == null) {
+			throw new IOException("Unknown type in binary file!");
+		}
+		switch (type) {
+		case INT:
+			return in.readInt();
+		case FLOAT:
+			return in.readFloat();
+		case DOUBLE:
+			return in.readDouble();
+		case BOOLEAN:
+			return in.readBoolean();
+		case CHAR:
+			return in.readChar();
+		default:
+			return readString(in);
+		}
+	}
+
+	/**
+	 * Skips a typed value
+	 * 
+	 * @param in the input
+	 * @throws IOException when the value is corrupted
+	 */
+	protected static void skipValue(DataInputStream in) throws IOException {
+		ValueType type = ValueType.of((char) in.readByte());
+		if (type == null) {
+			throw new IOException("Unknown type in binary file!");
+		}
+		switch (type) {
+		case INT:
+		case FLOAT:
+			in.skipBytes(4);
+			break;
+		case DOUBLE:
+			in.skipBytes(8);
+			break;
+		case BOOLEAN:
+			in.skipBytes(1);
+			break;
+		case CHAR:
+			in.skipBytes(2);
+			break;
+		default:
+			in.skipBytes(readLength(in));
+		}
+	}
+
+	/**
+	 * Writes a length-prefixed UTF-8 string
+	 * 
+	 * @param out    the output
+	 * @param string the string
+	 * @throws IOException when the string couldn't be written
+	 */
+	protected static void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		writeLength(out, bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a length-prefixed UTF-8 string
+	 * 
+	 * @param in the input
+	 * @return the string
+	 * @throws IOException when the string is corrupted
+	 */
+	protected static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readLength(in)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes a length in groups of 7 bits (lowest first)
+	 * 
+	 * @param out    the output
+	 * @param length the length
+	 * @throws IOException when the length couldn't be written
+	 */
+	protected static void writeLength(DataOutputStream out, int length) throws IOException {
+		while ((length & ~0x7F) != 0) {
+			out.writeByte((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		out.writeByte(length);
+	}
+
+	/**
+	 * Reads a length written by {@link #writeLength(DataOutputStream, int)}
+	 * 
+	 * @param in the input
+	 * @return the length
+	 * @throws IOException when the length is corrupted
+	 */
+	protected static int readLength(DataInputStream in) throws IOException {
+		int length = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			length |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return length;
+			}
+		}
+		throw new IOException("Corrupted length in binary file!");
+	}
+
+}
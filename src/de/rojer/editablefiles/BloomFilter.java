@@ -0,0 +1,265 @@
+package de.rojer.editablefiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A set of paths, which can tell for sure, that a path is not in it. A path,
+ * which was added, is always found. A path, which was not added, is found with
+ * the false positive rate the filter was created for, as long as it holds at
+ * most the expected amount of paths.
+ * <p>
+ * Every path sets a few bits in a bit array (chosen by two hashes of the path,
+ * see Kirsch and Mitzenmacher). The filter can be saved to a file together with
+ * a stamp of the data it describes, it is only loaded again, if the stamp still
+ * matches.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class BloomFilter {
+
+	/**
+	 * Identifies a saved filter ("BLM1")
+	 */
+	protected static final int MAGIC = 0x424C4D31;
+
+	/**
+	 * The bits
+	 */
+	protected final AtomicLongArray bits;
+
+	/**
+	 * The amount of bits
+	 */
+	protected final long size;
+
+	/**
+	 * The amount of bits every path sets
+	 */
+	protected final int hashes;
+
+	/**
+	 * The amount of paths the filter was created for
+	 */
+	protected final int capacity;
+
+	/**
+	 * The amount of added paths (paths, which were found already, are not
+	 * counted)
+	 */
+	protected final AtomicInteger count = new AtomicInteger();
+
+	/**
+	 * Create a filter
+	 * 
+	 * @param capacity          the expected amount of paths
+	 * @param falsePositiveRate the rate of paths, which are found without being
+	 *                          added (between 0 and 1)
+	 */
+	public BloomFilter(int capacity, double falsePositiveRate) {
+		this.capacity = Math.max(1, capacity);
+		double rate = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+		long bits = (long) Math.ceil(-this.capacity * Math.log(rate) / (Math.log(2) * Math.log(2)));
+		int words = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (bits + 63) >>> 6));
+		this.size = (long) words << 6;
+		this.hashes = Math.max(1, (int) Math.round((double) size / this.capacity * Math.log(2)));
+		this.bits = new AtomicLongArray(words);
+	}
+
+	/**
+	 * Create a loaded filter
+	 * 
+	 * @param words    the bits
+	 * @param hashes   the amount of bits every path sets
+	 * @param capacity the amount of paths the filter was created for
+	 * @param count    the amount of added paths
+	 */
+	protected BloomFilter(long[] words, int hashes, int capacity, int count) {
+		this.bits = new AtomicLongArray(words);
+		this.size = (long) words.length << 6;
+		this.hashes = hashes;
+		this.capacity = capacity;
+		this.count.set(count);
+	}
+
+	/**
+	 * Adds a path
+	 * 
+	 * @param path the path
+	 * @return true if the path was not found before
+	 */
+	public boolean add(String path) {
+		long hash = hash(path);
+		int h1 = (int) hash, h2 = (int) (hash >>> 32);
+		boolean changed = false;
+		for (int i = 1; i <= hashes; i++) {
+			long bit = Math.floorMod(h1 + (long) i * h2, size);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long old;
+			while (((old = bits.get(word)) & mask) == 0) {
+				if (bits.compareAndSet(word, old, old | mask)) {
+					changed = true;
+					break;
+				}
+			}
+		}
+		if (changed) {
+			count.incrementAndGet();
+		}
+		return changed;
+	}
+
+	/**
+	 * Tests for a path
+	 * 
+	 * @param path the path
+	 * @return false if the path was never added, true if it might have been added
+	 */
+	public boolean mightContain(String path) {
+		long hash = hash(path);
+		int h1 = (int) hash, h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashes; i++) {
+			long bit = Math.floorMod(h1 + (long) i * h2, size);
+			if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if the filter holds more paths than it was created for (the
+	 *         false positive rate rises)
+	 */
+	public boolean isFull() {
+		return count.get() > capacity;
+	}
+
+	/**
+	 * @return the amount of added paths
+	 */
+	public int getCount() {
+		return count.get();
+	}
+
+	/**
+	 * @return the amount of paths the filter was created for
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	// Saving and loading
+
+	/**
+	 * Saves the filter (atomically, through a temporary file of its own, so
+	 * objects saving the same filter at once don't write into each other)
+	 * 
+	 * @param target the file of the filter
+	 * @param stamp  describes the data of the filter (e.g. the length and
+	 *               modification time of a file)
+	 * @throws IOException when the filter couldn't be written
+	 */
+	public void save(File target, long[] stamp) throws IOException {
+		File temp = EditableFile.createTempFile(target.getAbsoluteFile().getParentFile(), target.getName(), ".tmp");
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(stamp.length);
+				for (long part : stamp) {
+					out.writeLong(part);
+				}
+				out.writeInt(hashes);
+				out.writeInt(capacity);
+				out.writeInt(count.get());
+				out.writeInt(bits.length());
+				for (int i = 0; i < bits.length(); i++) {
+					out.writeLong(bits.get(i));
+				}
+			} finally {
+				out.close();
+			}
+			try {
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Loads a saved filter
+	 * 
+	 * @param source the file of the filter
+	 * @param stamp  describes the current data (the filter is only loaded, if it
+	 *               was saved with the same stamp)
+	 * @return the filter or null, if there is none or it doesn't match the stamp
+	 */
+	public static BloomFilter load(File source, long[] stamp) {
+		if (!source.isFile()) {
+			return null;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source)));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != stamp.length) {
+					return null;
+				}
+				for (long part : stamp) {
+					if (in.readLong() != part) {
+						return null;
+					}
+				}
+				int hashes = in.readInt(), capacity = in.readInt(), count = in.readInt();
+				long[] words = new long[in.readInt()];
+				for (int i = 0; i < words.length; i++) {
+					words[i] = in.readLong();
+				}
+				return new BloomFilter(words, hashes, capacity, count);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Hashes a path (64 bit FNV-1a over the characters, mixed like MurmurHash3)
+	 * 
+	 * @param path the path
+	 * @return the hash
+	 */
+	protected static long hash(String path) {
+		long hash = 0xCBF29CE484222325L;
+		for (int i = 0; i < path.length(); i++) {
+			hash ^= path.charAt(i);
+			hash *= 0x100000001B3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
@@ -0,0 +1,297 @@
+package de.rojer.editablefiles;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Imports any amount of values into an {@link EditableFile} with a single
+ * rewrite of the file, instead of one rewrite per value. The values are sorted
+ * with an external merge sort: they are collected in memory until a run is
+ * full, every full run is sorted and written to a temporary file. In the end
+ * all runs are merged with the current contents of the file in one streaming
+ * pass, so the memory stays bounded by the size of a run.
+ * <p>
+ * The last value for a path wins, null values delete the path. Files with an
+ * engine other than the text engine get the values in batches of the size of
+ * a run.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class BulkLoader {
+
+	/**
+	 * The default amount of values in a run
+	 */
+	public static final int DEFAULT_RUN_SIZE = 100000;
+
+	/**
+	 * The file the values are loaded into
+	 */
+	protected EditableFile file;
+
+	/**
+	 * The amount of values, which are sorted in memory before they are written to
+	 * a temporary file
+	 */
+	protected int runSize = DEFAULT_RUN_SIZE;
+
+	/**
+	 * The folder of the temporary files (null for the folder of the file)
+	 */
+	protected File tempFolder;
+
+	/**
+	 * Create a loader (use {@link EditableFile#bulkLoader()})
+	 * 
+	 * @param file the file the values are loaded into
+	 */
+	protected BulkLoader(EditableFile file) {
+		this.file = file;
+	}
+
+	// Loading
+
+	/**
+	 * Loads all values of a map
+	 * 
+	 * @param values the values (path -> value)
+	 * @return the amount of loaded values
+	 * @throws UncheckedIOException when a run or the file couldn't be written
+	 *                              (the file keeps its old contents)
+	 */
+	public long load(Map<String, ?> values) {
+		return load(values.entrySet().iterator());
+	}
+
+	/**
+	 * Loads all values of a stream
+	 * 
+	 * @param values the values (path and value, e.g. {@link Map.Entry}s of a map)
+	 * @return the amount of loaded values
+	 * @throws UncheckedIOException when a run or the file couldn't be written
+	 *                              (the file keeps its old contents)
+	 */
+	public long load(Stream<? extends Map.Entry<String, ?>> values) {
+		return load(values.iterator());
+	}
+
+	/**
+	 * Loads all values of an iterator
+	 * 
+	 * @param values the values (path and value: an Integer, Float, Double,
+	 *               Boolean, Character, String or null to delete the path)
+	 * @return the amount of loaded values
+	 * @throws UncheckedIOException when a run or the file couldn't be written
+	 *                              (the file keeps its old contents)
+	 */
+	public long load(Iterator<? extends Map.Entry<String, ?>> values) {
+		StorageEngine engine = file.flushedEngine();
+		if (!(engine instanceof TextStorageEngine)) {
+			return loadInBatches(values);
+		}
+		long start = System.nanoTime();
+		long writes = 0, deletes = 0;
+		ArrayList<File> runs = new ArrayList<File>();
+		file.filterLock.readLock().lock();
+		try {
+			HashMap<String, Object> run = new HashMap<String, Object>();
+			while (values.hasNext()) {
+				Map.Entry<String, ?> value = values.next();
+				if (value.getValue() == null) {
+					deletes++;
+				} else {
+					file.addToFilter(value.getKey());
+					writes++;
+				}
+				run.put(value.getKey(), value.getValue());
+				if (run.size() >= runSize) {
+					runs.add(spill(encode(run)));
+					run = new HashMap<String, Object>();
+				}
+			}
+			merge((TextStorageEngine) engine, runs, encode(run));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			file.filterLock.readLock().unlock();
+			for (File run : runs) {
+				run.delete();
+			}
+		}
+		file.metrics.recordChange(FileMetrics.Operation.BATCH, writes, deletes, System.nanoTime() - start);
+		return writes + deletes;
+	}
+
+	/**
+	 * Loads the values with batches of the size of a run (for engines other than
+	 * the text engine)
+	 * 
+	 * @param values the values (path and value or null)
+	 * @return the amount of loaded values
+	 */
+	protected long loadInBatches(Iterator<? extends Map.Entry<String, ?>> values) {
+		long count = 0;
+		TreeMap<String, Object> changes = new TreeMap<String, Object>();
+		while (values.hasNext()) {
+			Map.Entry<String, ?> value = values.next();
+			changes.put(value.getKey(), value.getValue());
+			count++;
+			if (changes.size() >= runSize) {
+				file.commitBatch(changes);
+				changes = new TreeMap<String, Object>();
+			}
+		}
+		if (!changes.isEmpty()) {
+			file.commitBatch(changes);
+		}
+		return count;
+	}
+
+	/**
+	 * Encodes a run (the time spent encoding is measured once per run)
+	 * 
+	 * @param run the run (path -> value or null)
+	 * @return the run sorted like the file (encoded path -> encoded line or null)
+	 */
+	protected TreeMap<String, String> encode(Map<String, Object> run) {
+		long start = System.nanoTime();
+		TreeMap<String, String> lines = new TreeMap<String, String>();
+		for (Map.Entry<String, Object> value : run.entrySet()) {
+			lines.put(file.encode(value.getKey() + ": "),
+					value.getValue() == null ? null : file.encodeLine(value.getKey(), value.getValue()));
+		}
+		file.metrics.addEncodeTime(System.nanoTime() - start);
+		return lines;
+	}
+
+	/**
+	 * Writes a sorted run to a temporary file (lines like the records of the
+	 * write-ahead log)
+	 * 
+	 * @param run the run (encoded path -> encoded line or null)
+	 * @return the temporary file
+	 * @throws IOException when the run couldn't be written
+	 */
+	protected File spill(TreeMap<String, String> run) throws IOException {
+		File folder = tempFolder != null ? tempFolder : file.file.getAbsoluteFile().getParentFile();
+		File temp = EditableFile.createTempFile(folder, file.fileName, ".run");
+		PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(temp)));
+		try {
+			for (Map.Entry<String, String> line : run.entrySet()) {
+				pw.println(line.getValue() == null ? TextStorageEngine.LOG_DELETE + line.getKey()
+						: TextStorageEngine.LOG_SET + line.getValue());
+			}
+		} finally {
+			pw.close();
+		}
+		return temp;
+	}
+
+	/**
+	 * Merges the runs with the contents of the file (and the records of the
+	 * write-ahead log) and replaces the file with the result
+	 * 
+	 * @param engine the text engine of the file
+	 * @param runs   the temporary files of the full runs (in the order they were
+	 *               written)
+	 * @param last   the last run, which is still in memory
+	 * @throws IOException when a file couldn't be read or written
+	 */
+	protected void merge(TextStorageEngine engine, ArrayList<File> runs, TreeMap<String, String> last)
+			throws IOException {
+		ArrayList<Closeable> readers = new ArrayList<Closeable>();
+		try {
+			List<Iterator<Map.Entry<String, String>>> sources = new ArrayList<Iterator<Map.Entry<String, String>>>();
+			for (File run : runs) {
+				BufferedReader reader = new BufferedReader(new FileReader(run));
+				readers.add(reader);
+				sources.add(runLines(reader));
+			}
+			sources.add(last.entrySet().iterator());
+			engine.mergeSources(sources);
+		} finally {
+			for (Closeable reader : readers) {
+				reader.close();
+			}
+		}
+	}
+
+	/**
+	 * @param reader the reader of a run
+	 * @return the lines of the run (encoded path -> encoded line or null)
+	 */
+	protected Iterator<Map.Entry<String, String>> runLines(BufferedReader reader) {
+		Iterator<String> records = reader.lines().iterator();
+		return new Iterator<Map.Entry<String, String>>() {
+
+			@Override
+			public boolean hasNext() {
+				return records.hasNext();
+			}
+
+			@Override
+			public Map.Entry<String, String> next() {
+				String record = records.next();
+				if (record.charAt(0) == TextStorageEngine.LOG_DELETE) {
+					return new AbstractMap.SimpleImmutableEntry<String, String>(record.substring(1), null);
+				}
+				String line = record.substring(1);
+				return new AbstractMap.SimpleImmutableEntry<String, String>(file.pathOf(line), line);
+			}
+
+		};
+	}
+
+	// Getters and setters
+
+	/**
+	 * Sets the amount of values, which are sorted in memory before they are
+	 * written to a temporary file
+	 * 
+	 * @param runSize the amount of values (at least 1)
+	 */
+	public void setRunSize(int runSize) {
+		this.runSize = Math.max(1, runSize);
+	}
+
+	/**
+	 * @return the amount of values, which are sorted in memory at once
+	 */
+	public int getRunSize() {
+		return runSize;
+	}
+
+	/**
+	 * Sets the folder of the temporary files
+	 * 
+	 * @param tempFolder the folder (null for the folder of the file)
+	 */
+	public void setTempFolder(File tempFolder) {
+		this.tempFolder = tempFolder;
+	}
+
+	/**
+	 * @return the folder of the temporary files (null for the folder of the file)
+	 */
+	public File getTempFolder() {
+		return tempFolder;
+	}
+
+}
@@ -0,0 +1,115 @@
+package de.rojer.editablefiles;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * A codec substitutes every character of a file with its encoded character
+ * (and back). The bulk methods transform the given range in place, without
+ * allocating anything.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public interface Codec {
+
+	/**
+	 * Encodes a single character
+	 * 
+	 * @param c the character
+	 * @return the encoded character
+	 */
+	public char encode(char c);
+
+	/**
+	 * Decodes a single character
+	 * 
+	 * @param c the encoded character
+	 * @return the decoded character
+	 */
+	public char decode(char c);
+
+	/**
+	 * Encodes a range of characters in place
+	 * 
+	 * @param chars  the characters
+	 * @param offset the index of the first character
+	 * @param length the amount of characters
+	 */
+	public default void encode(char[] chars, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			chars[i] = encode(chars[i]);
+		}
+	}
+
+	/**
+	 * Decodes a range of characters in place
+	 * 
+	 * @param chars  the characters
+	 * @param offset the index of the first character
+	 * @param length the amount of characters
+	 */
+	public default void decode(char[] chars, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			chars[i] = decode(chars[i]);
+		}
+	}
+
+	/**
+	 * Encodes the remaining characters of a buffer in place (the position of the
+	 * buffer doesn't change)
+	 * 
+	 * @param buffer the buffer
+	 */
+	public default void encode(CharBuffer buffer) {
+		if (buffer.hasArray()) {
+			encode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			return;
+		}
+		for (int i = buffer.position(); i < buffer.limit(); i++) {
+			buffer.put(i, encode(buffer.get(i)));
+		}
+	}
+
+	/**
+	 * Decodes the remaining characters of a buffer in place (the position of the
+	 * buffer doesn't change)
+	 * 
+	 * @param buffer the buffer
+	 */
+	public default void decode(CharBuffer buffer) {
+		if (buffer.hasArray()) {
+			decode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			return;
+		}
+		for (int i = buffer.position(); i < buffer.limit(); i++) {
+			buffer.put(i, decode(buffer.get(i)));
+		}
+	}
+
+	/**
+	 * Encodes the remaining bytes of a buffer in place, every byte is treated as
+	 * one (single byte) character. The position of the buffer doesn't change.
+	 * 
+	 * @param buffer the buffer
+	 */
+	public default void encode(ByteBuffer buffer) {
+		for (int i = buffer.position(); i < buffer.limit(); i++) {
+			buffer.put(i, (byte) encode((char) (buffer.get(i) & 0xFF)));
+		}
+	}
+
+	/**
+	 * Decodes the remaining bytes of a buffer in place, every byte is treated as
+	 * one (single byte) character. The position of the buffer doesn't change.
+	 * 
+	 * @param buffer the buffer
+	 */
+	public default void decode(ByteBuffer buffer) {
+		for (int i = buffer.position(); i < buffer.limit(); i++) {
+			buffer.put(i, (byte) decode((char) (buffer.get(i) & 0xFF)));
+		}
+	}
+
+}
@@ -0,0 +1,984 @@
+package de.rojer.editablefiles;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+import de.rojer.editablefiles.exceptions.WrongTypeException;
+
+/**
+ * An immutable in-memory copy of the contents of a file, which needs a
+ * fraction of the memory of a map of strings. The paths are packed into a
+ * single sorted character array with an array of offsets, the values are kept
+ * in primitive columns by their type (int, long, double, boolean and a packed
+ * string column), so the typed getters neither box nor parse. A numeric entry
+ * with a path of ten characters takes about 35 bytes instead of about 150.
+ * <p>
+ * Create a table with {@link #of(EditableFile)} or a {@link Builder}. Paths are
+ * found by a binary search. The getters convert like the getters of
+ * {@link EditableFile} (also in strict mode, see
+ * {@link Builder#setStrictTypes(boolean)}), but return 0, false, '\0' or "" for
+ * missing paths without logging.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class ColumnarTable {
+
+	/**
+	 * Collects the entries of a table (in any order, the last value for a path
+	 * wins)
+	 */
+	public static class Builder {
+
+		/**
+		 * The characters of all paths
+		 */
+		protected char[] keys = new char[1024];
+
+		/**
+		 * The start of every path in {@link #keys} (plus the end of the last one)
+		 */
+		protected int[] keyOffsets = new int[65];
+
+		/**
+		 * The column of every entry
+		 */
+		protected byte[] columns = new byte[64];
+
+		/**
+		 * The position of every value in its column
+		 */
+		protected int[] slots = new int[64];
+
+		/**
+		 * The integers and characters
+		 */
+		protected int[] ints = new int[16];
+
+		/**
+		 * The longs
+		 */
+		protected long[] longs = new long[16];
+
+		/**
+		 * The floats and doubles (floats as the double of their text, see
+		 * {@link #toDouble(float)})
+		 */
+		protected double[] doubles = new double[16];
+
+		/**
+		 * The booleans
+		 */
+		protected BitSet booleans = new BitSet();
+
+		/**
+		 * The characters of all strings
+		 */
+		protected char[] strings = new char[256];
+
+		/**
+		 * The start of every string in {@link #strings} (plus the end of the last
+		 * one)
+		 */
+		protected int[] stringOffsets = new int[17];
+
+		/**
+		 * The amount of entries and of values in every column
+		 */
+		protected int size, intCount, longCount, doubleCount, booleanCount, stringCount;
+
+		/**
+		 * The entries, whose type was guessed from their text
+		 */
+		protected BitSet untyped = new BitSet();
+
+		/**
+		 * Indicates, whether the paths were added in sorted order (without
+		 * duplicates)
+		 */
+		protected boolean sorted = true;
+
+		/**
+		 * Indicates, whether the table only returns values as the type they were
+		 * added with
+		 */
+		protected boolean strictTypes;
+
+		/**
+		 * Turns the strict conversion of the table on or off (see
+		 * {@link EditableFile#setStrictTypes(boolean)}). Values added with
+		 * {@link #addText(String, String)} must look like the wanted type.
+		 * 
+		 * @param strictTypes true for strict conversions
+		 * @return this builder
+		 */
+		public Builder setStrictTypes(boolean strictTypes) {
+			this.strictTypes = strictTypes;
+			return this;
+		}
+
+		/**
+		 * Adds an entry with a typed value
+		 * 
+		 * @param path  the path of the value
+		 * @param value an Integer, Long, Float, Double, Boolean, Character or String
+		 *              (other objects are added as their text)
+		 * @return this builder
+		 */
+		public Builder add(String path, Object value) {
+			if (value instanceof Integer || value instanceof Character) {
+				int number = value instanceof Integer ? (Integer) value : (Character) value;
+				ints = ensure(ints, intCount + 1);
+				ints[intCount] = number;
+				return addEntry(path, value instanceof Integer ? INT : CHAR, intCount++);
+			} else if (value instanceof Long) {
+				longs = ensure(longs, longCount + 1);
+				longs[longCount] = (Long) value;
+				return addEntry(path, LONG, longCount++);
+			} else if (value instanceof Float || value instanceof Double) {
+				doubles = ensure(doubles, doubleCount + 1);
+				doubles[doubleCount] = value instanceof Float ? toDouble((Float) value) : (Double) value;
+				return addEntry(path, value instanceof Float ? FLOAT : DOUBLE, doubleCount++);
+			} else if (value instanceof Boolean) {
+				booleans.set(booleanCount, (Boolean) value);
+				return addEntry(path, BOOLEAN, booleanCount++);
+			}
+			String text = String.valueOf(value);
+			strings = ensure(strings, stringOffsets[stringCount] + text.length());
+			text.getChars(0, text.length(), strings, stringOffsets[stringCount]);
+			stringOffsets = ensure(stringOffsets, stringCount + 2);
+			stringOffsets[stringCount + 1] = stringOffsets[stringCount] + text.length();
+			return addEntry(path, STRING, stringCount++);
+		}
+
+		/**
+		 * Converts a float into the double of its text (0.1F becomes 0.1, not
+		 * 0.10000000149011612), like a float read from a text file. Widening with a
+		 * cast would make getDouble() differ from the text of the value, so the
+		 * text is parsed here once instead of on every read.
+		 * 
+		 * @param value the float
+		 * @return the double, which still narrows back to exactly the float
+		 */
+		protected static double toDouble(float value) {
+			double decimal = Double.parseDouble(Float.toString(value));
+			return (float) decimal == value ? decimal : value;
+		}
+
+		/**
+		 * Adds an entry with the text of a value. The type is guessed, texts, which
+		 * wouldn't turn back into the same text, stay strings.
+		 * 
+		 * @param path the path of the value
+		 * @param text the text of the value
+		 * @return this builder
+		 */
+		public Builder addText(String path, String text) {
+			Object value = ValueType.infer(text);
+			if (value == text && ValueParser.isLong(text, 0, text.length())) {
+				long number = ValueParser.parseLong(text, 0, text.length());
+				if (Long.toString(number).equals(text)) {
+					value = number;
+				}
+			}
+			add(path, value);
+			untyped.set(size - 1);
+			return this;
+		}
+
+		/**
+		 * Builds the table. Of entries with the same path only the last one is
+		 * kept, the values of the others are left out of the columns.
+		 * 
+		 * @return the table with all entries, sorted by path
+		 */
+		public ColumnarTable build() {
+			int[] order = new int[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			if (!sorted) {
+				sort(order, new int[size], 0, size);
+			}
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				if (i + 1 == size || compareKeys(order[i], order[i + 1]) != 0) {
+					order[count++] = order[i];
+				}
+			}
+			int keyLength = 0, newIntCount = 0, newLongCount = 0, newDoubleCount = 0, stringLength = 0,
+					newStringCount = 0;
+			for (int i = 0; i < count; i++) {
+				int entry = order[i];
+				keyLength += keyOffsets[entry + 1] - keyOffsets[entry];
+				switch (columns[entry]) {
+				case INT:
+				case CHAR:
+					newIntCount++;
+					break;
+				case LONG:
+					newLongCount++;
+					break;
+				case FLOAT:
+				case DOUBLE:
+					newDoubleCount++;
+					break;
+				case STRING:
+					stringLength += stringOffsets[slots[entry] + 1] - stringOffsets[slots[entry]];
+					newStringCount++;
+					break;
+				}
+			}
+			char[] newKeys = new char[keyLength];
+			int[] newKeyOffsets = new int[count + 1];
+			byte[] newColumns = new byte[count];
+			int[] newSlots = new int[count];
+			int[] newInts = new int[newIntCount];
+			long[] newLongs = new long[newLongCount];
+			double[] newDoubles = new double[newDoubleCount];
+			BitSet newBooleans = new BitSet();
+			char[] newStrings = new char[stringLength];
+			int[] newStringOffsets = new int[newStringCount + 1];
+			BitSet newUntyped = new BitSet();
+			int intSlot = 0, longSlot = 0, doubleSlot = 0, booleanSlot = 0, stringSlot = 0;
+			for (int i = 0; i < count; i++) {
+				int entry = order[i], slot = slots[entry];
+				int length = keyOffsets[entry + 1] - keyOffsets[entry];
+				System.arraycopy(keys, keyOffsets[entry], newKeys, newKeyOffsets[i], length);
+				newKeyOffsets[i + 1] = newKeyOffsets[i] + length;
+				newColumns[i] = columns[entry];
+				newUntyped.set(i, untyped.get(entry));
+				switch (columns[entry]) {
+				case INT:
+				case CHAR:
+					newInts[intSlot] = ints[slot];
+					newSlots[i] = intSlot++;
+					break;
+				case LONG:
+					newLongs[longSlot] = longs[slot];
+					newSlots[i] = longSlot++;
+					break;
+				case FLOAT:
+				case DOUBLE:
+					newDoubles[doubleSlot] = doubles[slot];
+					newSlots[i] = doubleSlot++;
+					break;
+				case BOOLEAN:
+					newBooleans.set(booleanSlot, booleans.get(slot));
+					newSlots[i] = booleanSlot++;
+					break;
+				default:
+					int from = stringOffsets[slot], to = stringOffsets[slot + 1];
+					System.arraycopy(strings, from, newStrings, newStringOffsets[stringSlot], to - from);
+					newStringOffsets[stringSlot + 1] = newStringOffsets[stringSlot] + to - from;
+					newSlots[i] = stringSlot++;
+				}
+			}
+			return new ColumnarTable(newKeys, newKeyOffsets, newColumns, newSlots, newInts, newLongs, newDoubles,
+					newBooleans, newStrings, newStringOffsets, newUntyped, strictTypes);
+		}
+
+		/**
+		 * Adds an entry, whose value is already in its column
+		 * 
+		 * @param path   the path of the value
+		 * @param column the column of the value
+		 * @param slot   the position of the value in its column
+		 * @return this builder
+		 */
+		protected Builder addEntry(String path, byte column, int slot) {
+			int start = keyOffsets[size];
+			keys = ensure(keys, start + path.length());
+			path.getChars(0, path.length(), keys, start);
+			keyOffsets = ensure(keyOffsets, size + 2);
+			keyOffsets[size + 1] = start + path.length();
+			columns = ensure(columns, size + 1);
+			columns[size] = column;
+			slots = ensure(slots, size + 1);
+			slots[size] = slot;
+			size++;
+			if (sorted && size > 1 && compareKeys(size - 2, size - 1) >= 0) {
+				sorted = false;
+			}
+			return this;
+		}
+
+		/**
+		 * Sorts entries by their path (a stable merge sort, so of equal paths the
+		 * last one added stays last)
+		 * 
+		 * @param order the entries
+		 * @param temp  a buffer of the same length
+		 * @param from  the first position (inclusive)
+		 * @param to    the last position (exclusive)
+		 */
+		protected void sort(int[] order, int[] temp, int from, int to) {
+			if (to - from < 2) {
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			sort(order, temp, from, middle);
+			sort(order, temp, middle, to);
+			if (compareKeys(order[middle - 1], order[middle]) <= 0) {
+				return;
+			}
+			System.arraycopy(order, from, temp, from, to - from);
+			int left = from, right = middle;
+			for (int i = from; i < to; i++) {
+				if (right >= to || (left < middle && compareKeys(temp[left], temp[right]) <= 0)) {
+					order[i] = temp[left++];
+				} else {
+					order[i] = temp[right++];
+				}
+			}
+		}
+
+		/**
+		 * Compares the paths of two entries (like {@link String#compareTo})
+		 * 
+		 * @param a the first entry
+		 * @param b the second entry
+		 * @return a negative number, zero or a positive number
+		 */
+		protected int compareKeys(int a, int b) {
+			return compare(keys, keyOffsets[a], keyOffsets[a + 1], keys, keyOffsets[b], keyOffsets[b + 1]);
+		}
+
+	}
+
+	/**
+	 * The columns
+	 */
+	protected static final byte INT = 0, LONG = 1, FLOAT = 2, DOUBLE = 3, BOOLEAN = 4, CHAR = 5, STRING = 6;
+
+	/**
+	 * The characters of all paths (sorted)
+	 */
+	protected final char[] keys;
+
+	/**
+	 * The start of every path in {@link #keys} (plus the end of the last one)
+	 */
+	protected final int[] keyOffsets;
+
+	/**
+	 * The column of every entry
+	 */
+	protected final byte[] columns;
+
+	/**
+	 * The position of every value in its column
+	 */
+	protected final int[] slots;
+
+	/**
+	 * The integers and characters
+	 */
+	protected final int[] ints;
+
+	/**
+	 * The longs
+	 */
+	protected final long[] longs;
+
+	/**
+	 * The floats and doubles (floats as the double of their text)
+	 */
+	protected final double[] doubles;
+
+	/**
+	 * The booleans
+	 */
+	protected final BitSet booleans;
+
+	/**
+	 * The characters of all strings
+	 */
+	protected final char[] strings;
+
+	/**
+	 * The start of every string in {@link #strings} (plus the end of the last
+	 * one)
+	 */
+	protected final int[] stringOffsets;
+
+	/**
+	 * The entries, whose type was guessed from their text
+	 */
+	protected final BitSet untyped;
+
+	/**
+	 * Indicates, whether values are only returned as the type they were added
+	 * with
+	 */
+	protected final boolean strictTypes;
+
+	/**
+	 * Create a table (use a {@link Builder})
+	 * 
+	 * @param keys          the characters of all paths (sorted)
+	 * @param keyOffsets    the start of every path
+	 * @param columns       the column of every entry
+	 * @param slots         the position of every value in its column
+	 * @param ints          the integers and characters
+	 * @param longs         the longs
+	 * @param doubles       the floats and doubles
+	 * @param booleans      the booleans
+	 * @param strings       the characters of all strings
+	 * @param stringOffsets the start of every string
+	 * @param untyped       the entries, whose type was guessed from their text
+	 * @param strictTypes   true for strict conversions
+	 */
+	protected ColumnarTable(char[] keys, int[] keyOffsets, byte[] columns, int[] slots, int[] ints, long[] longs,
+			double[] doubles, BitSet booleans, char[] strings, int[] stringOffsets, BitSet untyped,
+			boolean strictTypes) {
+		this.keys = keys;
+		this.keyOffsets = keyOffsets;
+		this.columns = columns;
+		this.slots = slots;
+		this.ints = ints;
+		this.longs = longs;
+		this.doubles = doubles;
+		this.booleans = booleans;
+		this.strings = strings;
+		this.stringOffsets = stringOffsets;
+		this.untyped = untyped;
+		this.strictTypes = strictTypes;
+	}
+
+	/**
+	 * Copies the contents of a file into a table. Values with a type tag and the
+	 * values of binary files keep their types, the types of the other values are
+	 * guessed (see {@link Builder#addText(String, String)}). A table of a strict
+	 * file is strict, too.
+	 * 
+	 * @param file the file
+	 * @return the table
+	 */
+	public static ColumnarTable of(EditableFile file) {
+		Builder builder = new Builder().setStrictTypes(file.isStrictTypes());
+		if (file.engine instanceof BinaryStorageEngine) {
+			for (Map.Entry<String, Object> value : ((BinaryStorageEngine) file.engine).readAll().entrySet()) {
+				builder.add(value.getKey(), value.getValue());
+			}
+			return builder.build();
+		}
+		EntryIterator it = file.scan();
+		try {
+			while (it.hasNext()) {
+				Entry entry = it.next();
+				if (entry.getType() != null) {
+					builder.add(entry.getKey(), entry.getTypedValue());
+				} else {
+					builder.addText(entry.getKey(), entry.getValue());
+				}
+			}
+		} finally {
+			it.close();
+		}
+		return builder.build();
+	}
+
+	// Getters
+
+	/**
+	 * @return the amount of entries
+	 */
+	public int size() {
+		return columns.length;
+	}
+
+	/**
+	 * Checks, whether there is a value at a certain path
+	 * 
+	 * @param path the path to the value
+	 * @return true if there is a value at that path
+	 */
+	public boolean contains(String path) {
+		return indexOf(path) >= 0;
+	}
+
+	/**
+	 * Gets an integer (only integer values!)
+	 * 
+	 * @param path the path to the integer value
+	 * @return the integer value (0, if there is none)
+	 * @throws WrongTypeException when the value at that path is not an integer
+	 */
+	public int getTrueInt(String path) throws WrongTypeException {
+		int index = indexOf(path);
+		if (index < 0) {
+			return 0;
+		}
+		checkType(index, INT, EditableFile.TYPE_INT);
+		if (columns[index] == INT) {
+			return ints[slots[index]];
+		} else if (columns[index] == STRING) {
+			String text = stringAt(index);
+			if (ValueParser.isInt(text, 0, text.length())) {
+				return ValueParser.parseInt(text, 0, text.length());
+			}
+		}
+		throw new WrongTypeException(typeOf(index), EditableFile.TYPE_INT);
+	}
+
+	/**
+	 * Gets an integer (floats and doubles are truncated like
+	 * {@link EditableFile#getInt(String)} does, unless the table is strict)
+	 * 
+	 * @param path the path to the integer value
+	 * @return the integer value (0, if there is none)
+	 * @throws WrongTypeException when the value at that path is not a number (or
+	 *                            not an integer in a strict table)
+	 */
+	public int getInt(String path) throws WrongTypeException {
+		int index = indexOf(path);
+		if (index < 0) {
+			return 0;
+		}
+		checkType(index, INT, EditableFile.TYPE_INT);
+		switch (columns[index]) {
+		case INT:
+			return ints[slots[index]];
+		case LONG:
+			return (int) (float) longs[slots[index]];
+		case FLOAT:
+		case DOUBLE:
+			return (int) (float) doubles[slots[index]];
+		case STRING:
+			String text = stringAt(index);
+			if (ValueParser.isFloat(text, 0, text.length())) {
+				return (int) ValueParser.parseFloat(text, 0, text.length());
+			}
+		}
+		throw new WrongTypeException(typeOf(index), EditableFile.TYPE_INT);
+	}
+
+	/**
+	 * Gets a long (only integral values, so it is strict anyway)
+	 * 
+	 * @param path the path to the long value
+	 * @return the long value (0, if there is none)
+	 * @throws WrongTypeException when the value at that path is not integral
+	 */
+	public long getLong(String path) throws WrongTypeException {
+		int index = indexOf(path);
+		if (index < 0) {
+			return 0;
+		} else if (columns[index] == INT) {
+			return ints[slots[index]];
+		} else if (columns[index] == LONG) {
+			return longs[slots[index]];
+		} else if (columns[index] == STRING) {
+			String text = stringAt(index);
+			if (ValueParser.isLong(text, 0, text.length())) {
+				return ValueParser.parseLong(text, 0, text.length());
+			}
+		}
+		throw new WrongTypeException(typeOf(index), EditableFile.TYPE_INT);
+	}
+
+	/**
+	 * Gets a character
+	 * 
+	 * @param path the path to the character
+	 * @return the character ('\0', if there is none)
+	 * @throws WrongTypeException when the value at that path is not a character
+	 */
+	public char getChar(String path) throws WrongTypeException {
+		int index = indexOf(path);
+		if (index < 0) {
+			return '\0';
+		}
+		checkType(index, CHAR, EditableFile.TYPE_CHAR);
+		if (columns[index] == CHAR) {
+			return (char) ints[slots[index]];
+		}
+		String text = getString(index);
+		if (text.length() != 1) {
+			throw new WrongTypeException(typeOf(index), EditableFile.TYPE_CHAR);
+		}
+		return text.charAt(0);
+	}
+
+	/**
+	 * Gets a boolean
+	 * 
+	 * @param path the path to the boolean value
+	 * @return the boolean value (false, if there is none)
+	 * @throws WrongTypeException when the value at that path is not a boolean
+	 */
+	public boolean getBoolean(String path) throws WrongTypeException {
+		int index = indexOf(path);
+		if (index < 0) {
+			return false;
+		}
+		checkType(index, BOOLEAN, EditableFile.TYPE_BOOLEAN);
+		if (columns[index] == BOOLEAN) {
+			return booleans.get(slots[index]);
+		} else if (columns[index] == STRING) {
+			String text = stringAt(index);
+			if (ValueParser.isBoolean(text, 0, text.length())) {
+				return ValueParser.parseBoolean(text, 0, text.length());
+			}
+		}
+		throw new WrongTypeException(typeOf(index), EditableFile.TYPE_BOOLEAN);
+	}
+
+	/**
+	 * Gets a float
+	 * 
+	 * @param path the path to the float value
+	 * @return the float value (0, if there is none)
+	 * @throws WrongTypeException when the value at that path is not a number (or
+	 *                            not a float in a strict table)
+	 */
+	public float getFloat(String path) throws WrongTypeException {
+		int index = indexOf(path);
+		if (index < 0) {
+			return 0.0F;
+		}
+		checkType(index, FLOAT, EditableFile.TYPE_FLOAT_DOUBLE);
+		if (columns[index] == STRING) {
+			String text = stringAt(index);
+			if (ValueParser.isFloat(text, 0, text.length())) {
+				return ValueParser.parseFloat(text, 0, text.length());
+			}
+		}
+		return (float) number(index, EditableFile.TYPE_FLOAT_DOUBLE);
+	}
+
+	/**
+	 * Gets a double
+	 * 
+	 * @param path the path to the double value
+	 * @return the double value (0, if there is none)
+	 * @throws WrongTypeException when the value at that path is not a number (or
+	 *                            not a double in a strict table)
+	 */
+	public double getDouble(String path) throws WrongTypeException {
+		int index = indexOf(path);
+		if (index < 0) {
+			return 0.0;
+		}
+		checkType(index, DOUBLE, EditableFile.TYPE_FLOAT_DOUBLE);
+		if (columns[index] == STRING) {
+			String text = stringAt(index);
+			if (ValueParser.isFloat(text, 0, text.length())) {
+				return ValueParser.parseDouble(text, 0, text.length());
+			}
+		}
+		return number(index, EditableFile.TYPE_FLOAT_DOUBLE);
+	}
+
+	/**
+	 * Gets the text of a value
+	 * 
+	 * @param path the path to the value
+	 * @return the text ("", if there is none)
+	 */
+	public String getString(String path) {
+		int index = indexOf(path);
+		return index < 0 ? "" : getString(index);
+	}
+
+	/**
+	 * Gets a value with its type
+	 * 
+	 * @param path the path to the value
+	 * @return an Integer, Long, Float, Double, Boolean, Character or String (null,
+	 *         if there is none)
+	 */
+	public Object get(String path) {
+		int index = indexOf(path);
+		if (index < 0) {
+			return null;
+		}
+		int slot = slots[index];
+		switch (columns[index]) {
+		case INT:
+			return ints[slot];
+		case LONG:
+			return longs[slot];
+		case FLOAT:
+			return (float) doubles[slot];
+		case DOUBLE:
+			return doubles[slot];
+		case BOOLEAN:
+			return booleans.get(slot);
+		case CHAR:
+			return (char) ints[slot];
+		default:
+			return stringAt(index);
+		}
+	}
+
+	/**
+	 * @return true if values are only returned as the type they were added with
+	 */
+	public boolean isStrictTypes() {
+		return strictTypes;
+	}
+
+	/**
+	 * @param index the position of an entry
+	 * @return the path of the entry
+	 */
+	public String getKey(int index) {
+		return new String(keys, keyOffsets[index], keyOffsets[index + 1] - keyOffsets[index]);
+	}
+
+	/**
+	 * Estimates the memory of the table (the arrays of the paths and the values)
+	 * 
+	 * @return the estimated memory (in bytes)
+	 */
+	public long getMemory() {
+		return 2L * keys.length + 4L * keyOffsets.length + columns.length + 4L * slots.length + 4L * ints.length
+				+ 8L * longs.length + 8L * doubles.length + booleans.size() / 8 + 2L * strings.length
+				+ 4L * stringOffsets.length + untyped.size() / 8 + 7 * 16;
+	}
+
+	/**
+	 * Finds the position of a path (binary search)
+	 * 
+	 * @param path the path
+	 * @return the position of the entry or -1, if there is none
+	 */
+	public int indexOf(String path) {
+		int low = 0, high = columns.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compare(keys, keyOffsets[middle], keyOffsets[middle + 1], path);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param index the position of an entry
+	 * @return the text of the value of the entry
+	 */
+	protected String getString(int index) {
+		int slot = slots[index];
+		switch (columns[index]) {
+		case INT:
+			return Integer.toString(ints[slot]);
+		case LONG:
+			return Long.toString(longs[slot]);
+		case FLOAT:
+			return Float.toString((float) doubles[slot]);
+		case DOUBLE:
+			return Double.toString(doubles[slot]);
+		case BOOLEAN:
+			return Boolean.toString(booleans.get(slot));
+		case CHAR:
+			return String.valueOf((char) ints[slot]);
+		default:
+			return stringAt(index);
+		}
+	}
+
+	/**
+	 * @param index the position of an entry with a string value
+	 * @return the string
+	 */
+	protected String stringAt(int index) {
+		int slot = slots[index];
+		return new String(strings, stringOffsets[slot], stringOffsets[slot + 1] - stringOffsets[slot]);
+	}
+
+	/**
+	 * Returns the value of a numeric entry
+	 * 
+	 * @param index  the position of the entry
+	 * @param wanted the name of the wanted type (for the exception)
+	 * @return the value
+	 * @throws WrongTypeException when the value is not a number
+	 */
+	protected double number(int index, String wanted) throws WrongTypeException {
+		switch (columns[index]) {
+		case INT:
+			return ints[slots[index]];
+		case LONG:
+			return longs[slots[index]];
+		case FLOAT:
+		case DOUBLE:
+			return doubles[slots[index]];
+		default:
+			throw new WrongTypeException(typeOf(index), wanted);
+		}
+	}
+
+	/**
+	 * Checks in a strict table, whether an entry has the wanted type: values,
+	 * which were added with their type, must have exactly that type, strings and
+	 * guessed values must look like it (like
+	 * {@link EditableFile#checkType(Object, ValueType, String)})
+	 * 
+	 * @param index      the position of the entry
+	 * @param wanted     the wanted column
+	 * @param wantedName the name of the wanted type (for the exception)
+	 * @throws WrongTypeException when the table is strict and the value has
+	 *                            another type
+	 */
+	protected void checkType(int index, byte wanted, String wantedName) throws WrongTypeException {
+		if (!strictTypes) {
+			return;
+		}
+		if (columns[index] == STRING || untyped.get(index)) {
+			String type = typeOf(index);
+			if (!type.equals(wantedName)) {
+				throw new WrongTypeException(type, wantedName);
+			}
+		} else if (columns[index] != wanted) {
+			throw new WrongTypeException(typeOf(index), wantedName);
+		}
+	}
+
+	/**
+	 * @param index the position of an entry
+	 * @return the name of the type of its value (like {@link EditableFile})
+	 */
+	protected String typeOf(int index) {
+		switch (columns[index]) {
+		case INT:
+		case LONG:
+			return EditableFile.TYPE_INT;
+		case FLOAT:
+		case DOUBLE:
+			return EditableFile.TYPE_FLOAT_DOUBLE;
+		case BOOLEAN:
+			return EditableFile.TYPE_BOOLEAN;
+		case CHAR:
+			return EditableFile.TYPE_CHAR;
+		default:
+			return typeOf(stringAt(index));
+		}
+	}
+
+	/**
+	 * @param text the text of a value
+	 * @return the name of the type it looks like (like
+	 *         {@link EditableFile#getType(String)})
+	 */
+	protected static String typeOf(String text) {
+		int length = text.length();
+		if (ValueParser.isBoolean(text, 0, length)) {
+			return EditableFile.TYPE_BOOLEAN;
+		} else if (ValueParser.isInt(text, 0, length)) {
+			return EditableFile.TYPE_INT;
+		} else if (ValueParser.isFloat(text, 0, length)) {
+			return EditableFile.TYPE_FLOAT_DOUBLE;
+		}
+		return length == 1 ? EditableFile.TYPE_CHAR : EditableFile.TYPE_STRING;
+	}
+
+	/**
+	 * Compares two ranges of characters (like {@link String#compareTo})
+	 * 
+	 * @param a     the first characters
+	 * @param aFrom the start of the first range (inclusive)
+	 * @param aTo   the end of the first range (exclusive)
+	 * @param b     the second characters
+	 * @param bFrom the start of the second range (inclusive)
+	 * @param bTo   the end of the second range (exclusive)
+	 * @return a negative number, zero or a positive number
+	 */
+	protected static int compare(char[] a, int aFrom, int aTo, char[] b, int bFrom, int bTo) {
+		int aLength = aTo - aFrom, bLength = bTo - bFrom;
+		int common = Math.min(aLength, bLength);
+		for (int i = 0; i < common; i++) {
+			char x = a[aFrom + i], y = b[bFrom + i];
+			if (x != y) {
+				return x - y;
+			}
+		}
+		return aLength - bLength;
+	}
+
+	/**
+	 * Compares a range of characters with a string (like {@link String#compareTo})
+	 * 
+	 * @param a     the characters
+	 * @param aFrom the start of the range (inclusive)
+	 * @param aTo   the end of the range (exclusive)
+	 * @param b     the string
+	 * @return a negative number, zero or a positive number
+	 */
+	protected static int compare(char[] a, int aFrom, int aTo, String b) {
+		int aLength = aTo - aFrom, bLength = b.length();
+		int common = Math.min(aLength, bLength);
+		for (int i = 0; i < common; i++) {
+			char x = a[aFrom + i], y = b.charAt(i);
+			if (x != y) {
+				return x - y;
+			}
+		}
+		return aLength - bLength;
+	}
+
+	/**
+	 * Grows an array to at least a certain length (at least doubles its length)
+	 * 
+	 * @param array  the array
+	 * @param length the needed length
+	 * @return the array or a longer copy of it
+	 */
+	protected static char[] ensure(char[] array, int length) {
+		return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+	}
+
+	/**
+	 * Grows an array to at least a certain length (at least doubles its length)
+	 * 
+	 * @param array  the array
+	 * @param length the needed length
+	 * @return the array or a longer copy of it
+	 */
+	protected static int[] ensure(int[] array, int length) {
+		return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+	}
+
+	/**
+	 * Grows an array to at least a certain length (at least doubles its length)
+	 * 
+	 * @param array  the array
+	 * @param length the needed length
+	 * @return the array or a longer copy of it
+	 */
+	protected static long[] ensure(long[] array, int length) {
+		return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+	}
+
+	/**
+	 * Grows an array to at least a certain length (at least doubles its length)
+	 * 
+	 * @param array  the array
+	 * @param length the needed length
+	 * @return the array or a longer copy of it
+	 */
+	protected static double[] ensure(double[] array, int length) {
+		return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+	}
+
+	/**
+	 * Grows an array to at least a certain length (at least doubles its length)
+	 * 
+	 * @param array  the array
+	 * @param length the needed length
+	 * @return the array or a longer copy of it
+	 */
+	protected static byte[] ensure(byte[] array, int length) {
+		return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+	}
+
+}
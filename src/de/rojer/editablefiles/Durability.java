@@ -0,0 +1,31 @@
+package de.rojer.editablefiles;
+
+/**
+ * Decides, when the changes of a file are forced to the disk. Every write
+ * replaces the file atomically, the durability only decides, whether a write
+ * survives a crash of the system.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public enum Durability {
+
+	/**
+	 * Changes are never forced to the disk (fastest, a crash can lose the latest
+	 * writes, but never leaves a half-written file)
+	 */
+	NONE,
+
+	/**
+	 * Writes of concurrent threads are collected for a short time and then
+	 * written and forced to the disk together
+	 */
+	GROUP,
+
+	/**
+	 * Every write is forced to the disk before it returns
+	 */
+	ALWAYS
+
+}
@@ -1,15 +1,30 @@
 package de.rojer.editablefiles;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import de.rojer.editablefiles.exceptions.DuplicateEncodingException;
 import de.rojer.editablefiles.exceptions.WrongTypeException;
@@ -24,7 +39,7 @@ import de.rojer.editablefiles.exceptions.WrongTypeException;
  * @version 7.04.2019
  */
 
-public class EditableFile {
+public class EditableFile implements Closeable {
 
 	/**
 	 * The amount of total available characters
@@ -56,6 +71,155 @@ public class EditableFile {
 	 */
 	protected HashMap<Character, Character> encoding;
 
+	/**
+	 * The codec used to encode and decode the file
+	 */
+	protected Codec codec;
+
+	/**
+	 * The logger used by files, which don't have their own logger
+	 */
+	protected static volatile FileLogger defaultLogger = FileLogger.CONSOLE;
+
+	/**
+	 * Receives the diagnostic messages of the file
+	 */
+	protected FileLogger logger = defaultLogger;
+
+	/**
+	 * Counts the operations of the file
+	 */
+	protected final FileMetrics metrics = new FileMetrics();
+
+	/**
+	 * The engine, which stores the values of the file
+	 */
+	protected volatile StorageEngine engine;
+
+	/**
+	 * The time between two flushes in write-behind mode (in milliseconds)
+	 */
+	protected long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+	/**
+	 * The amount of buffered paths, which triggers a flush in write-behind mode
+	 */
+	protected int flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+
+	/**
+	 * Indicates, whether written values get a type tag ("path:I value")
+	 */
+	protected boolean typeTags;
+
+	/**
+	 * Indicates, whether values can only be read as the type they were written
+	 * with (no conversions)
+	 */
+	protected boolean strictTypes;
+
+	/**
+	 * Decides, when changes are forced to the disk
+	 */
+	protected Durability durability = Durability.NONE;
+
+	/**
+	 * Collects concurrent writes, only used with {@link Durability#GROUP}
+	 */
+	protected GroupCommit groupCommit;
+
+	/**
+	 * The lock shared by all objects of this file, only used in concurrent mode
+	 */
+	protected SharedFileLock sharedLock;
+
+	/**
+	 * Tells, which paths are definitely not in the file (null, if there is no
+	 * filter)
+	 */
+	protected volatile BloomFilter bloomFilter;
+
+	/**
+	 * The version of the file (and the write-ahead log), which the Bloom filter
+	 * knows (see {@link #getFileVersion()})
+	 */
+	protected volatile List<Object> bloomVersion;
+
+	/**
+	 * When the version of the file has to be compared to the Bloom filter next
+	 * ({@link System#nanoTime()}), lookups before don't look at the file
+	 */
+	protected volatile long bloomCheckDue;
+
+	/**
+	 * The amount of writes to the file (see {@link #writeCount()}), which the
+	 * Bloom filter knows
+	 */
+	protected volatile long bloomWrites;
+
+	/**
+	 * The amount of writes of all objects to the file (null, until it is needed)
+	 */
+	protected AtomicLong writeCount;
+
+	/**
+	 * The time between two comparisons of the version of the file to the Bloom
+	 * filter (in milliseconds)
+	 */
+	protected long bloomCheckInterval = DEFAULT_BLOOM_CHECK_INTERVAL;
+
+	/**
+	 * The false positive rate of the Bloom filter
+	 */
+	protected double falsePositiveRate = DEFAULT_FALSE_POSITIVE_RATE;
+
+	/**
+	 * Writes hold the read side, while they add their path to the Bloom filter
+	 * and write it. Building the filter holds the write side, so no write can
+	 * slip past the scan.
+	 */
+	protected final ReentrantReadWriteLock filterLock = new ReentrantReadWriteLock();
+
+	/**
+	 * The default time window, in which concurrent writes are collected (in
+	 * milliseconds)
+	 */
+	public static final long DEFAULT_GROUP_COMMIT_WINDOW = 2;
+
+	/**
+	 * The default time between two flushes in write-behind mode (in
+	 * milliseconds)
+	 */
+	public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+	/**
+	 * The default amount of buffered paths, which triggers a flush in
+	 * write-behind mode
+	 */
+	public static final int DEFAULT_FLUSH_THRESHOLD = 1024;
+
+	/**
+	 * The default false positive rate of the Bloom filter
+	 */
+	public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+	/**
+	 * The smallest amount of paths a Bloom filter is created for
+	 */
+	protected static final int MIN_BLOOM_CAPACITY = 1024;
+
+	/**
+	 * The default time between two comparisons of the version of the file to the
+	 * Bloom filter (in milliseconds)
+	 */
+	public static final long DEFAULT_BLOOM_CHECK_INTERVAL = 1000;
+
+	/**
+	 * The amount of writes of all objects in this process per file (absolute
+	 * path), so Bloom filters notice writes of other objects without looking at
+	 * the file
+	 */
+	protected static final ConcurrentHashMap<String, AtomicLong> WRITE_COUNTS = new ConcurrentHashMap<String, AtomicLong>();
+
 	/**
 	 * List of types
 	 */
@@ -78,22 +242,58 @@ public class EditableFile {
 	 * @param completePath the complete path to the file (with extension)
 	 */
 	public EditableFile(String completePath) {
-		String[] args = completePath.split("/");
-		String path = "", fileName = "";
-		for (int i = 0; i < args.length - 1; i++) {
-			path += args[i] + "/";
-		}
-		fileName = args[args.length - 1];
+		init(completePath);
+		this.engine = new TextStorageEngine(this);
+		loadFile();
+	}
 
-		this.path = path;
-		this.fileName = fileName;
-		this.encoding = new HashMap<Character, Character>();
-		for (int i = 0; i < AMOUNT_OF_POSSIBLE_CHARACTERS; i++) {
-			addEncodingChar((char) i, (char) i);
-		}
+	/**
+	 * Create a file with a certain storage engine
+	 * 
+	 * @param path     the path to the file
+	 * @param fileName the name of the file (with extension!)
+	 * @param engine   creates the engine, which stores the values (e.g.
+	 *                 {@link StorageEngine#MEMORY})
+	 */
+	public EditableFile(String path, String fileName, StorageEngine.Factory engine) {
+		this(path + "/" + fileName, engine);
+	}
+
+	/**
+	 * Create a file with a certain storage engine
+	 * 
+	 * @param completePath the complete path to the file (with extension)
+	 * @param engine       creates the engine, which stores the values (e.g.
+	 *                     {@link StorageEngine#MEMORY})
+	 */
+	public EditableFile(String completePath, StorageEngine.Factory engine) {
+		init(completePath);
+		this.engine = engine.create(this);
 		loadFile();
 	}
 
+	/**
+	 * Create a file with a custom codec
+	 * 
+	 * @param path     the path to the file
+	 * @param fileName the name of the file (with extension!)
+	 * @param codec    the codec used to encode and decode the file
+	 */
+	public EditableFile(String path, String fileName, Codec codec) {
+		this(path + "/" + fileName, codec);
+	}
+
+	/**
+	 * Create a file with a custom codec
+	 * 
+	 * @param completePath the complete path to the file (with extension)
+	 * @param codec        the codec used to encode and decode the file
+	 */
+	public EditableFile(String completePath, Codec codec) {
+		this(completePath);
+		setCodec(codec);
+	}
+
 	/**
 	 * Create a file with an offset encoding
 	 * 
@@ -179,6 +379,28 @@ public class EditableFile {
 		loadFile();
 	}
 
+	/**
+	 * Sets the path, the name and the default codec of the file (before its
+	 * engine is created)
+	 * 
+	 * @param completePath the complete path to the file (with extension)
+	 */
+	protected void init(String completePath) {
+		String[] args = completePath.split("/");
+		String path = "", fileName = "";
+		for (int i = 0; i < args.length - 1; i++) {
+			path += args[i] + "/";
+		}
+		fileName = args[args.length - 1];
+
+		this.path = path;
+		this.fileName = fileName;
+		this.file = new File(path.concat("/" + fileName));
+		TableCodec table = new TableCodec(AMOUNT_OF_POSSIBLE_CHARACTERS);
+		this.codec = table;
+		this.encoding = table.toMap();
+	}
+
 	// "Destructors"
 
 	/**
@@ -187,7 +409,15 @@ public class EditableFile {
 	 * @param file this object
 	 */
 	public void deleteFile(EditableFile file) {
+		setWriteBehind(false);
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.discard();
+		}
+		metrics.unregister();
 		this.file.delete();
+		bloomFilter = null;
+		getBloomFile().delete();
 		this.encoding = null;
 		this.path = null;
 		this.fileName = null;
@@ -196,17 +426,18 @@ public class EditableFile {
 	}
 
 	/**
-	 * Loads in the file for use
+	 * Loads in the file for use (the file is only created, if the engine writes
+	 * to it)
 	 */
 	protected void loadFile() {
 		File folder = new File(path);
 		file = new File(path.concat("/" + fileName));
-		if (!file.exists()) {
+		if (!file.exists() && engine.isPersistent()) {
 			folder.mkdirs();
 			try {
 				file.createNewFile();
 			} catch (IOException e) {
-				System.out.println("Failed to create and load file!");
+				logger.log("Failed to create and load file!");
 			}
 		}
 		try {
@@ -224,36 +455,12 @@ public class EditableFile {
 	 * @throws WrongTypeException when the value at that path is not an integer
 	 */
 	public int getTrueInt(String path) throws WrongTypeException {
-		int result = 0;
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			boolean found = false;
-			while (it.hasNext()) {
-				String text = it.next();
-				String oldPath = encode(decode(text).split(":")[0] + ": ");
-				if (path.compareTo(oldPath) <= -1) {
-					break;
-				} else if (path.equals(oldPath)) {
-					found = true;
-					String number = decode(text.substring(oldPath.length()));
-					if (!isInt(number)) {
-						br.close();
-						throw new WrongTypeException(getType(number), TYPE_INT);
-					}
-					result = Integer.parseInt(number);
-				}
-			}
-			if (!found) {
-				System.out.println("Couldn't find that integer!");
-			}
-			br.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		Object number = readTypedValue(path);
+		if (number == null) {
+			logger.log("Couldn't find that integer!");
+			return 0;
 		}
-		return result;
+		return toTrueInt(number);
 	}
 
 	/**
@@ -265,36 +472,12 @@ public class EditableFile {
 	 *                            float or double
 	 */
 	public int getInt(String path) throws WrongTypeException {
-		float result = 0.0F;
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			boolean found = false;
-			while (it.hasNext()) {
-				String text = it.next();
-				String oldPath = encode(decode(text).split(":")[0] + ": ");
-				if (path.compareTo(oldPath) <= -1) {
-					break;
-				} else if (path.equals(oldPath)) {
-					found = true;
-					String number = decode(text.substring(oldPath.length()));
-					if (!isFloat(number)) {
-						br.close();
-						throw new WrongTypeException(getType(number), TYPE_INT);
-					}
-					result = Float.parseFloat(number);
-				}
-			}
-			if (!found) {
-				System.out.println("Couldn't find that integer!");
-			}
-			br.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		Object number = readTypedValue(path);
+		if (number == null) {
+			logger.log("Couldn't find that integer!");
+			return 0;
 		}
-		return (int) result;
+		return toInt(number);
 	}
 
 	/**
@@ -305,36 +488,12 @@ public class EditableFile {
 	 * @throws WrongTypeException when the value at that path is not an character
 	 */
 	public char getChar(String path) throws WrongTypeException {
-		char result = '\0';
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			boolean found = false;
-			while (it.hasNext()) {
-				String text = it.next();
-				String oldPath = encode(decode(text).split(":")[0] + ": ");
-				if (path.compareTo(oldPath) <= -1) {
-					break;
-				} else if (path.equals(oldPath)) {
-					found = true;
-					String number = decode(text.substring(oldPath.length()));
-					if (!isChar(number)) {
-						br.close();
-						throw new WrongTypeException(getType(number), TYPE_CHAR);
-					}
-					result = number.charAt(0);
-				}
-			}
-			if (!found) {
-				System.out.println("Couldn't find that char!");
-			}
-			br.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		Object number = readTypedValue(path);
+		if (number == null) {
+			logger.log("Couldn't find that char!");
+			return '\0';
 		}
-		return result;
+		return toChar(number);
 	}
 
 	/**
@@ -345,36 +504,12 @@ public class EditableFile {
 	 * @throws WrongTypeException when the value at that path is not a boolean
 	 */
 	public boolean getBoolean(String path) throws WrongTypeException {
-		boolean result = false;
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			boolean found = false;
-			while (it.hasNext()) {
-				String text = it.next();
-				String oldPath = encode(decode(text).split(":")[0] + ": ");
-				if (path.compareTo(oldPath) <= -1) {
-					break;
-				} else if (path.equals(oldPath)) {
-					found = true;
-					String number = decode(text.substring(oldPath.length()));
-					if (!isBoolean(number)) {
-						br.close();
-						throw new WrongTypeException(getType(number), TYPE_BOOLEAN);
-					}
-					result = Boolean.parseBoolean(number);
-				}
-			}
-			if (!found) {
-				System.out.println("Couldn't find that boolean!");
-			}
-			br.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		Object number = readTypedValue(path);
+		if (number == null) {
+			logger.log("Couldn't find that boolean!");
+			return false;
 		}
-		return result;
+		return toBoolean(number);
 	}
 
 	/**
@@ -386,36 +521,12 @@ public class EditableFile {
 	 *                            double or float
 	 */
 	public float getFloat(String path) throws WrongTypeException {
-		float result = 0.0F;
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			boolean found = false;
-			while (it.hasNext()) {
-				String text = it.next();
-				String oldPath = encode(decode(text).split(":")[0] + ": ");
-				if (path.compareTo(oldPath) <= -1) {
-					break;
-				} else if (path.equals(oldPath)) {
-					found = true;
-					String number = decode(text.substring(oldPath.length()));
-					if (!isFloat(number)) {
-						br.close();
-						throw new WrongTypeException(getType(number), TYPE_FLOAT_DOUBLE);
-					}
-					result = Float.parseFloat(number);
-				}
-			}
-			if (!found) {
-				System.out.println("Couldn't find that float!");
-			}
-			br.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		Object number = readTypedValue(path);
+		if (number == null) {
+			logger.log("Couldn't find that float!");
+			return 0.0F;
 		}
-		return result;
+		return toFloat(number);
 	}
 
 	/**
@@ -427,36 +538,12 @@ public class EditableFile {
 	 *                            double or float
 	 */
 	public double getDouble(String path) throws WrongTypeException {
-		double result = 0.0;
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			boolean found = false;
-			while (it.hasNext()) {
-				String text = it.next();
-				String oldPath = encode(decode(text).split(":")[0] + ": ");
-				if (path.compareTo(oldPath) <= -1) {
-					break;
-				} else if (path.equals(oldPath)) {
-					found = true;
-					String number = decode(text.substring(oldPath.length()));
-					if (!isFloat(number)) {
-						br.close();
-						throw new WrongTypeException(getType(number), TYPE_FLOAT_DOUBLE);
-					}
-					result = Double.parseDouble(number);
-				}
-			}
-			if (!found) {
-				System.out.println("Couldn't find that double!");
-			}
-			br.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		Object number = readTypedValue(path);
+		if (number == null) {
+			logger.log("Couldn't find that double!");
+			return 0.0;
 		}
-		return result;
+		return toDouble(number);
 	}
 
 	/**
@@ -466,338 +553,1590 @@ public class EditableFile {
 	 * @return the string
 	 */
 	public String getString(String path) {
-		String result = "";
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			boolean found = false;
-			while (it.hasNext()) {
-				String text = it.next();
-				String oldPath = encode(decode(text).split(":")[0] + ": ");
-				if (path.compareTo(oldPath) <= -1) {
-					break;
-				} else if (path.equals(oldPath)) {
-					found = true;
-					result = decode(text.substring(oldPath.length()));
-				}
-			}
-			if (!found) {
-				System.out.println("Couldnt find that string!");
-			}
-			br.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		String result = readValue(path);
+		if (result == null) {
+			logger.log("Couldnt find that string!");
+			return "";
 		}
 		return result;
 	}
 
+	// Getters without logging
+
 	/**
-	 * Writes an integer to the file
+	 * Checks, whether there is a value at a certain path
 	 * 
-	 * @param path  the path for the value
-	 * @param value the integer value
+	 * @param path the path to the value
+	 * @return true if there is a value at that path
 	 */
-	public void writeInt(String path, int value) {
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			String valueString = encode(value + "");
-			ArrayList<String> lines = new ArrayList<String>();
-			boolean isWritten = false;
-			while (it.hasNext()) {
-				String oldText = it.next();
-				String oldPath = encode(decode(oldText).split(":")[0] + ": ");
-				if (path.equals(oldPath) && !isWritten) {
-					lines.add(path + valueString);
-					isWritten = true;
-				} else if (path.compareTo(oldPath) <= -1 && !isWritten) {
-					lines.add(path + valueString);
-					lines.add(oldText);
-					isWritten = true;
-				} else {
-					lines.add(oldText);
-				}
-
-			}
-			if (!isWritten) {
-				lines.add(path + valueString);
-			}
-			br.close();
-			FileWriter fw = new FileWriter(file);
-			PrintWriter pw = new PrintWriter(fw);
-			for (String s : lines) {
-				pw.println(s);
-			}
-			pw.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+	public boolean contains(String path) {
+		return readTypedValue(path) != null;
 	}
 
 	/**
-	 * Writes a character to the file
+	 * Gets an integer or a default value
 	 * 
-	 * @param path  the path for the value
-	 * @param value the character
+	 * @param path         the path to the integer value
+	 * @param defaultValue the value, if there is no value at that path
+	 * @return the integer value or the default value
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            float or double
 	 */
-	public void writeChar(String path, char value) {
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			String valueString = encode(value + "");
-			ArrayList<String> lines = new ArrayList<String>();
-			boolean isWritten = false;
-			while (it.hasNext()) {
-				String oldText = it.next();
-				String oldPath = encode(decode(oldText).split(":")[0] + ": ");
-
-				if (path.equals(oldPath) && !isWritten) {
-					lines.add(path + valueString);
-					isWritten = true;
-				} else if (path.compareTo(oldPath) <= -1 && !isWritten) {
-					lines.add(path + valueString);
-					lines.add(oldText);
-					isWritten = true;
-				} else {
-					lines.add(oldText);
-				}
-
-			}
-			if (!isWritten) {
-				lines.add(path + valueString);
-			}
-			br.close();
-			FileWriter fw = new FileWriter(file);
-			PrintWriter pw = new PrintWriter(fw);
-			for (String s : lines) {
-				pw.println(s);
-			}
-			pw.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+	public int getIntOrDefault(String path, int defaultValue) throws WrongTypeException {
+		Object number = readTypedValue(path);
+		return number == null ? defaultValue : toInt(number);
 	}
 
 	/**
-	 * Writes a boolean to the file
+	 * Gets a character or a default value
 	 * 
-	 * @param path  the path for the value
-	 * @param value the boolean value
+	 * @param path         the path to the character
+	 * @param defaultValue the value, if there is no value at that path
+	 * @return the character value or the default value
+	 * @throws WrongTypeException when the value at that path is not a character
 	 */
-	public void writeBoolean(String path, boolean value) {
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			String valueString = encode(value + "");
-			ArrayList<String> lines = new ArrayList<String>();
-			boolean isWritten = false;
-			while (it.hasNext()) {
-				String oldText = it.next();
-				String oldPath = encode(decode(oldText).split(":")[0] + ": ");
-
-				if (path.equals(oldPath) && !isWritten) {
-					lines.add(path + valueString);
-					isWritten = true;
-				} else if (path.compareTo(oldPath) <= -1 && !isWritten) {
-					lines.add(path + valueString);
-					lines.add(oldText);
-					isWritten = true;
-				} else {
-					lines.add(oldText);
-				}
-
-			}
-			if (!isWritten) {
-				lines.add(path + valueString);
-			}
-			br.close();
-			FileWriter fw = new FileWriter(file);
-			PrintWriter pw = new PrintWriter(fw);
-			for (String s : lines) {
-				pw.println(s);
-			}
-			pw.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+	public char getCharOrDefault(String path, char defaultValue) throws WrongTypeException {
+		Object value = readTypedValue(path);
+		return value == null ? defaultValue : toChar(value);
 	}
 
 	/**
-	 * Writes a float to the file
+	 * Gets a boolean or a default value
 	 * 
-	 * @param path  the path for the value
-	 * @param value the float value
+	 * @param path         the path to the boolean value
+	 * @param defaultValue the value, if there is no value at that path
+	 * @return the boolean value or the default value
+	 * @throws WrongTypeException when the value at that path is not a boolean
 	 */
-	public void writeFloat(String path, float value) {
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			String valueString = encode(value + "");
-			ArrayList<String> lines = new ArrayList<String>();
-			boolean isWritten = false;
-			while (it.hasNext()) {
-				String oldText = it.next();
-				String oldPath = encode(decode(oldText).split(":")[0] + ": ");
-
-				if (path.equals(oldPath) && !isWritten) {
-					lines.add(path + valueString);
-					isWritten = true;
-				} else if (path.compareTo(oldPath) <= -1 && !isWritten) {
-					lines.add(path + valueString);
-					lines.add(oldText);
-					isWritten = true;
-				} else {
-					lines.add(oldText);
-				}
+	public boolean getBooleanOrDefault(String path, boolean defaultValue) throws WrongTypeException {
+		Object value = readTypedValue(path);
+		return value == null ? defaultValue : toBoolean(value);
+	}
 
-			}
-			if (!isWritten) {
-				lines.add(path + valueString);
-			}
-			br.close();
-			FileWriter fw = new FileWriter(file);
-			PrintWriter pw = new PrintWriter(fw);
-			for (String s : lines) {
-				pw.println(s);
-			}
-			pw.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+	/**
+	 * Gets a float or a default value
+	 * 
+	 * @param path         the path to the float value
+	 * @param defaultValue the value, if there is no value at that path
+	 * @return the float value or the default value
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            double or float
+	 */
+	public float getFloatOrDefault(String path, float defaultValue) throws WrongTypeException {
+		Object number = readTypedValue(path);
+		return number == null ? defaultValue : toFloat(number);
 	}
 
 	/**
-	 * Writes a double to the file
+	 * Gets a double or a default value
 	 * 
-	 * @param path  the path for the value
-	 * @param value the double value
+	 * @param path         the path to the double value
+	 * @param defaultValue the value, if there is no value at that path
+	 * @return the double value or the default value
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            double or float
 	 */
-	public void writeDouble(String path, double value) {
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			String valueString = encode(value + "");
-			ArrayList<String> lines = new ArrayList<String>();
-			boolean isWritten = false;
-			while (it.hasNext()) {
-				String oldText = it.next();
-				String oldPath = encode(decode(oldText).split(":")[0] + ": ");
-
-				if (path.equals(oldPath) && !isWritten) {
-					lines.add(path + valueString);
-					isWritten = true;
-				} else if (path.compareTo(oldPath) <= -1 && !isWritten) {
-					lines.add(path + valueString);
-					lines.add(oldText);
-					isWritten = true;
-				} else {
-					lines.add(oldText);
-				}
+	public double getDoubleOrDefault(String path, double defaultValue) throws WrongTypeException {
+		Object number = readTypedValue(path);
+		return number == null ? defaultValue : toDouble(number);
+	}
 
+	/**
+	 * Gets a string or a default value
+	 * 
+	 * @param path         the path to the string
+	 * @param defaultValue the value, if there is no value at that path
+	 * @return the string or the default value
+	 */
+	public String getStringOrDefault(String path, String defaultValue) {
+		String result = readValue(path);
+		return result == null ? defaultValue : result;
+	}
+
+	/**
+	 * Gets an integer, if there is one
+	 * 
+	 * @param path the path to the integer value
+	 * @return the integer value or an empty optional
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            float or double
+	 */
+	public OptionalInt findInt(String path) throws WrongTypeException {
+		Object number = readTypedValue(path);
+		return number == null ? OptionalInt.empty() : OptionalInt.of(toInt(number));
+	}
+
+	/**
+	 * Gets a character, if there is one
+	 * 
+	 * @param path the path to the character
+	 * @return the character value or an empty optional
+	 * @throws WrongTypeException when the value at that path is not a character
+	 */
+	public Optional<Character> findChar(String path) throws WrongTypeException {
+		Object value = readTypedValue(path);
+		return value == null ? Optional.<Character>empty() : Optional.of(toChar(value));
+	}
+
+	/**
+	 * Gets a boolean, if there is one
+	 * 
+	 * @param path the path to the boolean value
+	 * @return the boolean value or an empty optional
+	 * @throws WrongTypeException when the value at that path is not a boolean
+	 */
+	public Optional<Boolean> findBoolean(String path) throws WrongTypeException {
+		Object value = readTypedValue(path);
+		return value == null ? Optional.<Boolean>empty() : Optional.of(toBoolean(value));
+	}
+
+	/**
+	 * Gets a float, if there is one
+	 * 
+	 * @param path the path to the float value
+	 * @return the float value or an empty optional
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            double or float
+	 */
+	public Optional<Float> findFloat(String path) throws WrongTypeException {
+		Object number = readTypedValue(path);
+		return number == null ? Optional.<Float>empty() : Optional.of(toFloat(number));
+	}
+
+	/**
+	 * Gets a double, if there is one
+	 * 
+	 * @param path the path to the double value
+	 * @return the double value or an empty optional
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            double or float
+	 */
+	public OptionalDouble findDouble(String path) throws WrongTypeException {
+		Object number = readTypedValue(path);
+		return number == null ? OptionalDouble.empty() : OptionalDouble.of(toDouble(number));
+	}
+
+	/**
+	 * Gets a string, if there is one
+	 * 
+	 * @param path the path to the string
+	 * @return the string or an empty optional
+	 */
+	public Optional<String> findString(String path) {
+		return Optional.ofNullable(readValue(path));
+	}
+
+	// Multiple values
+
+	/**
+	 * Gets all values of the file with their type. Values with a type tag are
+	 * converted by their tag, the types of the other values are guessed without
+	 * losing any information (see {@link ValueType#infer(String)}).
+	 * 
+	 * @return all values (path -> Integer, Float, Double, Boolean, Character or
+	 *         String), sorted by path
+	 */
+	public TreeMap<String, Object> getAll() {
+		TreeMap<String, Object> values = new TreeMap<String, Object>();
+		EntryIterator entries = scan();
+		try {
+			while (entries.hasNext()) {
+				Entry entry = entries.next();
+				values.put(entry.getKey(), entry.getTypedValue());
 			}
-			if (!isWritten) {
-				lines.add(path + valueString);
+		} finally {
+			entries.close();
+		}
+		return values;
+	}
+
+	/**
+	 * Gets the values of many paths at once. With the text engine the paths are
+	 * sorted and the file is read only once (a single merge pass), no matter how
+	 * many paths are asked for.
+	 * 
+	 * @param paths the paths to the values
+	 * @return the (decoded) values of all paths, which were found (path ->
+	 *         value)
+	 */
+	public Map<String, String> getMany(Collection<String> paths) {
+		HashMap<String, String> result = new HashMap<String, String>();
+		for (Map.Entry<String, Object> value : readTypedValues(paths).entrySet()) {
+			result.put(value.getKey(), value.getValue().toString());
+		}
+		return result;
+	}
+
+	/**
+	 * Gets many integers at once (see {@link #getMany(Collection)})
+	 * 
+	 * @param paths the paths to the integer values
+	 * @return the integer values of all paths, which were found
+	 * @throws WrongTypeException when a value is not an integer, float or double
+	 */
+	public Map<String, Integer> getManyInts(Collection<String> paths) throws WrongTypeException {
+		HashMap<String, Integer> result = new HashMap<String, Integer>();
+		for (Map.Entry<String, Object> value : readTypedValues(paths).entrySet()) {
+			result.put(value.getKey(), toInt(value.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets many characters at once (see {@link #getMany(Collection)})
+	 * 
+	 * @param paths the paths to the characters
+	 * @return the characters of all paths, which were found
+	 * @throws WrongTypeException when a value is not a character
+	 */
+	public Map<String, Character> getManyChars(Collection<String> paths) throws WrongTypeException {
+		HashMap<String, Character> result = new HashMap<String, Character>();
+		for (Map.Entry<String, Object> value : readTypedValues(paths).entrySet()) {
+			result.put(value.getKey(), toChar(value.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets many booleans at once (see {@link #getMany(Collection)})
+	 * 
+	 * @param paths the paths to the boolean values
+	 * @return the boolean values of all paths, which were found
+	 * @throws WrongTypeException when a value is not a boolean
+	 */
+	public Map<String, Boolean> getManyBooleans(Collection<String> paths) throws WrongTypeException {
+		HashMap<String, Boolean> result = new HashMap<String, Boolean>();
+		for (Map.Entry<String, Object> value : readTypedValues(paths).entrySet()) {
+			result.put(value.getKey(), toBoolean(value.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets many floats at once (see {@link #getMany(Collection)})
+	 * 
+	 * @param paths the paths to the float values
+	 * @return the float values of all paths, which were found
+	 * @throws WrongTypeException when a value is not an integer, float or double
+	 */
+	public Map<String, Float> getManyFloats(Collection<String> paths) throws WrongTypeException {
+		HashMap<String, Float> result = new HashMap<String, Float>();
+		for (Map.Entry<String, Object> value : readTypedValues(paths).entrySet()) {
+			result.put(value.getKey(), toFloat(value.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets many doubles at once (see {@link #getMany(Collection)})
+	 * 
+	 * @param paths the paths to the double values
+	 * @return the double values of all paths, which were found
+	 * @throws WrongTypeException when a value is not an integer, float or double
+	 */
+	public Map<String, Double> getManyDoubles(Collection<String> paths) throws WrongTypeException {
+		HashMap<String, Double> result = new HashMap<String, Double>();
+		for (Map.Entry<String, Object> value : readTypedValues(paths).entrySet()) {
+			result.put(value.getKey(), toDouble(value.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Writes an integer to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the integer value
+	 */
+	public void writeInt(String path, int value) {
+		writeTypedValue(path, value);
+	}
+
+	/**
+	 * Writes a character to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the character
+	 */
+	public void writeChar(String path, char value) {
+		writeTypedValue(path, value);
+	}
+
+	/**
+	 * Writes a boolean to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the boolean value
+	 */
+	public void writeBoolean(String path, boolean value) {
+		writeTypedValue(path, value);
+	}
+
+	/**
+	 * Writes a float to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the float value
+	 */
+	public void writeFloat(String path, float value) {
+		writeTypedValue(path, value);
+	}
+
+	/**
+	 * Writes a double to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the double value
+	 */
+	public void writeDouble(String path, double value) {
+		writeTypedValue(path, value);
+	}
+
+	/**
+	 * Writes a string to the file
+	 * 
+	 * @param path  the path for the value
+	 * @param value the string
+	 */
+	public void writeString(String path, String value) {
+		writeValue(path, value + "");
+	}
+
+	/**
+	 * Delete a line in the file
+	 * 
+	 * @param path the path to the line
+	 */
+	public void deleteLine(String path) {
+		long start = System.nanoTime();
+		engine.delete(path);
+		metrics.recordChange(FileMetrics.Operation.DELETE, 0, 1, System.nanoTime() - start);
+	}
+
+	/**
+	 * Starts a new batch of changes, which are applied to the file at once by
+	 * {@link Batch#commit()}
+	 * 
+	 * @return the empty batch
+	 */
+	public Batch batch() {
+		return new Batch(this);
+	}
+
+	/**
+	 * Creates a loader, which imports any amount of values into the file with a
+	 * single rewrite of the file
+	 * 
+	 * @return the loader
+	 */
+	public BulkLoader bulkLoader() {
+		return new BulkLoader(this);
+	}
+
+	// Scans
+
+	/**
+	 * Reads all entries of the file lazily (see {@link #scan(String, String)})
+	 * 
+	 * @return the entries
+	 */
+	public EntryIterator scan() {
+		return scan(null, null);
+	}
+
+	/**
+	 * Reads the entries of a range lazily, in the order of the file (the order of
+	 * the encoded paths). Reading stops as soon as the upper bound is passed.
+	 * 
+	 * @param fromKey the first path (inclusive, null for the start of the file)
+	 * @param toKey   the last path (exclusive, null for the end of the file)
+	 * @return the entries (close the iterator, if it isn't read to the end)
+	 */
+	public EntryIterator scan(String fromKey, String toKey) {
+		long start = System.nanoTime();
+		EntryIterator entries = engine.scan(fromKey, toKey, null);
+		metrics.record(FileMetrics.Operation.SCAN, System.nanoTime() - start);
+		return entries;
+	}
+
+	/**
+	 * Reads all entries, whose path starts with a prefix (e.g. "server."), lazily.
+	 * Reading stops as soon as the last path with that prefix is passed.
+	 * 
+	 * @param prefix the prefix of the paths
+	 * @return the entries (close the iterator, if it isn't read to the end)
+	 */
+	public EntryIterator scanPrefix(String prefix) {
+		long start = System.nanoTime();
+		EntryIterator entries = engine.scan(null, null, prefix);
+		metrics.record(FileMetrics.Operation.SCAN, System.nanoTime() - start);
+		return entries;
+	}
+
+	/**
+	 * Streams the entries of a range lazily (see {@link #scan(String, String)})
+	 * 
+	 * @param fromKey the first path (inclusive, null for the start of the file)
+	 * @param toKey   the last path (exclusive, null for the end of the file)
+	 * @return the entries (close the stream to release the file)
+	 */
+	public Stream<Entry> stream(String fromKey, String toKey) {
+		return toStream(scan(fromKey, toKey));
+	}
+
+	/**
+	 * Streams all entries, whose path starts with a prefix, lazily (see
+	 * {@link #scanPrefix(String)})
+	 * 
+	 * @param prefix the prefix of the paths
+	 * @return the entries (close the stream to release the file)
+	 */
+	public Stream<Entry> streamPrefix(String prefix) {
+		return toStream(scanPrefix(prefix));
+	}
+
+	/**
+	 * Scans values, which are held in memory, in the order of the encoded paths
+	 * (used by engines without a text file)
+	 * 
+	 * @param values  the values (path -> value)
+	 * @param fromKey the first path (inclusive, null if unbounded)
+	 * @param toKey   the last path (exclusive, null if unbounded)
+	 * @param prefix  the prefix of all paths (null if unbounded)
+	 * @return the entries
+	 */
+	protected EntryIterator scanValues(Map<String, Object> values, String fromKey, String toKey, String prefix) {
+		TreeMap<String, String> lines = new TreeMap<String, String>();
+		for (Map.Entry<String, Object> value : values.entrySet()) {
+			lines.put(encode(value.getKey() + ": "), encodeLine(value.getKey(), value.getValue(), true));
+		}
+		return new EntryIterator(this, null, lines, fromKey == null ? null : encode(fromKey + ": "),
+				toKey == null ? null : encode(toKey + ": "), prefix == null ? null : encode(prefix));
+	}
+
+	/**
+	 * Wraps the entries of a scan in a stream
+	 * 
+	 * @param entries the entries
+	 * @return the stream, which closes the entries
+	 */
+	protected Stream<Entry> toStream(EntryIterator entries) {
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(entries, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(entries::close);
+	}
+
+	// Snapshots
+
+	/**
+	 * Takes an immutable view of the whole file at this point in time. Getters
+	 * and scans of the snapshot run without any lock, while other threads keep
+	 * writing to the file, and always see the values of this point in time. The
+	 * text engine only links the current version of the file, other engines copy
+	 * all values into memory.
+	 * 
+	 * @return the snapshot (close it to release the version of the file)
+	 */
+	public FileSnapshot snapshot() {
+		StorageEngine current = flushedEngine();
+		if (!(current instanceof TextStorageEngine)) {
+			TreeMap<String, String> lines = new TreeMap<String, String>();
+			EntryIterator entries = current.scan(null, null, null);
+			try {
+				while (entries.hasNext()) {
+					Entry entry = entries.next();
+					lines.put(encode(entry.getKey() + ": "), encodeLine(entry.getKey(), entry.getTypedValue(), true));
+				}
+			} finally {
+				entries.close();
 			}
-			br.close();
-			FileWriter fw = new FileWriter(file);
-			PrintWriter pw = new PrintWriter(fw);
-			for (String s : lines) {
-				pw.println(s);
+			return new FileSnapshot(this, null, lines);
+		}
+		return ((TextStorageEngine) current).snapshot();
+	}
+
+	// Sections
+
+	/**
+	 * Reads all entries of a section lazily. The paths of the file are split into
+	 * sections at every '.', e.g. "db.pool.max" and "db.pool.min" are in the
+	 * section "db.pool" and in the section "db". The sections are indexed, when
+	 * the first section is read (and again after the file was changed), so the
+	 * scan starts directly at the section and stops at its end.
+	 * 
+	 * @param section the name of the section (e.g. "db.pool", "" for the whole
+	 *                file)
+	 * @return the entries (close the iterator, if it isn't read to the end)
+	 */
+	public EntryIterator scanSection(String section) {
+		long start = System.nanoTime();
+		String prefix = section.isEmpty() ? "" : section + ".";
+		StorageEngine current = flushedEngine();
+		EntryIterator entries = current instanceof TextStorageEngine
+				? ((TextStorageEngine) current).openSection(section, encode(prefix))
+				: current.scan(null, null, prefix);
+		metrics.record(FileMetrics.Operation.SCAN, System.nanoTime() - start);
+		return entries;
+	}
+
+	/**
+	 * Gets all values of a section with their type (see
+	 * {@link #scanSection(String)} and {@link #getAll()})
+	 * 
+	 * @param section the name of the section (e.g. "db.pool")
+	 * @return all values of the section and its sub-sections (path -> Integer,
+	 *         Float, Double, Boolean, Character or String), sorted by path
+	 */
+	public TreeMap<String, Object> getSection(String section) {
+		TreeMap<String, Object> values = new TreeMap<String, Object>();
+		EntryIterator entries = scanSection(section);
+		try {
+			while (entries.hasNext()) {
+				Entry entry = entries.next();
+				values.put(entry.getKey(), entry.getTypedValue());
 			}
-			pw.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		} finally {
+			entries.close();
+		}
+		return values;
+	}
+
+	/**
+	 * Deletes all values of a section and its sub-sections at once
+	 * 
+	 * @param section the name of the section (e.g. "db.pool")
+	 * @return the amount of deleted values
+	 */
+	public int deleteSection(String section) {
+		TreeMap<String, Object> changes = new TreeMap<String, Object>();
+		EntryIterator entries = scanSection(section);
+		try {
+			while (entries.hasNext()) {
+				changes.put(entries.next().getKey(), null);
+			}
+		} finally {
+			entries.close();
+		}
+		if (!changes.isEmpty()) {
+			commitBatch(changes);
+		}
+		return changes.size();
+	}
+
+	/**
+	 * Lists the names of the values and sub-sections directly in a section, e.g.
+	 * "max", "min" and "timeouts" for the section "db.pool" with the paths
+	 * "db.pool.max", "db.pool.min" and "db.pool.timeouts.idle". Only the lines
+	 * between the sub-sections are read.
+	 * 
+	 * @param section the name of the section (e.g. "db.pool", "" for the whole
+	 *                file)
+	 * @return the names (without the name of the section), in the order of the
+	 *         file
+	 */
+	public List<String> listChildren(String section) {
+		long start = System.nanoTime();
+		String prefix = section.isEmpty() ? "" : section + ".";
+		LinkedHashSet<String> children = new LinkedHashSet<String>();
+		StorageEngine current = flushedEngine();
+		if (!(current instanceof TextStorageEngine)
+				|| !((TextStorageEngine) current).addIndexedChildren(section, prefix, children)) {
+			EntryIterator entries = scanSection(section);
+			try {
+				while (entries.hasNext()) {
+					String rest = entries.next().getKey().substring(prefix.length());
+					int dot = rest.indexOf('.');
+					children.add(dot < 0 ? rest : rest.substring(0, dot));
+				}
+			} finally {
+				entries.close();
+			}
+		}
+		metrics.record(FileMetrics.Operation.SCAN, System.nanoTime() - start);
+		return new ArrayList<String>(children);
+	}
+
+	/**
+	 * Writes the buffer of the write-behind mode to the engine below it
+	 * 
+	 * @return the engine, which holds all values
+	 */
+	protected StorageEngine flushedEngine() {
+		StorageEngine current = engine;
+		if (current instanceof WriteBehindEngine) {
+			((WriteBehindEngine) current).flushBuffer();
+			current = ((WriteBehindEngine) current).getTarget();
+		}
+		return current;
+	}
+
+	/**
+	 * @return the text engine of the file (below the buffer of the write-behind
+	 *         mode) or null, if the file uses another engine
+	 */
+	protected TextStorageEngine textEngine() {
+		StorageEngine current = engine;
+		if (current instanceof WriteBehindEngine) {
+			current = ((WriteBehindEngine) current).getTarget();
+		}
+		return current instanceof TextStorageEngine ? (TextStorageEngine) current : null;
+	}
+
+	// Cached mode
+
+	/**
+	 * Turns the cached mode on or off. In cached mode the file is parsed once into
+	 * a sorted map, so lookups don't touch the file anymore. The map is reloaded
+	 * as soon as the modification time or the length of the file changes. Only
+	 * the text engine has a cached mode.
+	 * 
+	 * @param cached true to keep the contents of the file in memory
+	 */
+	public void setCached(boolean cached) {
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.setCached(cached);
+		}
+	}
+
+	/**
+	 * @return true if the file is in cached mode
+	 */
+	public boolean isCached() {
+		TextStorageEngine text = textEngine();
+		return text != null && text.isCached();
+	}
+
+	/**
+	 * Forces the cache to be reloaded from the file on the next lookup (and the
+	 * Bloom filter to be compared to the file)
+	 */
+	public void refreshCache() {
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.refreshCache();
+		}
+		invalidateBloomFilter();
+	}
+
+	// Concurrent mode
+
+	/**
+	 * Turns the concurrent mode on or off. In concurrent mode many threads can
+	 * read the file at once, while writes are serialized. The lock is shared by
+	 * all objects of the same file and other processes are locked out with a lock
+	 * file (<i>fileName</i>.lock). Change the mode only before the object is
+	 * shared between threads.
+	 * 
+	 * @param concurrent true to lock the file for every operation
+	 */
+	public void setConcurrent(boolean concurrent) {
+		sharedLock = concurrent ? SharedFileLock.of(file) : null;
+	}
+
+	/**
+	 * @return true if the file is in concurrent mode
+	 */
+	public boolean isConcurrent() {
+		return sharedLock != null;
+	}
+
+	/**
+	 * @return the lock of this file, which counts how long threads had to wait
+	 *         (null, if the file isn't in concurrent mode)
+	 */
+	public SharedFileLock getLockStatistics() {
+		return sharedLock;
+	}
+
+	/**
+	 * Acquires the lock for reading (only in concurrent mode)
+	 */
+	protected void lockRead() {
+		if (sharedLock != null) {
+			sharedLock.lockRead();
+		}
+	}
+
+	/**
+	 * Releases the lock for reading (only in concurrent mode)
+	 */
+	protected void unlockRead() {
+		if (sharedLock != null) {
+			sharedLock.unlockRead();
+		}
+	}
+
+	/**
+	 * Acquires the lock for writing (only in concurrent mode)
+	 */
+	protected void lockWrite() {
+		if (sharedLock != null) {
+			sharedLock.lockWrite();
+		}
+	}
+
+	/**
+	 * Releases the lock for writing (only in concurrent mode)
+	 */
+	protected void unlockWrite() {
+		if (sharedLock != null) {
+			sharedLock.unlockWrite();
+		}
+	}
+
+	// Mapped mode
+
+	/**
+	 * Turns the mapped mode on or off. In mapped mode the file is mapped into
+	 * memory and lookups do a binary search over the sorted lines, instead of
+	 * reading the file from the top. The cached mode takes precedence over the
+	 * mapped mode. Only the text engine has a mapped mode.
+	 * 
+	 * @param mapped true to map the file into memory
+	 */
+	public void setMapped(boolean mapped) {
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.setMapped(mapped);
+		}
+	}
+
+	/**
+	 * @return true if the file is in mapped mode
+	 */
+	public boolean isMapped() {
+		TextStorageEngine text = textEngine();
+		return text != null && text.isMapped();
+	}
+
+	// Write-ahead log mode
+
+	/**
+	 * Turns the write-ahead log mode on or off. In this mode writes and deletes
+	 * only append a record to a log next to the file (<i>fileName</i>.log), so
+	 * they don't have to rewrite the whole file. Reads see the latest value of
+	 * the file and the log. The log is merged back into the file by
+	 * {@link #compact()}. Turning the mode off compacts the log. Only the text
+	 * engine has a write-ahead log.
+	 * 
+	 * @param logged true to use a write-ahead log
+	 */
+	public void setLogged(boolean logged) {
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.setLogged(logged);
+		}
+	}
+
+	/**
+	 * @return true if the file is in write-ahead log mode
+	 */
+	public boolean isLogged() {
+		TextStorageEngine text = textEngine();
+		return text != null && text.isLogged();
+	}
+
+	/**
+	 * Sets the amount of records in the log, which triggers a compaction (in the
+	 * background, if {@link #startCompaction(long)} was called)
+	 * 
+	 * @param compactionThreshold the amount of records (smaller or equal 0 to
+	 *                            disable)
+	 */
+	public void setCompactionThreshold(int compactionThreshold) {
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.setCompactionThreshold(compactionThreshold);
+		}
+	}
+
+	/**
+	 * Starts compacting the log in the background
+	 * 
+	 * @param interval the time between two compactions (in milliseconds)
+	 */
+	public void startCompaction(long interval) {
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.startCompaction(interval);
+		}
+	}
+
+	/**
+	 * Stops compacting the log in the background
+	 */
+	public void stopCompaction() {
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.stopCompaction();
+		}
+	}
+
+	/**
+	 * Merges all records of the log into the file (in a single pass) and clears
+	 * the log
+	 */
+	public void compact() {
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.compact();
+		}
+	}
+
+	// Reading and writing
+
+	/**
+	 * Reads the (decoded) value at a certain path
+	 * 
+	 * @param path the path to the value
+	 * @return the decoded value or null, if there is no value at that path
+	 */
+	protected String readValue(String path) {
+		Object value = readTypedValue(path);
+		return value == null ? null : value.toString();
+	}
+
+	/**
+	 * Reads the value at a certain path with its type (engines without types
+	 * return the text of the value)
+	 * 
+	 * @param path the path to the value
+	 * @return the value (an Integer, Float, Double, Boolean, Character or String)
+	 *         or null, if there is no value at that path
+	 */
+	protected Object readTypedValue(String path) {
+		long start = System.nanoTime();
+		Object value = mightContain(path) ? engine.get(path) : null;
+		metrics.recordGet(value != null, System.nanoTime() - start);
+		return value;
+	}
+
+	/**
+	 * Reads the values of many paths with their type (paths, which are definitely
+	 * not in the file, are skipped)
+	 * 
+	 * @param paths the paths to the values
+	 * @return the values of all paths, which were found (path -> value)
+	 */
+	protected Map<String, Object> readTypedValues(Collection<String> paths) {
+		long start = System.nanoTime();
+		Map<String, Object> result;
+		BloomFilter filter = currentBloomFilter();
+		if (filter == null) {
+			result = engine.getAll(paths);
+		} else {
+			ArrayList<String> candidates = new ArrayList<String>();
+			for (String path : paths) {
+				if (filter.mightContain(path)) {
+					candidates.add(path);
+				}
+			}
+			result = candidates.isEmpty() ? new HashMap<String, Object>() : engine.getAll(candidates);
+		}
+		metrics.recordGets(paths.size(), result.size(), System.nanoTime() - start);
+		return result;
+	}
+
+	/**
+	 * Writes a value (or replaces the old value)
+	 * 
+	 * @param path  the path for the value
+	 * @param value the (decoded) value
+	 */
+	protected void writeValue(String path, String value) {
+		long start = System.nanoTime();
+		filterLock.readLock().lock();
+		try {
+			addToFilter(path);
+			engine.put(path, value);
+		} finally {
+			filterLock.readLock().unlock();
+		}
+		metrics.recordChange(FileMetrics.Operation.WRITE, 1, 0, System.nanoTime() - start);
+	}
+
+	/**
+	 * Writes a value with its type (engines without types write the text of the
+	 * value)
+	 * 
+	 * @param path  the path for the value
+	 * @param value the value (an Integer, Float, Double, Boolean, Character or
+	 *              String)
+	 */
+	protected void writeTypedValue(String path, Object value) {
+		long start = System.nanoTime();
+		filterLock.readLock().lock();
+		try {
+			addToFilter(path);
+			engine.put(path, value);
+		} finally {
+			filterLock.readLock().unlock();
+		}
+		metrics.recordChange(FileMetrics.Operation.WRITE, 1, 0, System.nanoTime() - start);
+	}
+
+	/**
+	 * Applies the changes of a group commit with the text engine (see
+	 * {@link TextStorageEngine#applyChangesNow(TreeMap)})
+	 * 
+	 * @param changes the changes (encoded path -> encoded line or null)
+	 */
+	protected void applyChangesNow(TreeMap<String, String> changes) {
+		textEngine().applyChangesNow(changes);
+	}
+
+	/**
+	 * Applies the changes of a batch with the engine of the file
+	 * 
+	 * @param changes the changes (path -> value or null)
+	 */
+	protected void commitBatch(TreeMap<String, Object> changes) {
+		long start = System.nanoTime();
+		int writes = 0;
+		filterLock.readLock().lock();
+		try {
+			for (Map.Entry<String, Object> change : changes.entrySet()) {
+				if (change.getValue() != null) {
+					addToFilter(change.getKey());
+					writes++;
+				}
+			}
+			engine.putAll(changes);
+		} finally {
+			filterLock.readLock().unlock();
+		}
+		metrics.recordChange(FileMetrics.Operation.BATCH, writes, changes.size() - writes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Encodes the line of a value (with a type tag, if type tags are turned on)
+	 * 
+	 * @param path  the path of the value
+	 * @param value the value (an Integer, Float, Double, Boolean, Character or
+	 *              String)
+	 * @return the encoded line
+	 */
+	protected String encodeLine(String path, Object value) {
+		return encodeLine(path, value, typeTags);
+	}
+
+	/**
+	 * Encodes the line of a value ("path: value" or "path:T value")
+	 * 
+	 * @param path   the path of the value
+	 * @param value  the value (an Integer, Float, Double, Boolean, Character or
+	 *               String)
+	 * @param tagged true to add the type tag of the value
+	 * @return the encoded line
+	 */
+	protected String encodeLine(String path, Object value, boolean tagged) {
+		String text = String.valueOf(value);
+		if (!tagged) {
+			return encode(path + ": " + text);
+		}
+		return encode(path + ":" + ValueType.of(value).getTag() + " " + text);
+	}
+
+	/**
+	 * Returns the type tag of a line
+	 * 
+	 * @param line the encoded line
+	 * @return the type or null, if the line has no type tag
+	 */
+	protected ValueType typeOf(String line) {
+		int end = line.indexOf(codec.encode(':'));
+		if (end < 0 || end + 2 >= line.length() || line.charAt(end + 2) != codec.encode(' ')) {
+			return null;
+		}
+		return ValueType.of(codec.decode(line.charAt(end + 1)));
+	}
+
+	/**
+	 * Returns the decoded text of the value of a line (without the path and the
+	 * type tag)
+	 * 
+	 * @param line the encoded line
+	 * @return the decoded text
+	 */
+	protected String textOf(String line) {
+		int end = line.indexOf(codec.encode(':'));
+		if (end < 0) {
+			return "";
+		}
+		int start = typeOf(line) != null ? end + 3 : end + 2;
+		return decode(line.substring(Math.min(start, line.length())));
+	}
+
+	/**
+	 * Returns the decoded value of a line. Lines with a type tag give a value of
+	 * that type (without guessing the type), lines without one give the text.
+	 * 
+	 * @param line the encoded line
+	 * @return the value (an Integer, Float, Double, Boolean, Character or String)
+	 */
+	protected Object valueOf(String line) {
+		String text = textOf(line);
+		ValueType type = typeOf(line);
+		return type == null ? text : parseTagged(type, text);
+	}
+
+	/**
+	 * Converts the text of a tagged value into its type (texts, which don't fit
+	 * the type, e.g. after editing the file by hand, stay texts)
+	 * 
+	 * @param type the type of the tag
+	 * @param text the text of the value
+	 * @return the value
+	 */
+	protected static Object parseTagged(ValueType type, String text) {
+		int length = text.length();
+		switch (type) {
+		case INT:
+			return ValueParser.isInt(text, 0, length) ? type.parse(text) : text;
+		case FLOAT:
+		case DOUBLE:
+			return ValueParser.isFloat(text, 0, length) ? type.parse(text) : text;
+		case BOOLEAN:
+			return ValueParser.isBoolean(text, 0, length) ? type.parse(text) : text;
+		case CHAR:
+			return length == 1 ? type.parse(text) : text;
+		default:
+			return text;
+		}
+	}
+
+	/**
+	 * Returns the decoded path of an encoded path (without ": ")
+	 * 
+	 * @param encodedPath the encoded path (with ": ")
+	 * @return the decoded path
+	 */
+	protected String keyOf(String encodedPath) {
+		return decode(encodedPath.substring(0, encodedPath.length() - 2));
+	}
+
+	/**
+	 * Returns the encoded path of a line (the part before the first ':' including
+	 * ": ")
+	 * 
+	 * @param line the encoded line
+	 * @return the encoded path
+	 */
+	protected String pathOf(String line) {
+		char separator = codec.encode(':');
+		int end = line.indexOf(separator);
+		if (end < 0) {
+			return line + separator + codec.encode(' ');
+		}
+		return line.substring(0, end + 1) + codec.encode(' ');
+	}
+
+	/**
+	 * Compares an encoded path with the path of a line (like
+	 * {@link String#compareTo}), without copying or decoding the line
+	 * 
+	 * @param encodedPath the encoded path (with ": ")
+	 * @param line        the encoded line
+	 * @return a negative number, zero or a positive number if the path is less
+	 *         than, equal to or greater than the path of the line
+	 */
+	protected int comparePath(String encodedPath, String line) {
+		char separator = codec.encode(':');
+		int length = line.indexOf(separator);
+		if (length < 0) {
+			length = line.length();
+		}
+		int pathLength = encodedPath.length();
+		int common = Math.min(pathLength, length + 2);
+		for (int i = 0; i < common; i++) {
+			char lineChar = i < length ? line.charAt(i) : (i == length ? separator : codec.encode(' '));
+			char pathChar = encodedPath.charAt(i);
+			if (pathChar != lineChar) {
+				return pathChar - lineChar;
+			}
+		}
+		return pathLength - (length + 2);
+	}
+
+	/**
+	 * Creates an empty, hidden temporary file for another file
+	 * (.<i>name</i>.<i>random</i><i>suffix</i>). The prefix of a temporary file
+	 * needs at least three characters, so short names like "a" are padded.
+	 * 
+	 * @param folder the folder of the temporary file
+	 * @param name   the name of the file the temporary file belongs to
+	 * @param suffix the suffix of the temporary file (e.g. ".tmp")
+	 * @return the temporary file
+	 * @throws IOException when the file couldn't be created
+	 */
+	protected static File createTempFile(File folder, String name, String suffix) throws IOException {
+		return File.createTempFile(tempPrefix(name), suffix, folder);
+	}
+
+	/**
+	 * @param name the name of the file a temporary file belongs to
+	 * @return the prefix of the temporary file (at least three characters)
+	 */
+	protected static String tempPrefix(String name) {
+		String prefix = "." + name + ".";
+		return prefix.length() >= 3 ? prefix : prefix + "tmp";
+	}
+
+	// Write-behind mode
+
+	/**
+	 * Turns the write-behind mode on or off. In write-behind mode writes are held
+	 * back in memory (see {@link WriteBehindEngine}), repeated writes to the same
+	 * path only replace the buffered value. The buffer is written to the file
+	 * after the flush interval, when it reaches the flush threshold, on
+	 * {@link #flush()}, on {@link #close()} and when the virtual machine shuts
+	 * down. Turning the mode off flushes the buffer.
+	 * 
+	 * @param writeBehind true to hold back writes
+	 */
+	public synchronized void setWriteBehind(boolean writeBehind) {
+		StorageEngine current = engine;
+		if (writeBehind && !(current instanceof WriteBehindEngine)) {
+			engine = new WriteBehindEngine(current, flushInterval, flushThreshold);
+		} else if (!writeBehind && current instanceof WriteBehindEngine) {
+			WriteBehindEngine buffer = (WriteBehindEngine) current;
+			// the closed buffer still forwards writes, which raced the switch
+			buffer.close();
+			engine = buffer.getTarget();
+		}
+	}
+
+	/**
+	 * @return true if the file is in write-behind mode
+	 */
+	public boolean isWriteBehind() {
+		return engine instanceof WriteBehindEngine;
+	}
+
+	/**
+	 * Sets the time between two flushes in write-behind mode
+	 * 
+	 * @param flushInterval the time in milliseconds (0 to flush only on the
+	 *                      threshold and on demand)
+	 */
+	public synchronized void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+		if (engine instanceof WriteBehindEngine) {
+			((WriteBehindEngine) engine).setInterval(flushInterval);
+		}
+	}
+
+	/**
+	 * Sets the amount of buffered paths, which triggers a flush in write-behind
+	 * mode
+	 * 
+	 * @param flushThreshold the amount of paths
+	 */
+	public synchronized void setFlushThreshold(int flushThreshold) {
+		this.flushThreshold = flushThreshold;
+		if (engine instanceof WriteBehindEngine) {
+			((WriteBehindEngine) engine).setThreshold(flushThreshold);
 		}
 	}
 
 	/**
-	 * Writes a string to the file
+	 * Writes all held back changes to the file and stops the background work of
+	 * the file (write-behind mode and compaction) and removes its MXBean. The
+	 * file can still be used afterwards.
+	 */
+	@Override
+	public void close() {
+		setWriteBehind(false);
+		stopCompaction();
+		flush();
+		metrics.unregister();
+	}
+
+	// Logging
+
+	/**
+	 * Sets the logger of this file
 	 * 
-	 * @param path  the path for the value
-	 * @param value the string
+	 * @param logger the logger ({@link FileLogger#NONE} to turn the messages off)
 	 */
-	public void writeString(String path, String value) {
+	public void setLogger(FileLogger logger) {
+		this.logger = logger;
+	}
+
+	/**
+	 * @return the logger of this file
+	 */
+	public FileLogger getLogger() {
+		return logger;
+	}
+
+	/**
+	 * Sets the logger of all files, which are created afterwards
+	 * 
+	 * @param logger the logger ({@link FileLogger#NONE} to turn the messages off)
+	 */
+	public static void setDefaultLogger(FileLogger logger) {
+		defaultLogger = logger;
+	}
+
+	// Metrics
+
+	/**
+	 * @return the metrics of this file (use {@link FileMetrics#total()} for the
+	 *         metrics of all files)
+	 */
+	public FileMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Registers the metrics of this file as an MXBean named after the path of the
+	 * file (see {@link FileMetrics#register(String)})
+	 */
+	public void registerMetrics() {
+		metrics.register(file.getPath());
+	}
+
+	// Type tags
+
+	/**
+	 * Turns the type tags on or off. With type tags every written value carries
+	 * the tag of its type ("path:I 5" instead of "path: 5"), so reads know the
+	 * type without guessing it. Lines with and without tags can be mixed, older
+	 * files stay readable.
+	 * 
+	 * @param typeTags true to write type tags
+	 */
+	public void setTypeTags(boolean typeTags) {
+		this.typeTags = typeTags;
+	}
+
+	/**
+	 * @return true if written values get a type tag
+	 */
+	public boolean hasTypeTags() {
+		return typeTags;
+	}
+
+	/**
+	 * Turns the strict conversion on or off. Strict files only return values as
+	 * the type they were written with (e.g. {@link #getInt(String)} doesn't
+	 * truncate a float and {@link #getDouble(String)} doesn't accept an integer).
+	 * Values without a type tag must look like the wanted type. Lenient files
+	 * (the default) convert between the numeric types.
+	 * 
+	 * @param strictTypes true for strict conversions
+	 */
+	public void setStrictTypes(boolean strictTypes) {
+		this.strictTypes = strictTypes;
+	}
+
+	/**
+	 * @return true if values are only returned as the type they were written with
+	 */
+	public boolean isStrictTypes() {
+		return strictTypes;
+	}
+
+	// Bloom filter
+
+	/**
+	 * Turns the Bloom filter on or off. The filter knows all paths of the file,
+	 * so lookups of paths, which are definitely not in the file, return at once
+	 * without reading the file. It is saved next to the file
+	 * (<i>fileName</i>.bloom) by {@link #flush()} and {@link #close()} and loaded
+	 * again, as long as the file wasn't changed since, otherwise it is rebuilt
+	 * with a single scan. Deleted paths stay in the filter until it is rebuilt
+	 * (see {@link #rebuildBloomFilter()}), a filter, which holds more paths than
+	 * it was built for, is rebuilt, when it is loaded. If another object changed
+	 * the file since this object wrote it last, the filter is rebuilt before the
+	 * next lookup. Writes of another process are noticed by the first lookup
+	 * after the next check (see {@link #setBloomCheckInterval(long)}) or after
+	 * {@link #refreshCache()}.
+	 * <p>
+	 * In concurrent mode the filter is still kept up to date by the writes of
+	 * this object, but lookups don't use it: other processes write without
+	 * telling this object, so every lookup would have to compare the file to the
+	 * filter under the shared lock, which costs about as much as the lookup.
+	 * 
+	 * @param bloomFiltered true to use a Bloom filter
+	 */
+	public void setBloomFiltered(boolean bloomFiltered) {
+		filterLock.writeLock().lock();
 		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			String valueString = encode(value + "");
-			ArrayList<String> lines = new ArrayList<String>();
-			boolean isWritten = false;
-			while (it.hasNext()) {
-				String oldText = it.next();
-				String oldPath = encode(decode(oldText).split(":")[0] + ": ");
-
-				if (path.equals(oldPath) && !isWritten) {
-					lines.add(path + valueString);
-					isWritten = true;
-				} else if (path.compareTo(oldPath) <= -1 && !isWritten) {
-					lines.add(path + valueString);
-					lines.add(oldText);
-					isWritten = true;
+			if (!bloomFiltered) {
+				bloomFilter = null;
+			} else if (bloomFilter == null) {
+				long writes = writeCount().get();
+				List<Object> version = getFileVersion();
+				BloomFilter filter = BloomFilter.load(getBloomFile(), getBloomStamp());
+				if (filter == null || filter.isFull()) {
+					rebuildBloomFilter();
 				} else {
-					lines.add(oldText);
+					bloomFilter = filter;
+					bloomVersion = version;
+					bloomWrites = writes;
+					scheduleBloomCheck();
 				}
+			}
+		} finally {
+			filterLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return true if the file uses a Bloom filter
+	 */
+	public boolean isBloomFiltered() {
+		return bloomFilter != null;
+	}
+
+	/**
+	 * Changes how often lookups compare the version of the file to the Bloom
+	 * filter, which notices writes of other processes (writes of objects in this
+	 * process are always noticed at once). Lookups in between trust the filter
+	 * without looking at the file.
+	 * 
+	 * @param interval the time between two comparisons (in milliseconds, 0 to
+	 *                 compare before every lookup)
+	 */
+	public void setBloomCheckInterval(long interval) {
+		bloomCheckInterval = interval;
+		invalidateBloomFilter();
+	}
 
+	/**
+	 * @return the time between two comparisons of the version of the file to the
+	 *         Bloom filter (in milliseconds)
+	 */
+	public long getBloomCheckInterval() {
+		return bloomCheckInterval;
+	}
+
+	/**
+	 * Sets the false positive rate of the Bloom filter (rebuilds the filter, if
+	 * there is one)
+	 * 
+	 * @param falsePositiveRate the rate of missing paths, which still have to be
+	 *                          looked up (between 0 and 1)
+	 */
+	public void setFalsePositiveRate(double falsePositiveRate) {
+		filterLock.writeLock().lock();
+		try {
+			this.falsePositiveRate = falsePositiveRate;
+			if (bloomFilter != null) {
+				rebuildBloomFilter();
 			}
-			if (!isWritten) {
-				lines.add(path + valueString);
+		} finally {
+			filterLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Builds the Bloom filter from all paths of the file (with room for twice as
+	 * many paths) and saves it
+	 */
+	public void rebuildBloomFilter() {
+		filterLock.writeLock().lock();
+		try {
+			long writes = writeCount().get();
+			List<Object> version = getFileVersion();
+			ArrayList<String> paths = new ArrayList<String>();
+			EntryIterator entries = engine.scan(null, null, null);
+			try {
+				while (entries.hasNext()) {
+					paths.add(entries.next().getKey());
+				}
+			} finally {
+				entries.close();
 			}
-			br.close();
-			FileWriter fw = new FileWriter(file);
-			PrintWriter pw = new PrintWriter(fw);
-			for (String s : lines) {
-				pw.println(s);
+			BloomFilter filter = new BloomFilter(Math.max(MIN_BLOOM_CAPACITY, 2 * paths.size()), falsePositiveRate);
+			for (String path : paths) {
+				filter.add(path);
 			}
-			pw.close();
+			bloomFilter = filter;
+			bloomVersion = version;
+			bloomWrites = writes;
+			scheduleBloomCheck();
+			saveBloomFilter();
+		} finally {
+			filterLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Saves the Bloom filter (if there is one) with the current stamp of the file
+	 */
+	protected void saveBloomFilter() {
+		BloomFilter filter = bloomFilter;
+		if (filter == null) {
+			return;
+		}
+		try {
+			filter.save(getBloomFile(), getBloomStamp());
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
 	/**
-	 * Delete a line in the file
+	 * @param path a path
+	 * @return false if the path is definitely not in the file
+	 */
+	protected boolean mightContain(String path) {
+		BloomFilter filter = currentBloomFilter();
+		return filter == null || filter.mightContain(path);
+	}
+
+	/**
+	 * Returns the Bloom filter, if it knows all paths of the file. Another object
+	 * or process may have written to the file since this object wrote it last,
+	 * so after a write of another object or once the check is due the version of
+	 * the file is compared and the filter is rebuilt, if it changed. In
+	 * concurrent mode there is no filter (see {@link #setBloomFiltered(boolean)}).
 	 * 
-	 * @param path the path to the line
+	 * @return the filter or null, if paths can't be skipped
 	 */
-	public void deleteLine(String path) {
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			path = encode(path + ": ");
-			ArrayList<String> lines = new ArrayList<String>();
-			while (it.hasNext()) {
-				String oldText = it.next();
-				String oldPath = encode(decode(oldText).split(":")[0] + ": ");
-
-				if (oldPath.compareTo(path) != 0) {
-					lines.add(oldText);
+	protected BloomFilter currentBloomFilter() {
+		BloomFilter filter = bloomFilter;
+		if (filter == null || sharedLock != null) {
+			return null;
+		}
+		long writes = writeCount().get();
+		if (writes != bloomWrites || System.nanoTime() - bloomCheckDue >= 0) {
+			if (getFileVersion().equals(bloomVersion)) {
+				bloomWrites = writes;
+				scheduleBloomCheck();
+			} else {
+				if (filterLock.getReadHoldCount() > 0) {
+					return null;
 				}
+				rebuildBloomFilter();
+				filter = bloomFilter;
 			}
-			br.lines().skip(br.lines().count());
-			br.close();
-			FileWriter fw = new FileWriter(file);
-			PrintWriter pw = new PrintWriter(fw);
-			for (String s : lines) {
-				pw.println(s);
-			}
-			pw.close();
+		}
+		return filter;
+	}
+
+	/**
+	 * Remembers, that the Bloom filter knows the current version of the file
+	 * (called after this object changed the file or the write-ahead log)
+	 */
+	protected void touchBloomFilter() {
+		long writes = writeCount().incrementAndGet();
+		if (bloomFilter != null) {
+			bloomVersion = getFileVersion();
+			bloomWrites = writes;
+			scheduleBloomCheck();
+		}
+	}
+
+	/**
+	 * @return the amount of writes of all objects in this process to the file
+	 */
+	protected AtomicLong writeCount() {
+		AtomicLong count = writeCount;
+		if (count == null) {
+			count = WRITE_COUNTS.computeIfAbsent(file.getAbsolutePath(), path -> new AtomicLong());
+			writeCount = count;
+		}
+		return count;
+	}
+
+	/**
+	 * Lets the next lookup compare the version of the file to the Bloom filter
+	 */
+	protected void invalidateBloomFilter() {
+		bloomCheckDue = System.nanoTime();
+	}
+
+	/**
+	 * Lets lookups trust the Bloom filter until the check interval passed
+	 */
+	protected void scheduleBloomCheck() {
+		bloomCheckDue = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(bloomCheckInterval);
+	}
+
+	/**
+	 * @return the version of the file: its identity, modification time (in
+	 *         nanoseconds) and length and the length of the write-ahead log
+	 */
+	protected List<Object> getFileVersion() {
+		Object fileKey = null;
+		long lastModified = -1, length = -1;
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			fileKey = attributes.fileKey();
+			lastModified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+			length = attributes.size();
 		} catch (IOException e) {
-			e.printStackTrace();
+			// there is no file yet
+		}
+		return Arrays.asList(fileKey, lastModified, length, new File(file.getPath() + ".log").length());
+	}
+
+	/**
+	 * Adds a written path to the Bloom filter (if there is one)
+	 * 
+	 * @param path the path
+	 */
+	protected void addToFilter(String path) {
+		BloomFilter filter = bloomFilter;
+		if (filter != null) {
+			filter.add(path);
+		}
+	}
+
+	/**
+	 * @return the file of the Bloom filter
+	 */
+	protected File getBloomFile() {
+		return new File(file.getPath() + ".bloom");
+	}
+
+	/**
+	 * @return the state of the file (length and modification time of the file
+	 *         and the length of the write-ahead log), which the saved Bloom filter
+	 *         has to match
+	 */
+	protected long[] getBloomStamp() {
+		File log = new File(file.getPath() + ".log");
+		return new long[] { file.length(), file.lastModified(), log.length() };
+	}
+
+	// Durability
+
+	/**
+	 * Changes when the changes of this file are forced to the disk
+	 * 
+	 * @param durability the durability
+	 */
+	public void setDurability(Durability durability) {
+		if (durability == Durability.GROUP && groupCommit == null) {
+			groupCommit = new GroupCommit(this, DEFAULT_GROUP_COMMIT_WINDOW);
+		}
+		this.durability = durability;
+	}
+
+	/**
+	 * @return the durability of this file
+	 */
+	public Durability getDurability() {
+		return durability;
+	}
+
+	/**
+	 * Changes the time window, in which concurrent writes are collected (only used
+	 * with {@link Durability#GROUP})
+	 * 
+	 * @param window the time window (in milliseconds)
+	 */
+	public void setGroupCommitWindow(long window) {
+		if (groupCommit == null) {
+			groupCommit = new GroupCommit(this, window);
+		} else {
+			groupCommit.setWindow(window);
 		}
 	}
 
@@ -805,19 +2144,27 @@ public class EditableFile {
 	 * Clears the whole content of the file
 	 */
 	public void clearFile() {
+		long start = System.nanoTime();
+		filterLock.writeLock().lock();
 		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			FileWriter fw = new FileWriter(file);
-			PrintWriter pw = new PrintWriter(fw);
-			for (int i = 0; i < br.lines().count(); i++) {
-				pw.print("");
+			engine.clear();
+			BloomFilter filter = bloomFilter;
+			if (filter != null) {
+				bloomFilter = new BloomFilter(filter.getCapacity(), falsePositiveRate);
 			}
-			pw.close();
-			br.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		} finally {
+			filterLock.writeLock().unlock();
 		}
+		metrics.record(FileMetrics.Operation.CLEAR, System.nanoTime() - start);
+	}
+
+	/**
+	 * Writes everything the engine still holds back to the file (e.g. the records
+	 * of the write-ahead log) and saves the Bloom filter
+	 */
+	public void flush() {
+		engine.flush();
+		saveBloomFilter();
 	}
 
 	/**
@@ -826,24 +2173,25 @@ public class EditableFile {
 	 * @return a string containing all information of the file
 	 */
 	public String returnContentsAsString(boolean shouldDecode) {
-		String information = "";
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			while (it.hasNext()) {
-				String text = it.next();
-				information += text + "\n";
+		StorageEngine current = engine;
+		if (current instanceof WriteBehindEngine) {
+			current.flush();
+			current = ((WriteBehindEngine) current).getTarget();
+		}
+		if (!(current instanceof TextStorageEngine)) {
+			StringBuilder information = new StringBuilder();
+			EntryIterator entries = scan();
+			try {
+				while (entries.hasNext()) {
+					Entry entry = entries.next();
+					information.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+				}
+			} finally {
+				entries.close();
 			}
-			information += "\0";
-			br.lines().skip(br.lines().count());
-			br.close();
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
+			return information.append('\0').toString();
 		}
-		return information;
+		return ((TextStorageEngine) current).readContents();
 	}
 
 	/**
@@ -854,6 +2202,9 @@ public class EditableFile {
 	 */
 	protected void addEncodingChar(char target, char encoding) {
 		this.encoding.put(target, encoding);
+		if (codec instanceof TableCodec) {
+			((TableCodec) codec).set(target, encoding);
+		}
 	}
 
 	/**
@@ -864,21 +2215,36 @@ public class EditableFile {
 	 */
 	protected void moveEncodingList(int units) {
 		int offset = (units % AMOUNT_OF_POSSIBLE_CHARACTERS) * (int) Math.signum(units);
-		HashMap<Character, Character> newMap = new HashMap<Character, Character>();
-		for (int i = 0; i < AMOUNT_OF_POSSIBLE_CHARACTERS; i++) {
-			newMap.put((char) i, encoding.get((char) i));
-		}
-		for (int i = 0; i < AMOUNT_OF_POSSIBLE_CHARACTERS; i++) {
-			int newIndex = i - offset;
-			if (newIndex >= AMOUNT_OF_POSSIBLE_CHARACTERS) {
-				newIndex -= AMOUNT_OF_POSSIBLE_CHARACTERS;
-			} else if (newIndex < 0) {
-				newIndex += AMOUNT_OF_POSSIBLE_CHARACTERS;
-			}
-			encoding.put((char) i, newMap.get((char) newIndex));
+		if (codec instanceof TableCodec) {
+			TableCodec table = (TableCodec) codec;
+			table.shift(offset);
+			encoding = table.toMap();
+		}
+	}
+
+	/**
+	 * Changes the codec used to encode and decode the file
+	 * 
+	 * @param codec the new codec
+	 */
+	public void setCodec(Codec codec) {
+		this.codec = codec;
+		if (codec instanceof TableCodec) {
+			encoding = ((TableCodec) codec).toMap();
+		}
+		TextStorageEngine text = textEngine();
+		if (text != null) {
+			text.invalidate();
 		}
 	}
 
+	/**
+	 * @return the codec used to encode and decode the file
+	 */
+	public Codec getCodec() {
+		return codec;
+	}
+
 	/**
 	 * Encodes a string according to the encoding list
 	 * 
@@ -886,10 +2252,8 @@ public class EditableFile {
 	 * @return the encoded string
 	 */
 	protected String encode(String string) {
-		char[] result = new char[string.length()];
-		for (int i = 0; i < result.length; i++) {
-			result[i] = encoding.get(string.charAt(i));
-		}
+		char[] result = string.toCharArray();
+		codec.encode(result, 0, result.length);
 		return new String(result);
 	}
 
@@ -900,26 +2264,172 @@ public class EditableFile {
 	 * @return the decoded string
 	 */
 	protected String decode(String string) {
-		char[] result = new char[string.length()];
-		for (int i = 0; i < result.length; i++) {
-			Iterator<Character> it = encoding.keySet().iterator();
-			boolean hasDecode = false;
-			char decodeKey = 0;
-			while (it.hasNext()) {
-				char key = it.next();
-				if (encoding.get(key) == string.charAt(i)) {
-					hasDecode = true;
-					decodeKey = key;
-					break;
-				}
-			}
-			if (hasDecode) {
-				result[i] = decodeKey;
-			} else {
-				result[i] = string.charAt(i);
+		char[] result = string.toCharArray();
+		codec.decode(result, 0, result.length);
+		return new String(result);
+	}
+
+	/**
+	 * Converts a value into an integer (only integer values!)
+	 * 
+	 * @param value the value (a typed value or its text)
+	 * @return the integer value
+	 * @throws WrongTypeException when the value is not an integer
+	 */
+	protected int toTrueInt(Object value) throws WrongTypeException {
+		checkType(value, ValueType.INT, TYPE_INT);
+		if (value instanceof Integer) {
+			return (Integer) value;
+		}
+		String number = value.toString();
+		if (!isInt(number)) {
+			throw new WrongTypeException(getType(value), TYPE_INT);
+		}
+		return ValueParser.parseInt(number, 0, number.length());
+	}
+
+	/**
+	 * Converts a value into an integer
+	 * 
+	 * @param value the value (a typed value or its text)
+	 * @return the integer value
+	 * @throws WrongTypeException when the value is not an integer, float or double
+	 */
+	protected int toInt(Object value) throws WrongTypeException {
+		checkType(value, ValueType.INT, TYPE_INT);
+		if (value instanceof Integer) {
+			return (Integer) value;
+		} else if (value instanceof Float || value instanceof Double) {
+			return (int) ((Number) value).floatValue();
+		}
+		String number = value.toString();
+		if (!isFloat(number)) {
+			throw new WrongTypeException(getType(value), TYPE_INT);
+		}
+		return (int) ValueParser.parseFloat(number, 0, number.length());
+	}
+
+	/**
+	 * Converts a value into a character
+	 * 
+	 * @param value the value (a typed value or its text)
+	 * @return the character
+	 * @throws WrongTypeException when the value is not a character
+	 */
+	protected char toChar(Object value) throws WrongTypeException {
+		checkType(value, ValueType.CHAR, TYPE_CHAR);
+		if (value instanceof Character) {
+			return (Character) value;
+		}
+		String number = value.toString();
+		if (!isChar(number)) {
+			throw new WrongTypeException(getType(value), TYPE_CHAR);
+		}
+		return number.charAt(0);
+	}
+
+	/**
+	 * Converts a value into a boolean
+	 * 
+	 * @param value the value (a typed value or its text)
+	 * @return the boolean value
+	 * @throws WrongTypeException when the value is not a boolean
+	 */
+	protected boolean toBoolean(Object value) throws WrongTypeException {
+		checkType(value, ValueType.BOOLEAN, TYPE_BOOLEAN);
+		if (value instanceof Boolean) {
+			return (Boolean) value;
+		}
+		String number = value.toString();
+		if (!isBoolean(number)) {
+			throw new WrongTypeException(getType(value), TYPE_BOOLEAN);
+		}
+		return ValueParser.parseBoolean(number, 0, number.length());
+	}
+
+	/**
+	 * Converts a value into a float
+	 * 
+	 * @param value the value (a typed value or its text)
+	 * @return the float value
+	 * @throws WrongTypeException when the value is not an integer, float or double
+	 */
+	protected float toFloat(Object value) throws WrongTypeException {
+		checkType(value, ValueType.FLOAT, TYPE_FLOAT_DOUBLE);
+		if (value instanceof Integer || value instanceof Float || value instanceof Double) {
+			return ((Number) value).floatValue();
+		}
+		String number = value.toString();
+		if (!isFloat(number)) {
+			throw new WrongTypeException(getType(value), TYPE_FLOAT_DOUBLE);
+		}
+		return ValueParser.parseFloat(number, 0, number.length());
+	}
+
+	/**
+	 * Converts a value into a double
+	 * 
+	 * @param value the value (a typed value or its text)
+	 * @return the double value
+	 * @throws WrongTypeException when the value is not an integer, float or double
+	 */
+	protected double toDouble(Object value) throws WrongTypeException {
+		checkType(value, ValueType.DOUBLE, TYPE_FLOAT_DOUBLE);
+		if (value instanceof Integer || value instanceof Double) {
+			return ((Number) value).doubleValue();
+		}
+		String number = value.toString();
+		if (!isFloat(number)) {
+			throw new WrongTypeException(getType(value), TYPE_FLOAT_DOUBLE);
+		}
+		return ValueParser.parseDouble(number, 0, number.length());
+	}
+
+	/**
+	 * Checks in strict mode, whether a value has the wanted type: values with a
+	 * type must have exactly that type, texts must look like it (see
+	 * {@link #getType(String)})
+	 * 
+	 * @param value      the value (a typed value or its text)
+	 * @param wanted     the wanted type
+	 * @param wantedName the name of the wanted type (for the exception)
+	 * @throws WrongTypeException when the file is strict and the value has
+	 *                            another type
+	 */
+	protected void checkType(Object value, ValueType wanted, String wantedName) throws WrongTypeException {
+		if (!strictTypes) {
+			return;
+		}
+		if (value instanceof String) {
+			String type = getType((String) value);
+			if (!type.equals(wantedName)) {
+				throw new WrongTypeException(type, wantedName);
 			}
+		} else if (ValueType.of(value) != wanted) {
+			throw new WrongTypeException(getType(value), wantedName);
+		}
+	}
+
+	/**
+	 * Returns the type of a value
+	 * 
+	 * @param value the value (a typed value or its text)
+	 * @return the type
+	 */
+	protected String getType(Object value) {
+		switch (ValueType.of(value)) {
+		case INT:
+			return TYPE_INT;
+		case FLOAT:
+		case DOUBLE:
+			return TYPE_FLOAT_DOUBLE;
+		case BOOLEAN:
+			return TYPE_BOOLEAN;
+		case CHAR:
+			return TYPE_CHAR;
+		default:
+			return getType(value.toString());
 		}
-		return new String(result);
 	}
 
 	/**
@@ -929,12 +2439,7 @@ public class EditableFile {
 	 * @return true if the string is an integer
 	 */
 	protected boolean isInt(String test) {
-		try {
-			Integer.parseInt(test);
-		} catch (NumberFormatException e) {
-			return false;
-		}
-		return true;
+		return ValueParser.isInt(test, 0, test.length());
 	}
 
 	/**
@@ -944,12 +2449,7 @@ public class EditableFile {
 	 * @return true if the string is a float/double
 	 */
 	protected boolean isFloat(String test) {
-		try {
-			Float.parseFloat(test);
-		} catch (NumberFormatException e) {
-			return false;
-		}
-		return true;
+		return ValueParser.isFloat(test, 0, test.length());
 	}
 
 	/**
@@ -959,10 +2459,7 @@ public class EditableFile {
 	 * @return true if the string is a boolean
 	 */
 	protected boolean isBoolean(String test) {
-		if (test.equalsIgnoreCase("true") || test.equalsIgnoreCase("false")) {
-			return true;
-		}
-		return false;
+		return ValueParser.isBoolean(test, 0, test.length());
 	}
 
 	/**
@@ -1016,16 +2513,15 @@ public class EditableFile {
 	}
 
 	/**
-	 * Searches the whole list for duplicates
+	 * Searches the whole list for duplicates (in a single pass, which also builds
+	 * the table for decoding)
 	 * 
 	 * @throws DuplicateEncodingException when a minimum of 2 chars have the same
 	 *                                    encoding
 	 */
 	protected void testForDuplicates() throws DuplicateEncodingException {
-		for (int i = 0; i < AMOUNT_OF_POSSIBLE_CHARACTERS; i++) {
-			if (hasDuplicate((char) i)) {
-				throw new DuplicateEncodingException(encoding);
-			}
+		if (codec instanceof TableCodec && ((TableCodec) codec).validate() >= 0) {
+			throw new DuplicateEncodingException(encoding);
 		}
 	}
 
@@ -0,0 +1,100 @@
+package de.rojer.editablefiles;
+
+/**
+ * A decoded path and its value
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class Entry {
+
+	/**
+	 * The path of the value
+	 */
+	protected String key;
+
+	/**
+	 * The value
+	 */
+	protected String value;
+
+	/**
+	 * The type tag of the value (null, if the value has no tag)
+	 */
+	protected ValueType type;
+
+	/**
+	 * Create an entry
+	 * 
+	 * @param key   the path of the value
+	 * @param value the value
+	 */
+	public Entry(String key, String value) {
+		this.key = key;
+		this.value = value;
+	}
+
+	/**
+	 * Create an entry with a type tag
+	 * 
+	 * @param key   the path of the value
+	 * @param value the text of the value
+	 * @param type  the type tag of the value (null for none)
+	 */
+	public Entry(String key, String value, ValueType type) {
+		this(key, value);
+		this.type = type;
+	}
+
+	/**
+	 * @return the path of the value
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return the value
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the type tag of the value (null, if the value has no tag)
+	 */
+	public ValueType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the value with its type: the type of the tag or, for values without
+	 * a tag, the guessed type (see {@link ValueType#infer(String)})
+	 * 
+	 * @return the value (an Integer, Float, Double, Boolean, Character or String)
+	 */
+	public Object getTypedValue() {
+		return type == null ? ValueType.infer(value) : EditableFile.parseTagged(type, value);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof Entry)) {
+			return false;
+		}
+		Entry other = (Entry) obj;
+		return key.equals(other.key) && value.equals(other.value);
+	}
+
+	@Override
+	public int hashCode() {
+		return key.hashCode() * 31 + value.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return key + ": " + value;
+	}
+
+}
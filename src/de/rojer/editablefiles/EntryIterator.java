@@ -0,0 +1,270 @@
+package de.rojer.editablefiles;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Lazily reads the entries of a file (in the order of the file). Only the lines
+ * up to the upper bound are read, then the file is closed. The entries are
+ * decoded in blocks, so the time spent decoding is measured once per block.
+ * Close the iterator, if it isn't read to the end.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class EntryIterator implements Iterator<Entry>, Closeable {
+
+	/**
+	 * The amount of entries, which are decoded at once
+	 */
+	protected static final int BLOCK_SIZE = 64;
+
+	/**
+	 * The file the entries belong to
+	 */
+	protected EditableFile file;
+
+	/**
+	 * The reader of the file (null, when it is closed)
+	 */
+	protected BufferedReader reader;
+
+	/**
+	 * The first encoded path (inclusive), the last encoded path (exclusive) and
+	 * the encoded prefix of all paths (null, if unbounded)
+	 */
+	protected String from, to, prefix;
+
+	/**
+	 * The records of the write-ahead log, which overlay the lines of the file
+	 */
+	protected Iterator<Map.Entry<String, String>> overlay;
+
+	/**
+	 * The next record of the log
+	 */
+	protected Map.Entry<String, String> nextRecord;
+
+	/**
+	 * The next line of the file and its encoded path
+	 */
+	protected String nextLine, nextPath;
+
+	/**
+	 * The encoded paths and lines of the current block
+	 */
+	protected final String[] paths = new String[BLOCK_SIZE], lines = new String[BLOCK_SIZE];
+
+	/**
+	 * The decoded entries of the current block
+	 */
+	protected final Entry[] block = new Entry[BLOCK_SIZE];
+
+	/**
+	 * The position of the next entry in the block and the amount of entries in
+	 * the block
+	 */
+	protected int position, count;
+
+	/**
+	 * Create an iterator (use {@link EditableFile#scan(String, String)} or
+	 * {@link EditableFile#scanPrefix(String)})
+	 * 
+	 * @param file    the file the entries belong to
+	 * @param reader  the reader of the file
+	 * @param records the records of the write-ahead log (encoded path -> encoded
+	 *                line or null)
+	 * @param from    the first encoded path (inclusive, null if unbounded)
+	 * @param to      the last encoded path (exclusive, null if unbounded)
+	 * @param prefix  the encoded prefix of all paths (null if unbounded)
+	 */
+	protected EntryIterator(EditableFile file, BufferedReader reader, TreeMap<String, String> records, String from,
+			String to, String prefix) {
+		this(file, reader, records.entrySet().iterator(), from, to, prefix);
+	}
+
+	/**
+	 * Create an iterator over lines, which are read lazily
+	 * 
+	 * @param file    the file the entries belong to
+	 * @param reader  the reader of the file (null for none)
+	 * @param records the records, sorted by their encoded path (encoded path ->
+	 *                encoded line or null)
+	 * @param from    the first encoded path (inclusive, null if unbounded)
+	 * @param to      the last encoded path (exclusive, null if unbounded)
+	 * @param prefix  the encoded prefix of all paths (null if unbounded)
+	 */
+	protected EntryIterator(EditableFile file, BufferedReader reader, Iterator<Map.Entry<String, String>> records,
+			String from, String to, String prefix) {
+		this.file = file;
+		this.reader = reader;
+		this.from = from;
+		this.to = to;
+		this.prefix = prefix;
+		this.overlay = records;
+		this.nextRecord = nextRecord();
+		readLine();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (position < count) {
+			return true;
+		}
+		position = 0;
+		count = 0;
+		while (count < BLOCK_SIZE && (nextLine != null || nextRecord != null)) {
+			int comparison;
+			if (nextLine == null) {
+				comparison = 1;
+			} else if (nextRecord == null) {
+				comparison = -1;
+			} else {
+				comparison = nextPath.compareTo(nextRecord.getKey());
+			}
+			if (comparison < 0) {
+				add(nextPath, nextLine);
+				readLine();
+			} else {
+				if (nextRecord.getValue() != null) {
+					add(nextRecord.getKey(), nextRecord.getValue());
+				}
+				nextRecord = nextRecord();
+				if (comparison == 0) {
+					readLine();
+				}
+			}
+		}
+		if (count == 0) {
+			return false;
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			block[i] = toEntry(paths[i], lines[i]);
+			paths[i] = null;
+			lines[i] = null;
+		}
+		file.metrics.addDecodeTime(System.nanoTime() - start);
+		return true;
+	}
+
+	@Override
+	public Entry next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Entry entry = block[position];
+		block[position++] = null;
+		return entry;
+	}
+
+	/**
+	 * Adds a line to the current block
+	 * 
+	 * @param path the encoded path of the line
+	 * @param line the encoded line
+	 */
+	protected void add(String path, String line) {
+		paths[count] = path;
+		lines[count] = line;
+		count++;
+	}
+
+	/**
+	 * Closes the file
+	 */
+	@Override
+	public void close() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			reader = null;
+		}
+		nextLine = null;
+	}
+
+	/**
+	 * Reads the next line inside of the bounds (closes the file, when the upper
+	 * bound is passed)
+	 */
+	protected void readLine() {
+		nextLine = null;
+		while (reader != null) {
+			String line;
+			try {
+				line = reader.readLine();
+			} catch (IOException e) {
+				close();
+				throw new UncheckedIOException(e);
+			}
+			if (line == null) {
+				close();
+				return;
+			}
+			file.metrics.addBytesRead(line.length() + 1);
+			String path = file.pathOf(line);
+			if (isPassed(path)) {
+				close();
+				return;
+			} else if (!isBefore(path)) {
+				nextLine = line;
+				nextPath = path;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return the next record of the log inside of the bounds (or null)
+	 */
+	protected Map.Entry<String, String> nextRecord() {
+		while (overlay.hasNext()) {
+			Map.Entry<String, String> record = overlay.next();
+			if (isPassed(record.getKey())) {
+				return null;
+			} else if (!isBefore(record.getKey())) {
+				return record;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param path an encoded path
+	 * @return true if the path is before the lower bound
+	 */
+	protected boolean isBefore(String path) {
+		return (from != null && path.compareTo(from) < 0) || (prefix != null && !path.startsWith(prefix));
+	}
+
+	/**
+	 * @param path an encoded path
+	 * @return true if the path is after the upper bound
+	 */
+	protected boolean isPassed(String path) {
+		return (to != null && path.compareTo(to) >= 0)
+				|| (prefix != null && path.compareTo(prefix) > 0 && !path.startsWith(prefix));
+	}
+
+	/**
+	 * Decodes a line
+	 * 
+	 * @param path the encoded path of the line
+	 * @param line the encoded line
+	 * @return the entry
+	 */
+	protected Entry toEntry(String path, String line) {
+		return new Entry(file.keyOf(path), file.textOf(line), file.typeOf(line));
+	}
+
+}
@@ -0,0 +1,31 @@
+package de.rojer.editablefiles;
+
+/**
+ * Receives the diagnostic messages of the files (e.g. a value, which wasn't
+ * found). Use {@link #CONSOLE} to print them or {@link #NONE} to turn them off.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public interface FileLogger {
+
+	/**
+	 * Prints every message to the console
+	 */
+	public static final FileLogger CONSOLE = message -> System.out.println(message);
+
+	/**
+	 * Ignores every message
+	 */
+	public static final FileLogger NONE = message -> {
+	};
+
+	/**
+	 * Receives a message
+	 * 
+	 * @param message the message
+	 */
+	public void log(String message);
+
+}
@@ -0,0 +1,384 @@
+package de.rojer.editablefiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts the operations of a file: reads, misses, writes, deletes, the bytes
+ * read from and written to the disk and the time spent encoding and decoding
+ * (measured once per bulk operation, not per line), together with a
+ * {@link LatencyHistogram} for every kind of operation. All counters are
+ * striped ({@link LongAdder}), so they are cheap enough to be always on.
+ * <p>
+ * Every file has its own metrics, which also add to the metrics of all files
+ * ({@link #total()}). The metrics can be read with {@link #snapshot()} or
+ * registered as an MXBean with {@link #register(String)}.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class FileMetrics implements FileMetricsMXBean {
+
+	/**
+	 * The kinds of operations, which are timed
+	 */
+	public enum Operation {
+		GET("get"), GET_MANY("getMany"), WRITE("write"), DELETE("delete"), BATCH("batch"), SCAN("scan"),
+		CLEAR("clear");
+
+		/**
+		 * The name in snapshots
+		 */
+		protected final String label;
+
+		/**
+		 * Create an operation
+		 * 
+		 * @param label the name in snapshots
+		 */
+		Operation(String label) {
+			this.label = label;
+		}
+
+		/**
+		 * @return the name in snapshots
+		 */
+		public String getLabel() {
+			return label;
+		}
+
+	}
+
+	/**
+	 * The domain of the registered MXBeans
+	 */
+	public static final String DOMAIN = "de.rojer.editablefiles";
+
+	/**
+	 * The metrics of all files
+	 */
+	protected static final FileMetrics TOTAL = new FileMetrics(null);
+
+	/**
+	 * The metrics, which receive everything these metrics receive (null for the
+	 * metrics of all files)
+	 */
+	protected final FileMetrics parent;
+
+	/**
+	 * The counters
+	 */
+	protected final LongAdder gets = new LongAdder(), misses = new LongAdder(), writes = new LongAdder(),
+			deletes = new LongAdder(), bytesRead = new LongAdder(), bytesWritten = new LongAdder(),
+			encodeTime = new LongAdder(), decodeTime = new LongAdder();
+
+	/**
+	 * The latencies of every operation (indexed by the ordinal)
+	 */
+	protected final LatencyHistogram[] latencies;
+
+	/**
+	 * The name of the registered MXBean (null, if it isn't registered)
+	 */
+	protected ObjectName objectName;
+
+	/**
+	 * Create metrics, which add to the metrics of all files
+	 */
+	public FileMetrics() {
+		this(TOTAL);
+	}
+
+	/**
+	 * Create metrics
+	 * 
+	 * @param parent receives everything these metrics receive (null for none)
+	 */
+	protected FileMetrics(FileMetrics parent) {
+		this.parent = parent;
+		latencies = new LatencyHistogram[Operation.values().length];
+		for (int i = 0; i < latencies.length; i++) {
+			latencies[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * @return the metrics of all files
+	 */
+	public static FileMetrics total() {
+		return TOTAL;
+	}
+
+	// Recording
+
+	/**
+	 * Records a read of a single value
+	 * 
+	 * @param found indicates, whether the value was found
+	 * @param nanos the latency (in nanoseconds)
+	 */
+	public void recordGet(boolean found, long nanos) {
+		recordGets(1, found ? 1 : 0, nanos, Operation.GET);
+	}
+
+	/**
+	 * Records a read of many values
+	 * 
+	 * @param requested the amount of requested values
+	 * @param found     the amount of found values
+	 * @param nanos     the latency (in nanoseconds)
+	 */
+	public void recordGets(int requested, int found, long nanos) {
+		recordGets(requested, found, nanos, Operation.GET_MANY);
+	}
+
+	/**
+	 * Records a change
+	 * 
+	 * @param operation the operation
+	 * @param writes    the amount of written values
+	 * @param deletes   the amount of deleted values
+	 * @param nanos     the latency (in nanoseconds)
+	 */
+	public void recordChange(Operation operation, long writes, long deletes, long nanos) {
+		for (FileMetrics metrics = this; metrics != null; metrics = metrics.parent) {
+			if (writes > 0) {
+				metrics.writes.add(writes);
+			}
+			if (deletes > 0) {
+				metrics.deletes.add(deletes);
+			}
+			metrics.latencies[operation.ordinal()].record(nanos);
+		}
+	}
+
+	/**
+	 * Records an operation, which isn't counted otherwise (e.g. a scan)
+	 * 
+	 * @param operation the operation
+	 * @param nanos     the latency (in nanoseconds)
+	 */
+	public void record(Operation operation, long nanos) {
+		for (FileMetrics metrics = this; metrics != null; metrics = metrics.parent) {
+			metrics.latencies[operation.ordinal()].record(nanos);
+		}
+	}
+
+	/**
+	 * @param bytes the amount of bytes read from the disk
+	 */
+	public void addBytesRead(long bytes) {
+		for (FileMetrics metrics = this; metrics != null; metrics = metrics.parent) {
+			metrics.bytesRead.add(bytes);
+		}
+	}
+
+	/**
+	 * @param bytes the amount of bytes written to the disk
+	 */
+	public void addBytesWritten(long bytes) {
+		for (FileMetrics metrics = this; metrics != null; metrics = metrics.parent) {
+			metrics.bytesWritten.add(bytes);
+		}
+	}
+
+	/**
+	 * @param nanos the time spent encoding (in nanoseconds)
+	 */
+	public void addEncodeTime(long nanos) {
+		for (FileMetrics metrics = this; metrics != null; metrics = metrics.parent) {
+			metrics.encodeTime.add(nanos);
+		}
+	}
+
+	/**
+	 * @param nanos the time spent decoding (in nanoseconds)
+	 */
+	public void addDecodeTime(long nanos) {
+		for (FileMetrics metrics = this; metrics != null; metrics = metrics.parent) {
+			metrics.decodeTime.add(nanos);
+		}
+	}
+
+	/**
+	 * Records a read
+	 * 
+	 * @param requested the amount of requested values
+	 * @param found     the amount of found values
+	 * @param nanos     the latency (in nanoseconds)
+	 * @param operation the operation
+	 */
+	protected void recordGets(int requested, int found, long nanos, Operation operation) {
+		for (FileMetrics metrics = this; metrics != null; metrics = metrics.parent) {
+			metrics.gets.add(requested);
+			if (found < requested) {
+				metrics.misses.add(requested - found);
+			}
+			metrics.latencies[operation.ordinal()].record(nanos);
+		}
+	}
+
+	// Reading
+
+	@Override
+	public long getGets() {
+		return gets.sum();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public long getWrites() {
+		return writes.sum();
+	}
+
+	@Override
+	public long getDeletes() {
+		return deletes.sum();
+	}
+
+	@Override
+	public long getBytesRead() {
+		return bytesRead.sum();
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	@Override
+	public long getEncodeTime() {
+		return encodeTime.sum();
+	}
+
+	@Override
+	public long getDecodeTime() {
+		return decodeTime.sum();
+	}
+
+	/**
+	 * @param operation the operation
+	 * @return the latencies of the operation
+	 */
+	public LatencyHistogram getLatency(Operation operation) {
+		return latencies[operation.ordinal()];
+	}
+
+	@Override
+	public Map<String, Long> getSnapshot() {
+		return snapshot();
+	}
+
+	/**
+	 * Returns all counters and, for every operation, the amount, the average, the
+	 * median, the 99th percentile and the highest latency (e.g. "get.p99", all
+	 * times in nanoseconds). The counters are read one after another, so a
+	 * snapshot taken while other threads record is only nearly consistent.
+	 * 
+	 * @return the metrics (name -> value)
+	 */
+	public Map<String, Long> snapshot() {
+		LinkedHashMap<String, Long> snapshot = new LinkedHashMap<String, Long>();
+		snapshot.put("gets", gets.sum());
+		snapshot.put("misses", misses.sum());
+		snapshot.put("writes", writes.sum());
+		snapshot.put("deletes", deletes.sum());
+		snapshot.put("bytesRead", bytesRead.sum());
+		snapshot.put("bytesWritten", bytesWritten.sum());
+		snapshot.put("encodeTime", encodeTime.sum());
+		snapshot.put("decodeTime", decodeTime.sum());
+		for (Operation operation : Operation.values()) {
+			LatencyHistogram latency = latencies[operation.ordinal()];
+			snapshot.put(operation.label + ".count", latency.getCount());
+			snapshot.put(operation.label + ".mean", latency.getMean());
+			snapshot.put(operation.label + ".p50", latency.getPercentile(50));
+			snapshot.put(operation.label + ".p99", latency.getPercentile(99));
+			snapshot.put(operation.label + ".max", latency.getMax());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Sets all counters and latencies back to zero (the metrics of all files keep
+	 * what they received)
+	 */
+	@Override
+	public void reset() {
+		for (LongAdder counter : new LongAdder[] { gets, misses, writes, deletes, bytesRead, bytesWritten,
+				encodeTime, decodeTime }) {
+			counter.reset();
+		}
+		for (LatencyHistogram latency : latencies) {
+			latency.reset();
+		}
+	}
+
+	// JMX
+
+	/**
+	 * Registers the metrics as an MXBean named
+	 * "de.rojer.editablefiles:type=FileMetrics,name=&lt;name&gt;" (replaces an
+	 * earlier registration). The metrics of all files are registered with them
+	 * as "de.rojer.editablefiles:type=FileMetrics,name=total".
+	 * 
+	 * @param name the name (e.g. the path of the file)
+	 */
+	public synchronized void register(String name) {
+		unregister();
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName totalName = new ObjectName(DOMAIN + ":type=FileMetrics,name=total");
+			synchronized (TOTAL) {
+				if (!server.isRegistered(totalName)) {
+					server.registerMBean(TOTAL, totalName);
+					TOTAL.objectName = totalName;
+				}
+			}
+			if (this == TOTAL) {
+				return;
+			}
+			ObjectName newName = new ObjectName(DOMAIN + ":type=FileMetrics,name=" + ObjectName.quote(name));
+			if (server.isRegistered(newName)) {
+				server.unregisterMBean(newName);
+			}
+			server.registerMBean(this, newName);
+			objectName = newName;
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Removes the MXBean of the metrics (if they are registered)
+	 */
+	public synchronized void unregister() {
+		if (objectName == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			// already removed
+		}
+		objectName = null;
+	}
+
+	/**
+	 * @return true if the metrics are registered as an MXBean
+	 */
+	public synchronized boolean isRegistered() {
+		return objectName != null;
+	}
+
+}
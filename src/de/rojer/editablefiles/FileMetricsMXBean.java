@@ -0,0 +1,65 @@
+package de.rojer.editablefiles;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link FileMetrics} (shown by JMX clients like
+ * JConsole or VisualVM)
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public interface FileMetricsMXBean {
+
+	/**
+	 * @return the amount of read values
+	 */
+	public long getGets();
+
+	/**
+	 * @return the amount of reads, which didn't find a value
+	 */
+	public long getMisses();
+
+	/**
+	 * @return the amount of written values
+	 */
+	public long getWrites();
+
+	/**
+	 * @return the amount of deleted values
+	 */
+	public long getDeletes();
+
+	/**
+	 * @return the amount of bytes read from the disk
+	 */
+	public long getBytesRead();
+
+	/**
+	 * @return the amount of bytes written to the disk
+	 */
+	public long getBytesWritten();
+
+	/**
+	 * @return the time spent encoding (in nanoseconds)
+	 */
+	public long getEncodeTime();
+
+	/**
+	 * @return the time spent decoding (in nanoseconds)
+	 */
+	public long getDecodeTime();
+
+	/**
+	 * @return all counters and latencies (name -> value)
+	 */
+	public Map<String, Long> getSnapshot();
+
+	/**
+	 * Sets all counters and latencies back to zero
+	 */
+	public void reset();
+
+}
@@ -0,0 +1,389 @@
+package de.rojer.editablefiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Shares the objects of files within a process. Asking twice for the same file
+ * (the same canonical path, class and encoding) returns the same object, so the
+ * file is only loaded and parsed once: {@link EditableFile}s are kept in cached
+ * mode, {@link StringFile}s keep their text anyway.
+ * <p>
+ * Every {@link #acquire(String)} must be followed by a {@link #release}. Files,
+ * which are not used by anyone, stay in the registry until the estimated memory
+ * of all files exceeds the budget, then the least recently used ones are
+ * evicted (closed and forgotten). Files in use are never evicted. If threads
+ * share a file, which they write to, turn on its concurrent mode.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class FileRegistry {
+
+	/**
+	 * A file in the registry
+	 */
+	protected static class Handle {
+
+		/**
+		 * The key of the file
+		 */
+		protected final Key key;
+
+		/**
+		 * The file
+		 */
+		protected final EditableFile file;
+
+		/**
+		 * The amount of users, which didn't release the file yet
+		 */
+		protected int references;
+
+		/**
+		 * The estimated memory of the file (in bytes)
+		 */
+		protected long weight;
+
+		/**
+		 * Create a handle
+		 * 
+		 * @param key  the key of the file
+		 * @param file the file
+		 */
+		protected Handle(Key key, EditableFile file) {
+			this.key = key;
+			this.file = file;
+		}
+
+	}
+
+	/**
+	 * Identifies a file (class, canonical path and encoding)
+	 */
+	protected static class Key {
+
+		/**
+		 * The class of the file
+		 */
+		protected final Class<?> type;
+
+		/**
+		 * The canonical path of the file
+		 */
+		protected final String path;
+
+		/**
+		 * The encoding of the file (an Integer offset or a Codec)
+		 */
+		protected final Object encoding;
+
+		/**
+		 * Create a key
+		 * 
+		 * @param type     the class of the file
+		 * @param path     the canonical path of the file
+		 * @param encoding the encoding of the file (an Integer offset or a Codec)
+		 */
+		protected Key(Class<?> type, String path, Object encoding) {
+			this.type = type;
+			this.path = path;
+			this.encoding = encoding;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) other;
+			return type == key.type && path.equals(key.path) && encoding.equals(key.encoding);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, path, encoding);
+		}
+
+	}
+
+	/**
+	 * The default memory budget (64 MiB)
+	 */
+	public static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+
+	/**
+	 * The estimated memory of a file without any contents (in bytes)
+	 */
+	protected static final long BASE_WEIGHT = 512;
+
+	/**
+	 * The registry of this process
+	 */
+	protected static final FileRegistry SHARED = new FileRegistry(DEFAULT_BUDGET);
+
+	/**
+	 * The files (in the order of their last use)
+	 */
+	protected final LinkedHashMap<Key, Handle> handles = new LinkedHashMap<Key, Handle>(16, 0.75F, true);
+
+	/**
+	 * The handles of the files, which were handed out
+	 */
+	protected final IdentityHashMap<EditableFile, Handle> files = new IdentityHashMap<EditableFile, Handle>();
+
+	/**
+	 * The memory budget and the estimated memory of all files (in bytes)
+	 */
+	protected long budget, weight;
+
+	/**
+	 * Statistics
+	 */
+	protected long hits, misses, evictions;
+
+	/**
+	 * Create a registry (use {@link #shared()} for the registry of the process)
+	 * 
+	 * @param budget the memory budget (in bytes)
+	 */
+	public FileRegistry(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * @return the registry of this process
+	 */
+	public static FileRegistry shared() {
+		return SHARED;
+	}
+
+	// Acquiring and releasing
+
+	/**
+	 * Returns the shared object of a file (creates it, if it isn't in the
+	 * registry yet)
+	 * 
+	 * @param completePath the complete path to the file (with extension)
+	 * @return the file (release it after use)
+	 */
+	public EditableFile acquire(String completePath) {
+		return acquire(EditableFile.class, completePath, 0, () -> new EditableFile(completePath));
+	}
+
+	/**
+	 * Returns the shared object of a file with an offset encoding
+	 * 
+	 * @param completePath   the complete path to the file (with extension)
+	 * @param offsetEncoding the amount of characters to move (positive: to the
+	 *                       right, negative: to the left)
+	 * @return the file (release it after use)
+	 */
+	public EditableFile acquire(String completePath, int offsetEncoding) {
+		return acquire(EditableFile.class, completePath, offsetEncoding,
+				() -> new EditableFile(completePath, offsetEncoding));
+	}
+
+	/**
+	 * Returns the shared object of a file with a custom codec (codecs are
+	 * compared with equals)
+	 * 
+	 * @param completePath the complete path to the file (with extension)
+	 * @param codec        the codec used to encode and decode the file
+	 * @return the file (release it after use)
+	 */
+	public EditableFile acquire(String completePath, Codec codec) {
+		return acquire(EditableFile.class, completePath, codec, () -> new EditableFile(completePath, codec));
+	}
+
+	/**
+	 * Returns the shared object of a string file
+	 * 
+	 * @param completePath the complete path to the file (with extension)
+	 * @return the file (release it after use)
+	 */
+	public StringFile acquireStringFile(String completePath) {
+		return (StringFile) acquire(StringFile.class, completePath, 0, () -> new StringFile(completePath));
+	}
+
+	/**
+	 * Gives back a file. It stays in the registry until it is evicted.
+	 * 
+	 * @param file the file (from this registry)
+	 */
+	public synchronized void release(EditableFile file) {
+		Handle handle = files.get(file);
+		if (handle == null || handle.references == 0) {
+			return;
+		}
+		handle.references--;
+		weight -= handle.weight;
+		handle.weight = weigh(handle.file);
+		weight += handle.weight;
+		evict();
+	}
+
+	/**
+	 * Evicts all files, which are not in use
+	 */
+	public synchronized void evictUnused() {
+		long oldBudget = budget;
+		budget = 0;
+		evict();
+		budget = oldBudget;
+	}
+
+	/**
+	 * Returns the shared object of a file
+	 * 
+	 * @param type     the class of the file
+	 * @param path     the complete path to the file (with extension)
+	 * @param encoding the encoding of the file (an Integer offset or a Codec)
+	 * @param creator  creates the file, if it isn't in the registry
+	 * @return the file
+	 */
+	protected synchronized EditableFile acquire(Class<?> type, String path, Object encoding,
+			Supplier<EditableFile> creator) {
+		Key key = new Key(type, canonicalPath(path), encoding);
+		Handle handle = handles.get(key);
+		if (handle != null) {
+			hits++;
+		} else {
+			misses++;
+			EditableFile file = creator.get();
+			if (!(file instanceof StringFile)) {
+				file.setCached(true);
+			}
+			handle = new Handle(key, file);
+			handle.weight = weigh(file);
+			weight += handle.weight;
+			handles.put(key, handle);
+			files.put(file, handle);
+		}
+		handle.references++;
+		evict();
+		return handle.file;
+	}
+
+	/**
+	 * Evicts the least recently used files, which are not in use, until the
+	 * estimated memory fits into the budget
+	 */
+	protected void evict() {
+		Iterator<Handle> it = handles.values().iterator();
+		while (weight > budget && it.hasNext()) {
+			Handle handle = it.next();
+			if (handle.references > 0) {
+				continue;
+			}
+			it.remove();
+			files.remove(handle.file);
+			weight -= handle.weight;
+			evictions++;
+			handle.file.close();
+			handle.file.setCached(false);
+		}
+	}
+
+	/**
+	 * Estimates the memory of a file
+	 * 
+	 * @param file the file
+	 * @return the estimated memory (in bytes)
+	 */
+	protected long weigh(EditableFile file) {
+		if (file instanceof StringFile) {
+			String source = ((StringFile) file).getSource();
+			return BASE_WEIGHT + (source == null ? 0 : 2L * source.length());
+		}
+		return BASE_WEIGHT + (file.isCached() ? 3L * file.file.length() : 0);
+	}
+
+	/**
+	 * @param path a path
+	 * @return the canonical form of the path
+	 */
+	protected static String canonicalPath(String path) {
+		try {
+			return new File(path).getCanonicalPath();
+		} catch (IOException e) {
+			return new File(path).getAbsolutePath();
+		}
+	}
+
+	// Getters and setters
+
+	/**
+	 * Sets the memory budget (evicts files, which don't fit anymore)
+	 * 
+	 * @param budget the budget (in bytes)
+	 */
+	public synchronized void setBudget(long budget) {
+		this.budget = budget;
+		evict();
+	}
+
+	/**
+	 * @return the memory budget (in bytes)
+	 */
+	public synchronized long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * @return the estimated memory of all files in the registry (in bytes)
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * @return the amount of files in the registry
+	 */
+	public synchronized int size() {
+		return handles.size();
+	}
+
+	/**
+	 * @return the amount of requests, which got a file from the registry
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the amount of requests, which had to create a file
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the amount of evicted files
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return the statistics of the registry as a map (name -> value)
+	 */
+	public synchronized Map<String, Long> getStatistics() {
+		LinkedHashMap<String, Long> statistics = new LinkedHashMap<String, Long>();
+		statistics.put("hits", hits);
+		statistics.put("misses", misses);
+		statistics.put("evictions", evictions);
+		statistics.put("files", (long) handles.size());
+		statistics.put("weight", weight);
+		statistics.put("budget", budget);
+		return statistics;
+	}
+
+}
@@ -0,0 +1,497 @@
+package de.rojer.editablefiles;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import de.rojer.editablefiles.exceptions.WrongTypeException;
+
+/**
+ * An immutable view of an {@link EditableFile} at a certain point in time (see
+ * {@link EditableFile#snapshot()}). The text file is never changed in place,
+ * every write replaces it with a new file, so a snapshot only keeps a hard
+ * link to the file it has seen (a generation) and a copy of the records of the
+ * write-ahead log. Getters and scans of a snapshot don't take any lock of the
+ * file, writers can go on at the same time. Snapshots of an unchanged file
+ * share their generation, the link is deleted when the last of them is closed.
+ * <p>
+ * Files with an engine other than the text engine are copied into memory.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class FileSnapshot implements Closeable {
+
+	/**
+	 * A version of the text file, which is kept alive by a hard link (or a copy,
+	 * if the file system has no hard links) as long as a snapshot uses it
+	 */
+	protected static class Generation {
+
+		/**
+		 * The link to the version of the file
+		 */
+		protected final File link;
+
+		/**
+		 * The identity of the version (null, if unknown)
+		 */
+		protected final Object fileKey;
+
+		/**
+		 * The amount of open snapshots of this version (0, when the link is deleted)
+		 */
+		protected int references = 1;
+
+		/**
+		 * The index of the mapped link (null, until the first lookup)
+		 */
+		protected volatile MappedIndex index;
+
+		/**
+		 * Create a generation, which is used by one snapshot
+		 * 
+		 * @param link    the link to the version of the file
+		 * @param fileKey the identity of the version (null, if unknown)
+		 */
+		protected Generation(File link, Object fileKey) {
+			this.link = link;
+			this.fileKey = fileKey;
+		}
+
+		/**
+		 * Keeps this version alive for another snapshot
+		 * 
+		 * @return false if the link was already deleted
+		 */
+		protected synchronized boolean acquire() {
+			if (references == 0) {
+				return false;
+			}
+			references++;
+			return true;
+		}
+
+		/**
+		 * Releases this version for a snapshot (the link is deleted, if no snapshot
+		 * uses it anymore)
+		 */
+		protected synchronized void release() {
+			if (references > 0 && --references == 0) {
+				index = null;
+				if (!link.delete()) {
+					link.deleteOnExit();
+				}
+			}
+		}
+
+		/**
+		 * @param fileKey the identity of the current file
+		 * @return true if this version is still the current file
+		 */
+		protected boolean isCurrent(Object fileKey) {
+			return this.fileKey != null && this.fileKey.equals(fileKey);
+		}
+
+	}
+
+	/**
+	 * The file the snapshot was taken of
+	 */
+	protected EditableFile file;
+
+	/**
+	 * The version of the text file (null, if there was no file or the engine has
+	 * no text file)
+	 */
+	protected Generation generation;
+
+	/**
+	 * The lines, which overlay the lines of the text file: the records of the
+	 * write-ahead log or all lines of an engine without a text file (encoded path
+	 * -> encoded line or null, if deleted)
+	 */
+	protected TreeMap<String, String> overlay;
+
+	/**
+	 * Indicates, whether the snapshot is closed
+	 */
+	protected volatile boolean closed;
+
+	/**
+	 * Create a snapshot (use {@link EditableFile#snapshot()})
+	 * 
+	 * @param file       the file the snapshot was taken of
+	 * @param generation the version of the text file (null for none)
+	 * @param overlay    the lines, which overlay the text file (encoded path ->
+	 *                   encoded line or null)
+	 */
+	protected FileSnapshot(EditableFile file, Generation generation, TreeMap<String, String> overlay) {
+		this.file = file;
+		this.generation = generation;
+		this.overlay = overlay;
+	}
+
+	/**
+	 * Keeps the current version of a text file alive with a hard link next to the
+	 * file (.<i>fileName</i>.<i>random</i>.snap). Has to be called while the file
+	 * can't be replaced.
+	 * 
+	 * @param file    the file
+	 * @param current the generation of the last snapshot (null for none)
+	 * @return the generation of the current version (null, if there is no file)
+	 * @throws IOException when the file couldn't be linked or copied
+	 */
+	protected static Generation link(EditableFile file, Generation current) throws IOException {
+		if (!file.file.exists()) {
+			return null;
+		}
+		Object fileKey = Files.readAttributes(file.file.toPath(), BasicFileAttributes.class).fileKey();
+		if (current != null && current.isCurrent(fileKey) && current.acquire()) {
+			return current;
+		}
+		File folder = file.file.getAbsoluteFile().getParentFile();
+		while (true) {
+			File link = new File(folder, EditableFile.tempPrefix(file.fileName)
+					+ Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".snap");
+			try {
+				try {
+					Files.createLink(link.toPath(), file.file.toPath());
+					return new Generation(link, fileKey);
+				} catch (FileAlreadyExistsException e) {
+					throw e;
+				} catch (UnsupportedOperationException | IOException e) {
+					Files.copy(file.file.toPath(), link.toPath());
+					return new Generation(link, null);
+				}
+			} catch (FileAlreadyExistsException e) {
+				// the name is taken, try another one
+			}
+		}
+	}
+
+	// Getters
+
+	/**
+	 * Checks, whether there was a value at a certain path
+	 * 
+	 * @param path the path to the value
+	 * @return true if there was a value at that path
+	 */
+	public boolean contains(String path) {
+		return get(path) != null;
+	}
+
+	/**
+	 * Gets the value at a certain path with its type
+	 * 
+	 * @param path the path to the value
+	 * @return the value (an Integer, Float, Double, Boolean, Character or String)
+	 *         or null, if there was no value at that path
+	 */
+	public Object get(String path) {
+		long start = System.nanoTime();
+		String line = findLine(path);
+		Object value = line == null ? null : file.valueOf(line);
+		file.metrics.recordGet(value != null, System.nanoTime() - start);
+		return value;
+	}
+
+	/**
+	 * Gets an integer with a certain path
+	 * 
+	 * @param path the path to the integer value
+	 * @return the integer value (only integer values!)
+	 * @throws WrongTypeException when the value at that path is not an integer
+	 */
+	public int getTrueInt(String path) throws WrongTypeException {
+		Object number = get(path);
+		if (number == null) {
+			file.logger.log("Couldn't find that integer!");
+			return 0;
+		}
+		return file.toTrueInt(number);
+	}
+
+	/**
+	 * Gets an integer with a certain path
+	 * 
+	 * @param path the path to the integer value
+	 * @return the integer value
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            float or double
+	 */
+	public int getInt(String path) throws WrongTypeException {
+		Object number = get(path);
+		if (number == null) {
+			file.logger.log("Couldn't find that integer!");
+			return 0;
+		}
+		return file.toInt(number);
+	}
+
+	/**
+	 * Gets a character with a certain path
+	 * 
+	 * @param path the path to the character
+	 * @return the character value
+	 * @throws WrongTypeException when the value at that path is not a character
+	 */
+	public char getChar(String path) throws WrongTypeException {
+		Object value = get(path);
+		if (value == null) {
+			file.logger.log("Couldn't find that char!");
+			return '\0';
+		}
+		return file.toChar(value);
+	}
+
+	/**
+	 * Gets a boolean with a certain path
+	 * 
+	 * @param path the path to the boolean value
+	 * @return the boolean value
+	 * @throws WrongTypeException when the value at that path is not a boolean
+	 */
+	public boolean getBoolean(String path) throws WrongTypeException {
+		Object value = get(path);
+		if (value == null) {
+			file.logger.log("Couldn't find that boolean!");
+			return false;
+		}
+		return file.toBoolean(value);
+	}
+
+	/**
+	 * Gets a float with a certain path
+	 * 
+	 * @param path the path to the float value
+	 * @return the float value
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            double or float
+	 */
+	public float getFloat(String path) throws WrongTypeException {
+		Object number = get(path);
+		if (number == null) {
+			file.logger.log("Couldn't find that float!");
+			return 0.0F;
+		}
+		return file.toFloat(number);
+	}
+
+	/**
+	 * Gets a double with a certain path
+	 * 
+	 * @param path the path to the double value
+	 * @return the double value
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            double or float
+	 */
+	public double getDouble(String path) throws WrongTypeException {
+		Object number = get(path);
+		if (number == null) {
+			file.logger.log("Couldn't find that double!");
+			return 0.0;
+		}
+		return file.toDouble(number);
+	}
+
+	/**
+	 * Gets a string with a certain path
+	 * 
+	 * @param path the path to the string
+	 * @return the string
+	 */
+	public String getString(String path) {
+		Object value = get(path);
+		if (value == null) {
+			file.logger.log("Couldnt find that string!");
+			return "";
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Gets all values of the snapshot with their type (see
+	 * {@link EditableFile#getAll()})
+	 * 
+	 * @return all values (path -> Integer, Float, Double, Boolean, Character or
+	 *         String), sorted by path
+	 */
+	public TreeMap<String, Object> getAll() {
+		TreeMap<String, Object> values = new TreeMap<String, Object>();
+		EntryIterator entries = scan();
+		try {
+			while (entries.hasNext()) {
+				Entry entry = entries.next();
+				values.put(entry.getKey(), entry.getTypedValue());
+			}
+		} finally {
+			entries.close();
+		}
+		return values;
+	}
+
+	// Scans
+
+	/**
+	 * Reads all entries of the snapshot lazily
+	 * 
+	 * @return the entries
+	 */
+	public EntryIterator scan() {
+		return scan(null, null);
+	}
+
+	/**
+	 * Reads the entries of a range lazily (see
+	 * {@link EditableFile#scan(String, String)})
+	 * 
+	 * @param fromKey the first path (inclusive, null for the start of the file)
+	 * @param toKey   the last path (exclusive, null for the end of the file)
+	 * @return the entries (close the iterator, if it isn't read to the end)
+	 */
+	public EntryIterator scan(String fromKey, String toKey) {
+		return openScan(fromKey == null ? null : file.encode(fromKey + ": "),
+				toKey == null ? null : file.encode(toKey + ": "), null);
+	}
+
+	/**
+	 * Reads all entries, whose path starts with a prefix, lazily (see
+	 * {@link EditableFile#scanPrefix(String)})
+	 * 
+	 * @param prefix the prefix of the paths
+	 * @return the entries (close the iterator, if it isn't read to the end)
+	 */
+	public EntryIterator scanPrefix(String prefix) {
+		return openScan(null, null, file.encode(prefix));
+	}
+
+	/**
+	 * Opens the version of the text file for a scan
+	 * 
+	 * @param from   the first encoded path (inclusive, null if unbounded)
+	 * @param to     the last encoded path (exclusive, null if unbounded)
+	 * @param prefix the encoded prefix of all paths (null if unbounded)
+	 * @return the entries
+	 * @throws UncheckedIOException when the version of the file couldn't be opened
+	 *                              (the scan would miss its values)
+	 */
+	protected EntryIterator openScan(String from, String to, String prefix) {
+		long start = System.nanoTime();
+		checkOpen();
+		BufferedReader reader = null;
+		if (generation != null) {
+			try {
+				reader = new BufferedReader(new FileReader(generation.link));
+			} catch (FileNotFoundException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		String lower = from != null ? from : prefix;
+		TreeMap<String, String> records = new TreeMap<String, String>(
+				lower == null ? overlay : overlay.tailMap(lower));
+		EntryIterator entries = new EntryIterator(file, reader, records, from, to, prefix);
+		file.metrics.record(FileMetrics.Operation.SCAN, System.nanoTime() - start);
+		return entries;
+	}
+
+	/**
+	 * Searches the line of a path: in the overlay first, then with a binary search
+	 * over the mapped version of the file
+	 * 
+	 * @param path the path
+	 * @return the encoded line or null, if there was no value at that path
+	 */
+	protected String findLine(String path) {
+		checkOpen();
+		String encodedPath = file.encode(path + ": ");
+		if (overlay.containsKey(encodedPath)) {
+			return overlay.get(encodedPath);
+		}
+		Generation current = generation;
+		if (current == null) {
+			return null;
+		}
+		MappedIndex index = current.index;
+		if (index == null) {
+			synchronized (current) {
+				index = current.index;
+				if (index == null) {
+					try {
+						index = new MappedIndex(current.link, file.codec);
+						current.index = index;
+					} catch (IOException e) {
+						return scanLine(encodedPath);
+					}
+				}
+			}
+		}
+		return index.find(encodedPath.getBytes(Charset.defaultCharset()), Charset.defaultCharset());
+	}
+
+	/**
+	 * Searches the line of a path by reading the version of the file from the top
+	 * (for files, which are too large to be mapped)
+	 * 
+	 * @param encodedPath the encoded path
+	 * @return the encoded line or null, if there was no value at that path
+	 */
+	protected String scanLine(String encodedPath) {
+		EntryIterator lines = openScan(encodedPath, null, null);
+		try {
+			if (lines.nextLine != null && lines.nextPath.equals(encodedPath)) {
+				return lines.nextLine;
+			}
+			return null;
+		} finally {
+			lines.close();
+		}
+	}
+
+	/**
+	 * @throws IllegalStateException when the snapshot is closed
+	 */
+	protected void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Snapshot is closed!");
+		}
+	}
+
+	// "Destructors"
+
+	/**
+	 * Releases the version of the file (scans, which are still open, can be read
+	 * to the end)
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		overlay = new TreeMap<String, String>();
+		if (generation != null) {
+			generation.release();
+		}
+	}
+
+	/**
+	 * @return true if the snapshot is closed
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+}
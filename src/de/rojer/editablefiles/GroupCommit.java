@@ -0,0 +1,163 @@
+package de.rojer.editablefiles;
+
+import java.util.TreeMap;
+
+/**
+ * Collects the changes of concurrent writers for a short time window and
+ * applies all of them with a single write (and a single force to the disk).
+ * The first writer of a group waits for the window to pass (unless there are
+ * no other writers) and then writes for everybody, all other writers of the
+ * group only wait for that write. A failed write is thrown to all writers of
+ * the group.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class GroupCommit {
+
+	/**
+	 * The file, which the changes are written to
+	 */
+	protected EditableFile file;
+
+	/**
+	 * The time window, in which changes are collected (in milliseconds)
+	 */
+	protected long window;
+
+	/**
+	 * The changes of a group and the result of their write
+	 */
+	protected static class Group {
+
+		/**
+		 * The changes (encoded path -> encoded line or null)
+		 */
+		protected TreeMap<String, String> changes = new TreeMap<String, String>();
+
+		/**
+		 * Indicates, whether the group was written (or the write failed)
+		 */
+		protected boolean done;
+
+		/**
+		 * The failure of the write (rethrown to all writers of the group) or null
+		 */
+		protected Throwable failure;
+
+	}
+
+	/**
+	 * The current group, which collects the changes
+	 */
+	protected Group pending = new Group();
+
+	/**
+	 * The amount of writers, which are waiting for their changes to be written
+	 */
+	protected int writers;
+
+	/**
+	 * Indicates, whether a writer is currently writing a group
+	 */
+	protected boolean leading;
+
+	/**
+	 * Create a group commit
+	 * 
+	 * @param file   the file, which the changes are written to
+	 * @param window the time window, in which changes are collected (in
+	 *               milliseconds)
+	 */
+	public GroupCommit(EditableFile file, long window) {
+		this.file = file;
+		this.window = window;
+	}
+
+	/**
+	 * Adds changes to the current group and waits until they are written. A
+	 * writer without other waiting writers writes at once.
+	 * 
+	 * @param changes the changes (encoded path -> encoded line or null)
+	 * @throws RuntimeException when the group couldn't be written (thrown to all
+	 *                          writers of the group)
+	 */
+	public void commit(TreeMap<String, String> changes) {
+		Group group;
+		boolean interrupted = false;
+		synchronized (this) {
+			group = pending;
+			group.changes.putAll(changes);
+			writers++;
+		}
+		try {
+			while (true) {
+				boolean alone;
+				synchronized (this) {
+					while (!group.done && leading) {
+						try {
+							wait();
+						} catch (InterruptedException e) {
+							interrupted = true;
+						}
+					}
+					if (group.done) {
+						break;
+					}
+					leading = true;
+					alone = writers == 1;
+				}
+				if (!alone) {
+					try {
+						Thread.sleep(window);
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				synchronized (this) {
+					pending = new Group();
+				}
+				try {
+					file.applyChangesNow(group.changes);
+				} catch (RuntimeException | Error e) {
+					group.failure = e;
+				} finally {
+					synchronized (this) {
+						group.done = true;
+						leading = false;
+						notifyAll();
+					}
+				}
+			}
+		} finally {
+			synchronized (this) {
+				writers--;
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (group.failure instanceof RuntimeException) {
+			throw (RuntimeException) group.failure;
+		} else if (group.failure instanceof Error) {
+			throw (Error) group.failure;
+		}
+	}
+
+	/**
+	 * @return the time window, in which changes are collected (in milliseconds)
+	 */
+	public long getWindow() {
+		return window;
+	}
+
+	/**
+	 * @param window the time window, in which changes are collected (in
+	 *               milliseconds)
+	 */
+	public void setWindow(long window) {
+		this.window = window;
+	}
+
+}
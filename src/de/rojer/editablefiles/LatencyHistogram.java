@@ -0,0 +1,127 @@
+package de.rojer.editablefiles;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in buckets, whose bounds are powers of two (bucket i holds
+ * the latencies below 2^i nanoseconds). Recording costs two striped additions,
+ * so many threads can record at the same time without waiting for each other.
+ * Percentiles are only as exact as the buckets (at most a factor of two).
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class LatencyHistogram {
+
+	/**
+	 * The amount of buckets (the last bucket holds everything above 2^38
+	 * nanoseconds, about 4.5 minutes)
+	 */
+	protected static final int BUCKETS = 40;
+
+	/**
+	 * The counts of the buckets
+	 */
+	protected final LongAdder[] buckets;
+
+	/**
+	 * The sum of all latencies (in nanoseconds)
+	 */
+	protected final LongAdder total = new LongAdder();
+
+	/**
+	 * The highest latency (in nanoseconds)
+	 */
+	protected final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Create an empty histogram
+	 */
+	public LatencyHistogram() {
+		buckets = new LongAdder[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a latency
+	 * 
+	 * @param nanos the latency (in nanoseconds)
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))].increment();
+		total.add(nanos);
+		max.accumulate(nanos);
+	}
+
+	/**
+	 * @return the amount of recorded latencies
+	 */
+	public long getCount() {
+		long count = 0;
+		for (LongAdder bucket : buckets) {
+			count += bucket.sum();
+		}
+		return count;
+	}
+
+	/**
+	 * @return the average latency (in nanoseconds, 0 if nothing was recorded)
+	 */
+	public long getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : total.sum() / count;
+	}
+
+	/**
+	 * @return the highest latency (in nanoseconds)
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the upper bound of the bucket, which holds a percentile
+	 * 
+	 * @param percentile the percentile (between 0 and 100)
+	 * @return the latency (in nanoseconds, 0 if nothing was recorded)
+	 */
+	public long getPercentile(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			count += counts[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && counts[i] > 0) {
+				return Math.min(1L << i, getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Forgets all recorded latencies
+	 */
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		total.reset();
+		max.reset();
+	}
+
+}
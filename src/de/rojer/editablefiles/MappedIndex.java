@@ -0,0 +1,230 @@
+package de.rojer.editablefiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A read-only view of a sorted file, which is mapped into memory. The start of
+ * every line is kept in a compact index, so a line can be found with a binary
+ * search directly over the mapped bytes (about 20 comparisons for a million
+ * lines) without reading or allocating any other lines. Only files up to 2 GB
+ * can be mapped.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class MappedIndex {
+
+	/**
+	 * The mapped file
+	 */
+	protected MappedByteBuffer buffer;
+
+	/**
+	 * The start of every line (the last entry marks the end of the file)
+	 */
+	protected int[] starts;
+
+	/**
+	 * The amount of lines
+	 */
+	protected int lines;
+
+	/**
+	 * The encoded ':' and ' ' characters, which separate the path and the value
+	 */
+	protected int separator, space;
+
+	/**
+	 * The identity of the file, when it was mapped
+	 */
+	protected Object fileKey;
+
+	/**
+	 * The modification time (in nanoseconds) and the length of the file, when it
+	 * was mapped
+	 */
+	protected long lastModified, length;
+
+	/**
+	 * Maps a file and builds the index of its lines
+	 * 
+	 * @param file  the sorted file
+	 * @param codec the codec of the file
+	 * @throws IOException when the file couldn't be mapped
+	 */
+	public MappedIndex(File file, Codec codec) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+		if (attributes.size() > Integer.MAX_VALUE) {
+			throw new IOException("File is too large to be mapped!");
+		}
+		fileKey = attributes.fileKey();
+		lastModified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+		length = attributes.size();
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		} finally {
+			channel.close();
+		}
+		separator = codec.encode(':');
+		space = codec.encode(' ');
+		buildIndex();
+	}
+
+	/**
+	 * Finds the start of every line
+	 */
+	protected void buildIndex() {
+		int limit = buffer.limit();
+		starts = new int[1024];
+		lines = 0;
+		int start = 0;
+		for (int i = 0; i < limit; i++) {
+			if (buffer.get(i) == '\n') {
+				addStart(start);
+				start = i + 1;
+			}
+		}
+		if (start < limit) {
+			addStart(start);
+			start = limit + 1;
+		}
+		addStart(start);
+		lines--;
+	}
+
+	/**
+	 * Adds the start of a line to the index
+	 * 
+	 * @param start the start of the line
+	 */
+	private void addStart(int start) {
+		if (lines == starts.length) {
+			int[] newStarts = new int[starts.length * 2];
+			System.arraycopy(starts, 0, newStarts, 0, lines);
+			starts = newStarts;
+		}
+		starts[lines++] = start;
+	}
+
+	/**
+	 * Checks if the mapped bytes still represent the file
+	 * 
+	 * @param file the file
+	 * @return true if the file wasn't changed or replaced since it was mapped
+	 */
+	public boolean isValid(File file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			return attributes.size() == length
+					&& attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS) == lastModified
+					&& (fileKey == null || fileKey.equals(attributes.fileKey()));
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Searches the line of a certain path
+	 * 
+	 * @param encodedPath the encoded path (with ": ") as bytes
+	 * @param charset     the charset of the file
+	 * @return the encoded line or null, if there is no line with that path
+	 */
+	public String find(byte[] encodedPath, Charset charset) {
+		int low = 0, high = lines - 1, found = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compare(encodedPath, middle);
+			if (comparison < 0) {
+				high = middle - 1;
+			} else {
+				if (comparison == 0) {
+					found = middle;
+				}
+				low = middle + 1;
+			}
+		}
+		if (found == -1) {
+			return null;
+		}
+		int start = starts[found];
+		int end = lineEnd(found);
+		if (start >= end) {
+			return "";
+		}
+		byte[] value = new byte[end - start];
+		for (int i = 0; i < value.length; i++) {
+			value[i] = buffer.get(start + i);
+		}
+		return new String(value, charset);
+	}
+
+	/**
+	 * Compares a path with the path of a line (like {@link String#compareTo})
+	 * without copying the line
+	 * 
+	 * @param encodedPath the encoded path (with ": ") as bytes
+	 * @param line        the index of the line
+	 * @return a negative number, zero or a positive number if the path is less
+	 *         than, equal to or greater than the path of the line
+	 */
+	protected int compare(byte[] encodedPath, int line) {
+		int position = starts[line], end = lineEnd(line), k = 0;
+		boolean separatorPassed = false, spacePassed = false;
+		while (true) {
+			int lineChar;
+			if (!separatorPassed) {
+				lineChar = position < end ? buffer.get(position++) & 0xFF : separator;
+				separatorPassed = lineChar == separator;
+			} else if (!spacePassed) {
+				lineChar = space;
+				spacePassed = true;
+			} else {
+				lineChar = -1;
+			}
+			int pathChar = k < encodedPath.length ? encodedPath[k++] & 0xFF : -1;
+			if (pathChar != lineChar) {
+				if (pathChar == -1) {
+					return -1;
+				} else if (lineChar == -1) {
+					return 1;
+				}
+				return pathChar - lineChar;
+			} else if (pathChar == -1) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * Returns the end of a line (without the line separator)
+	 * 
+	 * @param line the index of the line
+	 * @return the index after the last character of the line
+	 */
+	protected int lineEnd(int line) {
+		int end = Math.min(starts[line + 1] - 1, buffer.limit());
+		if (end > starts[line] && buffer.get(end - 1) == '\r') {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * @return the amount of lines
+	 */
+	public int size() {
+		return lines;
+	}
+
+}
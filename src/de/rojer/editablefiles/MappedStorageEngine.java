@@ -0,0 +1,25 @@
+package de.rojer.editablefiles;
+
+/**
+ * A read-mostly variant of the {@link TextStorageEngine}: the file is mapped
+ * into memory and lookups do a binary search over the sorted lines. Writes
+ * rewrite the file like the text engine, the file is mapped again with the
+ * next lookup.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class MappedStorageEngine extends TextStorageEngine {
+
+	/**
+	 * Create a mapped engine (with the mapped mode turned on)
+	 * 
+	 * @param file the file the engine belongs to
+	 */
+	public MappedStorageEngine(EditableFile file) {
+		super(file);
+		setMapped(true);
+	}
+
+}
@@ -0,0 +1,130 @@
+package de.rojer.editablefiles;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps the values in memory only, the file is never read or written. Useful
+ * for tests and for hot data, which doesn't have to survive the process. The
+ * values are sorted by their encoded path (like the lines of a text file), so
+ * a scan only walks the entries of its range.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class MemoryStorageEngine implements StorageEngine {
+
+	/**
+	 * The file the engine belongs to
+	 */
+	protected EditableFile file;
+
+	/**
+	 * The values (encoded path including ": " -> value)
+	 */
+	protected ConcurrentSkipListMap<String, Object> values;
+
+	/**
+	 * Create a memory engine
+	 * 
+	 * @param file the file the engine belongs to
+	 */
+	public MemoryStorageEngine(EditableFile file) {
+		this.file = file;
+		this.values = new ConcurrentSkipListMap<String, Object>();
+	}
+
+	@Override
+	public Object get(String key) {
+		return values.get(encodedPath(key));
+	}
+
+	@Override
+	public void put(String key, Object value) {
+		values.put(encodedPath(key), value);
+	}
+
+	@Override
+	public void putAll(Map<String, Object> changes) {
+		for (Map.Entry<String, Object> change : changes.entrySet()) {
+			if (change.getValue() == null) {
+				values.remove(encodedPath(change.getKey()));
+			} else {
+				values.put(encodedPath(change.getKey()), change.getValue());
+			}
+		}
+	}
+
+	@Override
+	public void delete(String key) {
+		values.remove(encodedPath(key));
+	}
+
+	@Override
+	public void clear() {
+		values.clear();
+	}
+
+	@Override
+	public EntryIterator scan(String fromKey, String toKey, String prefix) {
+		String from = fromKey == null ? null : encodedPath(fromKey);
+		String to = toKey == null ? null : encodedPath(toKey);
+		String encodedPrefix = prefix == null ? null : file.encode(prefix);
+		String lower = from;
+		if (encodedPrefix != null && (lower == null || encodedPrefix.compareTo(lower) > 0)) {
+			lower = encodedPrefix;
+		}
+		ConcurrentNavigableMap<String, Object> range = values;
+		if (lower != null && to != null) {
+			range = lower.compareTo(to) < 0 ? values.subMap(lower, to) : values.subMap(lower, lower);
+		} else if (lower != null) {
+			range = values.tailMap(lower);
+		} else if (to != null) {
+			range = values.headMap(to);
+		}
+		final Iterator<Map.Entry<String, Object>> entries = range.entrySet().iterator();
+		Iterator<Map.Entry<String, String>> lines = new Iterator<Map.Entry<String, String>>() {
+			@Override
+			public boolean hasNext() {
+				return entries.hasNext();
+			}
+
+			@Override
+			public Map.Entry<String, String> next() {
+				Map.Entry<String, Object> entry = entries.next();
+				String line = file.encodeLine(file.keyOf(entry.getKey()), entry.getValue(), true);
+				return new AbstractMap.SimpleImmutableEntry<String, String>(entry.getKey(), line);
+			}
+		};
+		return new EntryIterator(file, null, lines, from, to, encodedPrefix);
+	}
+
+	/**
+	 * Does nothing, the values are never written
+	 */
+	@Override
+	public void flush() {
+
+	}
+
+	/**
+	 * @return false, the values are never written
+	 */
+	@Override
+	public boolean isPersistent() {
+		return false;
+	}
+
+	/**
+	 * @param key the path of a value
+	 * @return the encoded path (the key of the value in the map)
+	 */
+	protected String encodedPath(String key) {
+		return file.encode(key + ": ");
+	}
+
+}
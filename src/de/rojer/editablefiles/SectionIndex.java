@@ -0,0 +1,265 @@
+package de.rojer.editablefiles;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A trie of the sections of a sorted file. The paths of a file are split at
+ * every '.' ("db.pool.max" is the value "max" in the section "pool" of the
+ * section "db"). All lines of a section follow each other in the sorted file,
+ * so the index only keeps where each section starts and ends (in bytes), not
+ * the lines themselves. Reading a section seeks to its start and stops at its
+ * end, instead of reading the file from the top.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class SectionIndex {
+
+	/**
+	 * A section and its sub-sections
+	 */
+	protected static class Section {
+
+		/**
+		 * The first byte of the first line and the end of the last line of the
+		 * section (exclusive)
+		 */
+		protected long start, end;
+
+		/**
+		 * The amount of lines in the section (including all sub-sections)
+		 */
+		protected int lines;
+
+		/**
+		 * The sub-sections (name -> section), in the order of the file
+		 */
+		protected final LinkedHashMap<String, Section> children = new LinkedHashMap<String, Section>();
+
+		/**
+		 * Create a section, which starts at a certain line
+		 * 
+		 * @param start the first byte of the line
+		 */
+		protected Section(long start) {
+			this.start = start;
+			this.end = start;
+		}
+
+	}
+
+	/**
+	 * The size of the buffer for reading the file
+	 */
+	protected static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The section of the whole file
+	 */
+	protected Section root = new Section(0);
+
+	/**
+	 * The identity of the file, when it was indexed
+	 */
+	protected Object fileKey;
+
+	/**
+	 * The modification time (in nanoseconds) and the length of the file, when it
+	 * was indexed
+	 */
+	protected long lastModified, length;
+
+	/**
+	 * Reads a file once and builds the index of its sections
+	 * 
+	 * @param file the file (its text file is indexed)
+	 * @throws IOException when the file couldn't be read
+	 */
+	public SectionIndex(EditableFile file) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(file.file.toPath(), BasicFileAttributes.class);
+		fileKey = attributes.fileKey();
+		lastModified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+		length = attributes.size();
+		InputStream in = new FileInputStream(file.file);
+		try {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			byte[] line = new byte[256];
+			int lineLength = 0;
+			long position = 0, start = 0;
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				for (int i = 0; i < read; i++) {
+					position++;
+					if (buffer[i] == '\n') {
+						addLine(file, line, lineLength, start, position);
+						lineLength = 0;
+						start = position;
+					} else {
+						if (lineLength == line.length) {
+							byte[] newLine = new byte[line.length * 2];
+							System.arraycopy(line, 0, newLine, 0, lineLength);
+							line = newLine;
+						}
+						line[lineLength++] = buffer[i];
+					}
+				}
+			}
+			if (lineLength > 0) {
+				addLine(file, line, lineLength, start, position);
+			}
+			root.end = position;
+			file.metrics.addBytesRead(position);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Adds a line to all sections of its path
+	 * 
+	 * @param file  the file
+	 * @param bytes the bytes of the line
+	 * @param count the amount of bytes
+	 * @param start the first byte of the line in the file
+	 * @param end   the end of the line in the file (after the line break)
+	 */
+	protected void addLine(EditableFile file, byte[] bytes, int count, long start, long end) {
+		if (count > 0 && bytes[count - 1] == '\r') {
+			count--;
+		}
+		String key = file.keyOf(file.pathOf(new String(bytes, 0, count, Charset.defaultCharset())));
+		root.lines++;
+		Section section = root;
+		int from = 0, dot;
+		while ((dot = key.indexOf('.', from)) >= 0) {
+			String name = key.substring(from, dot);
+			Section child = section.children.get(name);
+			if (child == null) {
+				child = new Section(start);
+				section.children.put(name, child);
+			}
+			child.end = end;
+			child.lines++;
+			section = child;
+			from = dot + 1;
+		}
+	}
+
+	/**
+	 * Checks if the index still represents the file
+	 * 
+	 * @param file the file
+	 * @return true if the file wasn't changed or replaced since it was indexed
+	 */
+	public boolean isValid(File file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			return attributes.size() == length
+					&& attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS) == lastModified
+					&& (fileKey == null || fileKey.equals(attributes.fileKey()));
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Searches a section
+	 * 
+	 * @param name the name of the section (e.g. "db.pool", "" for the whole file)
+	 * @return the section or null, if there are no lines in that section
+	 */
+	protected Section find(String name) {
+		if (name.isEmpty()) {
+			return root;
+		}
+		Section section = root;
+		int from = 0;
+		while (section != null) {
+			int dot = name.indexOf('.', from);
+			if (dot < 0) {
+				return section.children.get(name.substring(from));
+			}
+			section = section.children.get(name.substring(from, dot));
+			from = dot + 1;
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the names of the values directly in a section (not in its
+	 * sub-sections) and of its sub-sections, in the order of the file. Only the
+	 * lines between the sub-sections are read.
+	 * 
+	 * @param file     the file
+	 * @param channel  the opened version of the file, which was indexed
+	 * @param section  the section
+	 * @param prefix   the decoded prefix of all paths of the section (e.g.
+	 *                 "db.pool.")
+	 * @param children the names of the children
+	 * @throws IOException when the file couldn't be read
+	 */
+	protected void addChildren(EditableFile file, FileChannel channel, Section section, String prefix,
+			Collection<String> children) throws IOException {
+		long position = section.start;
+		for (Map.Entry<String, Section> child : section.children.entrySet()) {
+			addValues(file, channel, position, child.getValue().start, prefix, children);
+			children.add(child.getKey());
+			position = child.getValue().end;
+		}
+		addValues(file, channel, position, section.end, prefix, children);
+	}
+
+	/**
+	 * Adds the names of the values between two positions of the file
+	 * 
+	 * @param file     the file
+	 * @param channel  the opened version of the file
+	 * @param from     the first byte
+	 * @param to       the last byte (exclusive)
+	 * @param prefix   the decoded prefix of the paths
+	 * @param children the names of the children
+	 * @throws IOException when the file couldn't be read
+	 */
+	protected void addValues(EditableFile file, FileChannel channel, long from, long to, String prefix,
+			Collection<String> children) throws IOException {
+		if (to <= from) {
+			return;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, from + buffer.position()) < 0) {
+				break;
+			}
+		}
+		file.metrics.addBytesRead(buffer.position());
+		String text = new String(buffer.array(), 0, buffer.position(), Charset.defaultCharset());
+		for (String line : text.split("\r?\n")) {
+			if (!line.isEmpty()) {
+				children.add(file.keyOf(file.pathOf(line)).substring(prefix.length()));
+			}
+		}
+	}
+
+	/**
+	 * @param name the name of the section (e.g. "db.pool", "" for the whole file)
+	 * @return the amount of lines in that section (including all sub-sections)
+	 */
+	public int size(String name) {
+		Section section = find(name);
+		return section == null ? 0 : section.lines;
+	}
+
+}
@@ -0,0 +1,563 @@
+package de.rojer.editablefiles;
+
+import java.io.File;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.rojer.editablefiles.exceptions.WrongTypeException;
+
+/**
+ * Spreads the values over several {@link EditableFile}s (shards) in a folder,
+ * so every operation only touches a fraction of all values. The shard of a
+ * path is chosen by the hash code of the path (which is the same on every
+ * virtual machine). Every shard has its own lock, writes to different shards
+ * run in parallel.
+ * <p>
+ * The amount of shards is stored in the folder and can only be changed with
+ * {@link #reshard(String, int)}, while the store isn't used.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class ShardedFile {
+
+	/**
+	 * Reads a value from a shard and may fail with a {@link WrongTypeException}
+	 * 
+	 * @param <T> the type of the value
+	 */
+	protected interface ShardRead<T> {
+
+		/**
+		 * @param shard the shard of the path
+		 * @return the value
+		 * @throws WrongTypeException when the value has the wrong type
+		 */
+		public T read(EditableFile shard) throws WrongTypeException;
+
+	}
+
+	/**
+	 * Writes a value to a shard
+	 */
+	protected interface ShardWrite {
+
+		/**
+		 * @param shard the shard of the path
+		 */
+		public void write(EditableFile shard);
+
+	}
+
+	/**
+	 * The name of the file, which holds the amount of shards
+	 */
+	public static final String META_FILE = "shards.txt";
+
+	/**
+	 * The default amount of shards of a new store
+	 */
+	public static final int DEFAULT_SHARDS = 16;
+
+	/**
+	 * The folder of the store
+	 */
+	protected String folder;
+
+	/**
+	 * The shards
+	 */
+	protected EditableFile[] shards;
+
+	/**
+	 * The locks of the shards
+	 */
+	protected ReentrantReadWriteLock[] locks;
+
+	/**
+	 * Open a store (a new store gets {@link #DEFAULT_SHARDS} shards)
+	 * 
+	 * @param folder the folder of the store
+	 */
+	public ShardedFile(String folder) {
+		this(folder, 0, StorageEngine.TEXT);
+	}
+
+	/**
+	 * Open or create a store with a certain amount of shards
+	 * 
+	 * @param folder the folder of the store
+	 * @param shards the amount of shards (0 to accept the amount of an existing
+	 *               store)
+	 * @throws IllegalArgumentException when the store already exists with a
+	 *                                  different amount of shards
+	 */
+	public ShardedFile(String folder, int shards) {
+		this(folder, shards, StorageEngine.TEXT);
+	}
+
+	/**
+	 * Open or create a store with a certain amount of shards and storage engine
+	 * 
+	 * @param folder the folder of the store
+	 * @param shards the amount of shards (0 to accept the amount of an existing
+	 *               store)
+	 * @param engine creates the engines of the shards
+	 * @throws IllegalArgumentException when the store already exists with a
+	 *                                  different amount of shards
+	 */
+	public ShardedFile(String folder, int shards, StorageEngine.Factory engine) {
+		this.folder = folder;
+		EditableFile meta = new EditableFile(folder, META_FILE);
+		int stored = readShardCount(meta);
+		if (stored == 0) {
+			stored = shards > 0 ? shards : DEFAULT_SHARDS;
+			meta.writeInt("shards", stored);
+		} else if (shards > 0 && shards != stored) {
+			throw new IllegalArgumentException(
+					"The store has " + stored + " shards, use reshard to change it to " + shards + "!");
+		}
+		this.shards = new EditableFile[stored];
+		this.locks = new ReentrantReadWriteLock[stored];
+		for (int i = 0; i < stored; i++) {
+			this.shards[i] = new EditableFile(folder, shardName(i, stored), engine);
+			this.locks[i] = new ReentrantReadWriteLock();
+		}
+	}
+
+	// Resharding
+
+	/**
+	 * Moves all values of a store into a new amount of shards. The store must
+	 * not be used while it is resharded. The new shards are written next to the
+	 * old ones and only replace them, when all of them are complete, so an
+	 * interrupted reshard leaves the old store intact. The values keep their
+	 * types: if any value has a type tag, all values are written with tags.
+	 * 
+	 * @param folder the folder of the store
+	 * @param shards the new amount of shards
+	 */
+	public static void reshard(String folder, int shards) {
+		reshard(folder, shards, StorageEngine.TEXT);
+	}
+
+	/**
+	 * Moves all values of a store into a new amount of shards (see
+	 * {@link #reshard(String, int)}). Every new shard is streamed through its
+	 * {@link BulkLoader} with one scan of the old shards, so the memory stays
+	 * bounded by the run size of the loader.
+	 * 
+	 * @param folder the folder of the store
+	 * @param shards the new amount of shards
+	 * @param engine creates the engines of the shards
+	 */
+	public static void reshard(String folder, int shards, StorageEngine.Factory engine) {
+		ShardedFile old = new ShardedFile(folder, 0, engine);
+		int oldCount = old.getShardCount();
+		if (shards == oldCount) {
+			return;
+		}
+		boolean tagged = isTagged(old);
+		for (int i = 0; i < shards; i++) {
+			EditableFile target = new EditableFile(folder, shardName(i, shards), engine);
+			target.clearFile();
+			target.setTypeTags(tagged);
+			ArrayList<EntryIterator> scans = new ArrayList<EntryIterator>();
+			try {
+				target.bulkLoader().load(entriesOf(old, i, shards, scans));
+			} finally {
+				for (EntryIterator scan : scans) {
+					scan.close();
+				}
+			}
+			target.close();
+		}
+		new EditableFile(folder, META_FILE).writeInt("shards", shards);
+		old.close();
+		for (int i = 0; i < oldCount; i++) {
+			String name = shardName(i, oldCount);
+			for (String suffix : new String[] { "", ".log", ".bloom", ".lock" }) {
+				new File(folder, name + suffix).delete();
+			}
+		}
+	}
+
+	/**
+	 * Checks if any value of a store has a type tag (then all values are
+	 * resharded with tags)
+	 * 
+	 * @param store the store
+	 * @return true if a value has a type tag
+	 */
+	protected static boolean isTagged(ShardedFile store) {
+		for (EditableFile shard : store.shards) {
+			EntryIterator entries = shard.scan();
+			try {
+				while (entries.hasNext()) {
+					if (entries.next().getType() != null) {
+						return true;
+					}
+				}
+			} finally {
+				entries.close();
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Lazily reads the values of a store, which belong to a new shard
+	 * 
+	 * @param store  the store
+	 * @param index  the index of the new shard
+	 * @param shards the new amount of shards
+	 * @param scans  receives the scans of the old shards (close them afterwards)
+	 * @return the values of the new shard (path and typed value)
+	 */
+	protected static Iterator<Map.Entry<String, Object>> entriesOf(ShardedFile store, int index, int shards,
+			List<EntryIterator> scans) {
+		return new Iterator<Map.Entry<String, Object>>() {
+
+			/**
+			 * The index of the old shard, which is scanned
+			 */
+			private int shard = -1;
+
+			/**
+			 * The scan of the old shard (null, before the first shard is opened)
+			 */
+			private EntryIterator entries;
+
+			/**
+			 * The next value of the new shard
+			 */
+			private Entry next;
+
+			@Override
+			public boolean hasNext() {
+				while (next == null) {
+					if (entries == null || !entries.hasNext()) {
+						if (entries != null) {
+							entries.close();
+						}
+						if (++shard >= store.shards.length) {
+							return false;
+						}
+						entries = store.shards[shard].scan();
+						scans.add(entries);
+						continue;
+					}
+					Entry entry = entries.next();
+					if (indexOf(entry.getKey(), shards) == index) {
+						next = entry;
+					}
+				}
+				return true;
+			}
+
+			@Override
+			public Map.Entry<String, Object> next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Entry entry = next;
+				next = null;
+				return new AbstractMap.SimpleImmutableEntry<String, Object>(entry.getKey(), entry.getTypedValue());
+			}
+
+		};
+	}
+
+	// Reading
+
+	/**
+	 * Gets an integer (see {@link EditableFile#getTrueInt(String)})
+	 * 
+	 * @param path the path to the integer value
+	 * @return the integer value
+	 * @throws WrongTypeException when the value at that path is not an integer
+	 */
+	public int getTrueInt(String path) throws WrongTypeException {
+		return read(path, shard -> shard.getTrueInt(path));
+	}
+
+	/**
+	 * Gets an integer (see {@link EditableFile#getInt(String)})
+	 * 
+	 * @param path the path to the integer value
+	 * @return the integer value
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            float or double
+	 */
+	public int getInt(String path) throws WrongTypeException {
+		return read(path, shard -> shard.getInt(path));
+	}
+
+	/**
+	 * Gets a character (see {@link EditableFile#getChar(String)})
+	 * 
+	 * @param path the path to the character
+	 * @return the character value
+	 * @throws WrongTypeException when the value at that path is not a character
+	 */
+	public char getChar(String path) throws WrongTypeException {
+		return read(path, shard -> shard.getChar(path));
+	}
+
+	/**
+	 * Gets a boolean (see {@link EditableFile#getBoolean(String)})
+	 * 
+	 * @param path the path to the boolean value
+	 * @return the boolean value
+	 * @throws WrongTypeException when the value at that path is not a boolean
+	 */
+	public boolean getBoolean(String path) throws WrongTypeException {
+		return read(path, shard -> shard.getBoolean(path));
+	}
+
+	/**
+	 * Gets a float (see {@link EditableFile#getFloat(String)})
+	 * 
+	 * @param path the path to the float value
+	 * @return the float value
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            double or float
+	 */
+	public float getFloat(String path) throws WrongTypeException {
+		return read(path, shard -> shard.getFloat(path));
+	}
+
+	/**
+	 * Gets a double (see {@link EditableFile#getDouble(String)})
+	 * 
+	 * @param path the path to the double value
+	 * @return the double value
+	 * @throws WrongTypeException when the value at that path is not an integer,
+	 *                            double or float
+	 */
+	public double getDouble(String path) throws WrongTypeException {
+		return read(path, shard -> shard.getDouble(path));
+	}
+
+	/**
+	 * Gets a string (see {@link EditableFile#getString(String)})
+	 * 
+	 * @param path the path to the string
+	 * @return the string
+	 */
+	public String getString(String path) {
+		int index = indexOf(path, shards.length);
+		locks[index].readLock().lock();
+		try {
+			return shards[index].getString(path);
+		} finally {
+			locks[index].readLock().unlock();
+		}
+	}
+
+	// Writing
+
+	/**
+	 * Writes an integer to the store
+	 * 
+	 * @param path  the path for the value
+	 * @param value the integer value
+	 */
+	public void writeInt(String path, int value) {
+		write(path, shard -> shard.writeInt(path, value));
+	}
+
+	/**
+	 * Writes a character to the store
+	 * 
+	 * @param path  the path for the value
+	 * @param value the character
+	 */
+	public void writeChar(String path, char value) {
+		write(path, shard -> shard.writeChar(path, value));
+	}
+
+	/**
+	 * Writes a boolean to the store
+	 * 
+	 * @param path  the path for the value
+	 * @param value the boolean value
+	 */
+	public void writeBoolean(String path, boolean value) {
+		write(path, shard -> shard.writeBoolean(path, value));
+	}
+
+	/**
+	 * Writes a float to the store
+	 * 
+	 * @param path  the path for the value
+	 * @param value the float value
+	 */
+	public void writeFloat(String path, float value) {
+		write(path, shard -> shard.writeFloat(path, value));
+	}
+
+	/**
+	 * Writes a double to the store
+	 * 
+	 * @param path  the path for the value
+	 * @param value the double value
+	 */
+	public void writeDouble(String path, double value) {
+		write(path, shard -> shard.writeDouble(path, value));
+	}
+
+	/**
+	 * Writes a string to the store
+	 * 
+	 * @param path  the path for the value
+	 * @param value the string
+	 */
+	public void writeString(String path, String value) {
+		write(path, shard -> shard.writeString(path, value));
+	}
+
+	/**
+	 * Delete a line in the store
+	 * 
+	 * @param path the path to the line
+	 */
+	public void deleteLine(String path) {
+		write(path, shard -> shard.deleteLine(path));
+	}
+
+	/**
+	 * Clears all shards
+	 */
+	public void clearFile() {
+		for (int i = 0; i < shards.length; i++) {
+			locks[i].writeLock().lock();
+			try {
+				shards[i].clearFile();
+			} finally {
+				locks[i].writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Writes all held back changes of the shards and stops their background work
+	 * (see {@link EditableFile#close()})
+	 */
+	public void close() {
+		for (int i = 0; i < shards.length; i++) {
+			locks[i].writeLock().lock();
+			try {
+				shards[i].close();
+			} finally {
+				locks[i].writeLock().unlock();
+			}
+		}
+	}
+
+	// Shards
+
+	/**
+	 * Reads a value under the read lock of its shard
+	 * 
+	 * @param <T>  the type of the value
+	 * @param path the path to the value
+	 * @param read reads the value
+	 * @return the value
+	 * @throws WrongTypeException when the value has the wrong type
+	 */
+	protected <T> T read(String path, ShardRead<T> read) throws WrongTypeException {
+		int index = indexOf(path, shards.length);
+		locks[index].readLock().lock();
+		try {
+			return read.read(shards[index]);
+		} finally {
+			locks[index].readLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes a value under the write lock of its shard
+	 * 
+	 * @param path  the path for the value
+	 * @param write writes the value
+	 */
+	protected void write(String path, ShardWrite write) {
+		int index = indexOf(path, shards.length);
+		locks[index].writeLock().lock();
+		try {
+			write.write(shards[index]);
+		} finally {
+			locks[index].writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Reads the amount of shards of a store
+	 * 
+	 * @param meta the file, which holds the amount of shards
+	 * @return the amount of shards (0 for a new store)
+	 */
+	protected static int readShardCount(EditableFile meta) {
+		Object shards = meta.readTypedValue("shards");
+		if (shards == null) {
+			return 0;
+		}
+		try {
+			return meta.toTrueInt(shards);
+		} catch (WrongTypeException e) {
+			e.printStackTrace();
+			return 0;
+		}
+	}
+
+	/**
+	 * Chooses the shard of a path
+	 * 
+	 * @param path   the path
+	 * @param shards the amount of shards
+	 * @return the index of the shard
+	 */
+	protected static int indexOf(String path, int shards) {
+		int hash = path.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), shards);
+	}
+
+	/**
+	 * @param index  the index of the shard
+	 * @param shards the amount of shards
+	 * @return the file name of the shard
+	 */
+	protected static String shardName(int index, int shards) {
+		return "shard-" + index + "-of-" + shards + ".shard";
+	}
+
+	/**
+	 * @param path the path
+	 * @return the shard of the path
+	 */
+	public EditableFile getShard(String path) {
+		return shards[indexOf(path, shards.length)];
+	}
+
+	/**
+	 * @return the amount of shards
+	 */
+	public int getShardCount() {
+		return shards.length;
+	}
+
+	/**
+	 * @return the folder of the store
+	 */
+	public String getFolder() {
+		return folder;
+	}
+
+}
@@ -0,0 +1,262 @@
+package de.rojer.editablefiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A read/write lock for a file, which is shared by all objects of the same file
+ * in this process. Many threads can read at once, writes are serialized. Other
+ * processes are locked out with a lock on a file next to the file
+ * (<i>fileName</i>.lock): readers hold a shared lock, writers an exclusive one.
+ * The time spent waiting for the lock is counted.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class SharedFileLock {
+
+	/**
+	 * The locks of all files (canonical path -> lock)
+	 */
+	protected static final ConcurrentHashMap<String, SharedFileLock> LOCKS = new ConcurrentHashMap<String, SharedFileLock>();
+
+	/**
+	 * The lock for the threads of this process
+	 */
+	protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * The file, which is locked for other processes
+	 */
+	protected final File lockFile;
+
+	/**
+	 * The channel of the lock file
+	 */
+	protected FileChannel channel;
+
+	/**
+	 * The lock on the lock file (null, if this process doesn't hold it)
+	 */
+	protected FileLock processLock;
+
+	/**
+	 * The amount of threads, which hold the shared lock on the lock file
+	 */
+	protected int readers;
+
+	/**
+	 * Statistics
+	 */
+	protected final LongAdder reads = new LongAdder(), writes = new LongAdder(), contendedReads = new LongAdder(),
+			contendedWrites = new LongAdder(), readWaitTime = new LongAdder(), writeWaitTime = new LongAdder();
+
+	/**
+	 * Create a lock (use {@link #of(File)})
+	 * 
+	 * @param file the file to lock
+	 */
+	protected SharedFileLock(File file) {
+		this.lockFile = new File(file.getPath() + ".lock");
+	}
+
+	/**
+	 * Returns the lock of a file
+	 * 
+	 * @param file the file
+	 * @return the lock, which is shared by all objects of the same file
+	 */
+	public static SharedFileLock of(File file) {
+		String key;
+		try {
+			key = file.getCanonicalPath();
+		} catch (IOException e) {
+			key = file.getAbsolutePath();
+		}
+		SharedFileLock lock = LOCKS.get(key);
+		if (lock == null) {
+			LOCKS.putIfAbsent(key, new SharedFileLock(new File(key)));
+			lock = LOCKS.get(key);
+		}
+		return lock;
+	}
+
+	/**
+	 * Acquires the lock for reading
+	 * 
+	 * @throws UncheckedIOException when the lock file couldn't be locked (the
+	 *                              lock isn't held then)
+	 */
+	public void lockRead() {
+		long start = System.nanoTime();
+		boolean contended = false;
+		if (!lock.readLock().tryLock()) {
+			contended = true;
+			lock.readLock().lock();
+		}
+		synchronized (this) {
+			try {
+				if (readers++ == 0 && processLock == null) {
+					contended |= acquireProcessLock(true);
+				}
+			} catch (IOException e) {
+				readers--;
+				lock.readLock().unlock();
+				throw new UncheckedIOException(e);
+			}
+		}
+		reads.increment();
+		if (contended) {
+			contendedReads.increment();
+			readWaitTime.add(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Releases the lock for reading
+	 */
+	public void unlockRead() {
+		synchronized (this) {
+			if (--readers == 0 && !lock.isWriteLocked()) {
+				releaseProcessLock();
+			}
+		}
+		lock.readLock().unlock();
+	}
+
+	/**
+	 * Acquires the lock for writing
+	 * 
+	 * @throws UncheckedIOException when the lock file couldn't be locked (the
+	 *                              lock isn't held then)
+	 */
+	public void lockWrite() {
+		long start = System.nanoTime();
+		boolean contended = false;
+		if (!lock.writeLock().tryLock()) {
+			contended = true;
+			lock.writeLock().lock();
+		}
+		if (lock.getWriteHoldCount() == 1) {
+			synchronized (this) {
+				try {
+					contended |= acquireProcessLock(false);
+				} catch (IOException e) {
+					lock.writeLock().unlock();
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+		writes.increment();
+		if (contended) {
+			contendedWrites.increment();
+			writeWaitTime.add(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Releases the lock for writing
+	 */
+	public void unlockWrite() {
+		if (lock.getWriteHoldCount() == 1) {
+			synchronized (this) {
+				if (readers == 0) {
+					releaseProcessLock();
+				}
+			}
+		}
+		lock.writeLock().unlock();
+	}
+
+	/**
+	 * Locks the lock file for other processes
+	 * 
+	 * @param shared true for a shared lock, false for an exclusive lock
+	 * @return true if another process held the lock
+	 * @throws IOException when the lock file couldn't be locked
+	 */
+	protected boolean acquireProcessLock(boolean shared) throws IOException {
+		if (channel == null) {
+			channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+		}
+		if (processLock != null) {
+			if (processLock.isShared() == shared) {
+				return false;
+			}
+			releaseProcessLock();
+		}
+		processLock = channel.tryLock(0, Long.MAX_VALUE, shared);
+		if (processLock != null) {
+			return false;
+		}
+		processLock = channel.lock(0, Long.MAX_VALUE, shared);
+		return true;
+	}
+
+	/**
+	 * Releases the lock on the lock file
+	 */
+	protected void releaseProcessLock() {
+		if (processLock == null) {
+			return;
+		}
+		try {
+			processLock.release();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		processLock = null;
+	}
+
+	/**
+	 * @return the amount of read locks acquired
+	 */
+	public long getReads() {
+		return reads.sum();
+	}
+
+	/**
+	 * @return the amount of write locks acquired
+	 */
+	public long getWrites() {
+		return writes.sum();
+	}
+
+	/**
+	 * @return the amount of read locks, which had to wait
+	 */
+	public long getContendedReads() {
+		return contendedReads.sum();
+	}
+
+	/**
+	 * @return the amount of write locks, which had to wait
+	 */
+	public long getContendedWrites() {
+		return contendedWrites.sum();
+	}
+
+	/**
+	 * @return the total time spent waiting for read locks (in nanoseconds)
+	 */
+	public long getReadWaitTime() {
+		return readWaitTime.sum();
+	}
+
+	/**
+	 * @return the total time spent waiting for write locks (in nanoseconds)
+	 */
+	public long getWriteWaitTime() {
+		return writeWaitTime.sum();
+	}
+
+}
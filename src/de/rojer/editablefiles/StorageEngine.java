@@ -0,0 +1,133 @@
+package de.rojer.editablefiles;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores the values of an {@link EditableFile}. All keys and values handed to
+ * an engine are decoded, the engine decides how (and whether) they are encoded
+ * and written. The engine of a file is chosen, when the file is created (see
+ * {@link EditableFile#EditableFile(String, Factory)}).
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public interface StorageEngine {
+
+	/**
+	 * Creates the engine of a file
+	 */
+	public interface Factory {
+
+		/**
+		 * Creates an engine
+		 * 
+		 * @param file the file the engine belongs to
+		 * @return the engine
+		 */
+		public StorageEngine create(EditableFile file);
+
+	}
+
+	/**
+	 * The text format ("path: value" lines, see {@link TextStorageEngine})
+	 */
+	public static final Factory TEXT = TextStorageEngine::new;
+
+	/**
+	 * The text format with lookups over the memory-mapped file (see
+	 * {@link MappedStorageEngine})
+	 */
+	public static final Factory MAPPED = MappedStorageEngine::new;
+
+	/**
+	 * Values kept in memory only (see {@link MemoryStorageEngine})
+	 */
+	public static final Factory MEMORY = MemoryStorageEngine::new;
+
+	/**
+	 * The binary format (see {@link BinaryStorageEngine})
+	 */
+	public static final Factory BINARY = BinaryStorageEngine::new;
+
+	/**
+	 * Reads a value
+	 * 
+	 * @param key the path to the value
+	 * @return the value (a String or, if the engine stores types, an Integer,
+	 *         Float, Double, Boolean or Character) or null, if there is no value
+	 *         at that path
+	 */
+	public Object get(String key);
+
+	/**
+	 * Reads many values at once
+	 * 
+	 * @param keys the paths to the values
+	 * @return the values of all paths, which were found (path -> value)
+	 */
+	public default Map<String, Object> getAll(Collection<String> keys) {
+		HashMap<String, Object> result = new HashMap<String, Object>();
+		for (String key : keys) {
+			Object value = get(key);
+			if (value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Writes a value (or replaces the old value)
+	 * 
+	 * @param key   the path for the value
+	 * @param value the value
+	 */
+	public void put(String key, Object value);
+
+	/**
+	 * Writes and removes many values at once (engines with a file apply all of
+	 * them with a single write)
+	 * 
+	 * @param changes the changes (path -> value or null to remove the value)
+	 */
+	public void putAll(Map<String, Object> changes);
+
+	/**
+	 * Removes a value
+	 * 
+	 * @param key the path to the value
+	 */
+	public void delete(String key);
+
+	/**
+	 * Removes all values
+	 */
+	public void clear();
+
+	/**
+	 * Reads the entries of a range lazily, in the order of the encoded paths
+	 * 
+	 * @param fromKey the first path (inclusive, null if unbounded)
+	 * @param toKey   the last path (exclusive, null if unbounded)
+	 * @param prefix  the prefix of all paths (null if unbounded)
+	 * @return the entries (close the iterator, if it isn't read to the end)
+	 */
+	public EntryIterator scan(String fromKey, String toKey, String prefix);
+
+	/**
+	 * Writes everything, which is still held back, to the storage
+	 */
+	public void flush();
+
+	/**
+	 * @return true if the engine writes the values to the file (the file is only
+	 *         created for those engines)
+	 */
+	public default boolean isPersistent() {
+		return true;
+	}
+
+}
@@ -1,10 +1,11 @@
 package de.rojer.editablefiles;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
 
 /**
  * This class can read and load all characters from a text file
@@ -33,22 +34,7 @@ public class StringFile extends EditableFile {
 	 */
 	public StringFile(String path, String fileName) {
 		super(path, fileName);
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			while (it.hasNext()) {
-				String line = it.next();
-				source += line + "\n";
-			}
-			source += "\0";
-			br.close();
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-
+		source = returnContentsAsString(false);
 	}
 
 	/**
@@ -59,21 +45,32 @@ public class StringFile extends EditableFile {
 	 */
 	public StringFile(String completePath) {
 		super(completePath);
-		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			Iterator<String> it = br.lines().iterator();
-			while (it.hasNext()) {
-				String line = it.next();
-				source += line + "\n";
-			}
-			source += "\0";
-			br.close();
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		source = returnContentsAsString(false);
+	}
+
+	/**
+	 * Call this method to find a file (when not found, create) and copy all its
+	 * text into a usable variable
+	 * 
+	 * @param path     the path to the folder
+	 * @param fileName the name of the file
+	 * @param engine   creates the engine, which stores the contents of the file
+	 */
+	public StringFile(String path, String fileName, StorageEngine.Factory engine) {
+		this(path + "/" + fileName, engine);
+	}
+
+	/**
+	 * Call this method to find a file (when not found, create) and copy all its
+	 * text into a usable variable
+	 * 
+	 * @param completePath the complete path to the file (with extension)
+	 * @param engine       creates the engine, which stores the contents of the
+	 *                     file
+	 */
+	public StringFile(String completePath, StorageEngine.Factory engine) {
+		super(completePath, engine);
+		source = returnContentsAsString(false);
 	}
 
 	// "Destructors"
@@ -130,6 +127,158 @@ public class StringFile extends EditableFile {
 		return null;
 	}
 
+	/**
+	 * This method will ALWAYS return false
+	 */
+	@Override
+	public boolean contains(String path) {
+		return false;
+	}
+
+	/**
+	 * This method will ALWAYS return the default value
+	 */
+	@Override
+	public int getIntOrDefault(String path, int defaultValue) {
+		return defaultValue;
+	}
+
+	/**
+	 * This method will ALWAYS return the default value
+	 */
+	@Override
+	public char getCharOrDefault(String path, char defaultValue) {
+		return defaultValue;
+	}
+
+	/**
+	 * This method will ALWAYS return the default value
+	 */
+	@Override
+	public boolean getBooleanOrDefault(String path, boolean defaultValue) {
+		return defaultValue;
+	}
+
+	/**
+	 * This method will ALWAYS return the default value
+	 */
+	@Override
+	public float getFloatOrDefault(String path, float defaultValue) {
+		return defaultValue;
+	}
+
+	/**
+	 * This method will ALWAYS return the default value
+	 */
+	@Override
+	public double getDoubleOrDefault(String path, double defaultValue) {
+		return defaultValue;
+	}
+
+	/**
+	 * This method will ALWAYS return the default value
+	 */
+	@Override
+	public String getStringOrDefault(String path, String defaultValue) {
+		return defaultValue;
+	}
+
+	/**
+	 * This method will ALWAYS return an empty optional
+	 */
+	@Override
+	public OptionalInt findInt(String path) {
+		return OptionalInt.empty();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty optional
+	 */
+	@Override
+	public Optional<Character> findChar(String path) {
+		return Optional.empty();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty optional
+	 */
+	@Override
+	public Optional<Boolean> findBoolean(String path) {
+		return Optional.empty();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty optional
+	 */
+	@Override
+	public Optional<Float> findFloat(String path) {
+		return Optional.empty();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty optional
+	 */
+	@Override
+	public OptionalDouble findDouble(String path) {
+		return OptionalDouble.empty();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty optional
+	 */
+	@Override
+	public Optional<String> findString(String path) {
+		return Optional.empty();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty map
+	 */
+	@Override
+	public Map<String, String> getMany(Collection<String> paths) {
+		return new HashMap<String, String>();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty map
+	 */
+	@Override
+	public Map<String, Integer> getManyInts(Collection<String> paths) {
+		return new HashMap<String, Integer>();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty map
+	 */
+	@Override
+	public Map<String, Character> getManyChars(Collection<String> paths) {
+		return new HashMap<String, Character>();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty map
+	 */
+	@Override
+	public Map<String, Boolean> getManyBooleans(Collection<String> paths) {
+		return new HashMap<String, Boolean>();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty map
+	 */
+	@Override
+	public Map<String, Float> getManyFloats(Collection<String> paths) {
+		return new HashMap<String, Float>();
+	}
+
+	/**
+	 * This method will ALWAYS return an empty map
+	 */
+	@Override
+	public Map<String, Double> getManyDoubles(Collection<String> paths) {
+		return new HashMap<String, Double>();
+	}
+
 	/**
 	 * This method won't do anything
 	 */
@@ -0,0 +1,179 @@
+package de.rojer.editablefiles;
+
+import java.util.HashMap;
+
+/**
+ * A codec, which looks up the encoded characters in a primitive table. The
+ * table for decoding is the inverse of the encoding table and is built in a
+ * single pass (together with the check for duplicates). Characters outside of
+ * the tables are left as they are.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class TableCodec implements Codec {
+
+	/**
+	 * The encoded character of every character
+	 */
+	protected char[] forward;
+
+	/**
+	 * The decoded character of every encoded character (null, if it has to be
+	 * rebuilt)
+	 */
+	protected char[] inverse;
+
+	/**
+	 * Create a codec, which doesn't change any character
+	 * 
+	 * @param size the amount of characters in the table
+	 */
+	public TableCodec(int size) {
+		forward = new char[size];
+		for (int i = 0; i < size; i++) {
+			forward[i] = (char) i;
+		}
+	}
+
+	/**
+	 * Create a codec from an encoding list
+	 * 
+	 * @param size     the amount of characters in the table
+	 * @param encoding the list of encoded characters (only the characters that
+	 *                 should be encoded differently)
+	 */
+	public TableCodec(int size, HashMap<Character, Character> encoding) {
+		this(size);
+		for (char target : encoding.keySet()) {
+			set(target, encoding.get(target));
+		}
+	}
+
+	/**
+	 * Changes the encoding of a character
+	 * 
+	 * @param target   the character
+	 * @param encoding the encoding
+	 */
+	public void set(char target, char encoding) {
+		if (target >= forward.length) {
+			char[] newForward = new char[target + 1];
+			for (int i = 0; i < newForward.length; i++) {
+				newForward[i] = i < forward.length ? forward[i] : (char) i;
+			}
+			forward = newForward;
+		}
+		forward[target] = encoding;
+		inverse = null;
+	}
+
+	/**
+	 * Shifts the table in a certain direction (in one pass)
+	 * 
+	 * @param offset the amount of characters to move
+	 */
+	public void shift(int offset) {
+		int size = forward.length;
+		char[] newForward = new char[size];
+		for (int i = 0; i < size; i++) {
+			newForward[i] = forward[Math.floorMod(i - offset, size)];
+		}
+		forward = newForward;
+		inverse = null;
+	}
+
+	/**
+	 * Builds the table for decoding and checks for duplicates in a single pass
+	 * 
+	 * @return the first character, which has the same encoding as another
+	 *         character, or -1 if there are no duplicates
+	 */
+	public int validate() {
+		int size = forward.length;
+		for (char c : forward) {
+			size = Math.max(size, c + 1);
+		}
+		char[] newInverse = new char[size];
+		boolean[] used = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			newInverse[i] = (char) i;
+		}
+		int duplicate = -1;
+		for (int i = forward.length - 1; i >= 0; i--) {
+			if (used[forward[i]]) {
+				duplicate = i;
+			}
+			used[forward[i]] = true;
+			newInverse[forward[i]] = (char) i;
+		}
+		inverse = newInverse;
+		return duplicate;
+	}
+
+	/**
+	 * @return the encoding list of this table
+	 */
+	public HashMap<Character, Character> toMap() {
+		HashMap<Character, Character> map = new HashMap<Character, Character>();
+		for (int i = 0; i < forward.length; i++) {
+			map.put((char) i, forward[i]);
+		}
+		return map;
+	}
+
+	/**
+	 * @return the amount of characters in the table
+	 */
+	public int size() {
+		return forward.length;
+	}
+
+	@Override
+	public char encode(char c) {
+		char[] table = forward;
+		return c < table.length ? table[c] : c;
+	}
+
+	@Override
+	public char decode(char c) {
+		char[] table = inverse();
+		return c < table.length ? table[c] : c;
+	}
+
+	@Override
+	public void encode(char[] chars, int offset, int length) {
+		char[] table = forward;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			char c = chars[i];
+			if (c < table.length) {
+				chars[i] = table[c];
+			}
+		}
+	}
+
+	@Override
+	public void decode(char[] chars, int offset, int length) {
+		char[] table = inverse();
+		for (int i = offset, end = offset + length; i < end; i++) {
+			char c = chars[i];
+			if (c < table.length) {
+				chars[i] = table[c];
+			}
+		}
+	}
+
+	/**
+	 * @return the table for decoding (rebuilt, if necessary)
+	 */
+	protected char[] inverse() {
+		char[] table = inverse;
+		if (table == null) {
+			validate();
+			table = inverse;
+		}
+		return table;
+	}
+
+}
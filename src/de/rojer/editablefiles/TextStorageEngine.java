@@ -0,0 +1,1332 @@
+package de.rojer.editablefiles;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores the values as sorted, encoded "path: value" lines in the text file.
+ * The engine owns the modes of the text format: the cached mode, the mapped
+ * mode, the write-ahead log (with its compaction) and the section index. The
+ * concurrent mode and the durability of the file apply to this engine as well.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class TextStorageEngine implements StorageEngine {
+
+	/**
+	 * A sorted source of lines for a merge
+	 */
+	protected static class Cursor {
+
+		/**
+		 * The lines (encoded path -> encoded line or null, if deleted)
+		 */
+		protected final Iterator<Map.Entry<String, String>> lines;
+
+		/**
+		 * Decides, which source wins, if several sources have the same path (the
+		 * highest wins)
+		 */
+		protected final int priority;
+
+		/**
+		 * The current line
+		 */
+		protected Map.Entry<String, String> current;
+
+		/**
+		 * Create a cursor
+		 * 
+		 * @param lines    the lines (encoded path -> encoded line or null)
+		 * @param priority the priority of the source
+		 */
+		protected Cursor(Iterator<Map.Entry<String, String>> lines, int priority) {
+			this.lines = lines;
+			this.priority = priority;
+		}
+
+		/**
+		 * Moves to the next line
+		 * 
+		 * @return false if there are no more lines
+		 */
+		protected boolean advance() {
+			current = lines.hasNext() ? lines.next() : null;
+			return current != null;
+		}
+
+	}
+
+	/**
+	 * Prefixes of the log records
+	 */
+	protected static final char LOG_SET = '+', LOG_DELETE = '-';
+
+	/**
+	 * The file the engine belongs to
+	 */
+	protected EditableFile file;
+
+	/**
+	 * Indicates, whether the contents of the file are kept in memory
+	 */
+	protected boolean cached;
+
+	/**
+	 * The decoded contents of the file (path -> value, typed if the line has a
+	 * type tag), only used in cached mode
+	 */
+	protected volatile TreeMap<String, Object> cache;
+
+	/**
+	 * The modification time and the length of the file, when the cache was loaded
+	 */
+	protected long cacheLastModified, cacheLength;
+
+	/**
+	 * Indicates, whether lookups use a binary search over the memory-mapped file
+	 */
+	protected boolean mapped;
+
+	/**
+	 * The index of the memory-mapped file, only used in mapped mode
+	 */
+	protected volatile MappedIndex mappedIndex;
+
+	/**
+	 * Indicates, whether writes are appended to a write-ahead log
+	 */
+	protected boolean logged;
+
+	/**
+	 * The write-ahead log
+	 */
+	protected File logFile;
+
+	/**
+	 * The records of the log (encoded path -> encoded line or null, if deleted)
+	 */
+	protected TreeMap<String, String> logEntries;
+
+	/**
+	 * The length of the log, when its records were loaded
+	 */
+	protected long logLength;
+
+	/**
+	 * The amount of log records, which triggers a compaction
+	 */
+	protected int compactionThreshold;
+
+	/**
+	 * Compacts the log in the background
+	 */
+	protected ScheduledExecutorService compactor;
+
+	/**
+	 * The version of the file, which the last snapshot kept alive (null, if there
+	 * was no snapshot yet)
+	 */
+	protected FileSnapshot.Generation snapshotGeneration;
+
+	/**
+	 * The index of the sections of the file (null, until a section is read)
+	 */
+	protected volatile SectionIndex sectionIndex;
+
+	/**
+	 * Create a text engine
+	 * 
+	 * @param file the file the engine belongs to
+	 */
+	public TextStorageEngine(EditableFile file) {
+		this.file = file;
+	}
+
+	// Reading
+
+	/**
+	 * Reads the (decoded) value at a certain path from the text file
+	 * 
+	 * @param key the path to the value
+	 * @return the decoded value (typed, if the line has a type tag) or null, if
+	 *         there is no value at that path
+	 */
+	@Override
+	public Object get(String key) {
+		file.lockRead();
+		try {
+			if (logged) {
+				String encodedPath = file.encode(key + ": ");
+				synchronized (this) {
+					refreshLog();
+					if (logEntries.containsKey(encodedPath)) {
+						String line = logEntries.get(encodedPath);
+						return line == null ? null : file.valueOf(line);
+					}
+				}
+			}
+			if (cached) {
+				if (!isCacheValid()) {
+					loadCache();
+				}
+				TreeMap<String, Object> current = cache;
+				if (current != null) {
+					return current.get(key);
+				}
+			}
+			if (mapped) {
+				try {
+					return findMappedValue(key);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			return scanValue(key);
+		} finally {
+			file.unlockRead();
+		}
+	}
+
+	/**
+	 * Reads the values of many paths from the text file. The paths are sorted and
+	 * the file is read only once (a single merge pass).
+	 * 
+	 * @param keys the paths to the values
+	 * @return the decoded values (typed, if the lines have type tags) of all
+	 *         paths, which were found (path -> value)
+	 */
+	@Override
+	public Map<String, Object> getAll(Collection<String> keys) {
+		HashMap<String, Object> result = new HashMap<String, Object>();
+		file.lockRead();
+		try {
+			TreeMap<String, String> pending = new TreeMap<String, String>();
+			for (String key : keys) {
+				pending.put(file.encode(key + ": "), key);
+			}
+			if (logged) {
+				synchronized (this) {
+					refreshLog();
+					Iterator<Map.Entry<String, String>> it = pending.entrySet().iterator();
+					while (it.hasNext()) {
+						Map.Entry<String, String> request = it.next();
+						if (logEntries.containsKey(request.getKey())) {
+							String line = logEntries.get(request.getKey());
+							if (line != null) {
+								result.put(request.getValue(), file.valueOf(line));
+							}
+							it.remove();
+						}
+					}
+				}
+			}
+			if (pending.isEmpty()) {
+				return result;
+			}
+			if (cached || mapped) {
+				for (String key : pending.values()) {
+					Object value = get(key);
+					if (value != null) {
+						result.put(key, value);
+					}
+				}
+				return result;
+			}
+			FileReader fr = new FileReader(file.file);
+			BufferedReader br = new BufferedReader(fr);
+			Iterator<String> it = br.lines().iterator();
+			Iterator<Map.Entry<String, String>> requests = pending.entrySet().iterator();
+			Map.Entry<String, String> request = requests.next();
+			ArrayList<String> found = new ArrayList<String>();
+			long bytes = 0;
+			while (it.hasNext() && request != null) {
+				String text = it.next();
+				bytes += text.length() + 1;
+				String oldPath = file.pathOf(text);
+				while (request != null && request.getKey().compareTo(oldPath) <= -1) {
+					request = requests.hasNext() ? requests.next() : null;
+				}
+				if (request != null && request.getKey().equals(oldPath)) {
+					found.add(request.getValue());
+					found.add(text);
+				}
+			}
+			br.close();
+			file.metrics.addBytesRead(bytes);
+			long start = System.nanoTime();
+			for (int i = 0; i < found.size(); i += 2) {
+				result.put(found.get(i), file.valueOf(found.get(i + 1)));
+			}
+			file.metrics.addDecodeTime(System.nanoTime() - start);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			file.unlockRead();
+		}
+		return result;
+	}
+
+	/**
+	 * Searches the file for the value at a certain path. Stops as soon as the
+	 * sorted position of the path is passed.
+	 * 
+	 * @param path the path to the value
+	 * @return the decoded value (typed, if the line has a type tag) or null, if
+	 *         there is no value at that path
+	 */
+	protected Object scanValue(String path) {
+		Object result = null;
+		try {
+			FileReader fr = new FileReader(file.file);
+			BufferedReader br = new BufferedReader(fr);
+			path = file.encode(path + ": ");
+			String text;
+			long bytes = 0;
+			while ((text = br.readLine()) != null) {
+				bytes += text.length() + 1;
+				int comparison = file.comparePath(path, text);
+				if (comparison <= -1) {
+					break;
+				} else if (comparison == 0) {
+					result = file.valueOf(text);
+				}
+			}
+			br.close();
+			file.metrics.addBytesRead(bytes);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return result;
+	}
+
+	/**
+	 * Opens the text file for a scan
+	 * 
+	 * @param fromKey the first path (inclusive, null if unbounded)
+	 * @param toKey   the last path (exclusive, null if unbounded)
+	 * @param prefix  the prefix of all paths (null if unbounded)
+	 * @return the entries
+	 */
+	@Override
+	public EntryIterator scan(String fromKey, String toKey, String prefix) {
+		String from = fromKey == null ? null : file.encode(fromKey + ": ");
+		String to = toKey == null ? null : file.encode(toKey + ": ");
+		String encodedPrefix = prefix == null ? null : file.encode(prefix);
+		file.lockRead();
+		try {
+			TreeMap<String, String> records = new TreeMap<String, String>();
+			if (logged) {
+				synchronized (this) {
+					refreshLog();
+					String lower = from != null ? from : encodedPrefix;
+					records.putAll(lower == null ? logEntries : logEntries.tailMap(lower));
+				}
+			}
+			BufferedReader reader = null;
+			try {
+				reader = new BufferedReader(new FileReader(file.file));
+			} catch (FileNotFoundException e) {
+				e.printStackTrace();
+			}
+			return new EntryIterator(file, reader, records, from, to, encodedPrefix);
+		} finally {
+			file.unlockRead();
+		}
+	}
+
+	/**
+	 * Reads all (encoded) lines of the file
+	 * 
+	 * @return the lines
+	 * @throws IOException when the file couldn't be read
+	 */
+	protected ArrayList<String> readLines() throws IOException {
+		ArrayList<String> lines = new ArrayList<String>();
+		FileReader fr = new FileReader(file.file);
+		BufferedReader br = new BufferedReader(fr);
+		Iterator<String> it = br.lines().iterator();
+		long bytes = 0;
+		while (it.hasNext()) {
+			String line = it.next();
+			lines.add(line);
+			bytes += line.length() + 1;
+		}
+		br.close();
+		file.metrics.addBytesRead(bytes);
+		return lines;
+	}
+
+	/**
+	 * Reads the undecoded contents of the text file (see
+	 * {@link EditableFile#returnContentsAsString(boolean)})
+	 * 
+	 * @return all lines of the file, each followed by '\n', and a final '\0'
+	 */
+	protected String readContents() {
+		file.lockRead();
+		try {
+			StringBuilder information = new StringBuilder();
+			try {
+				FileReader fr = new FileReader(file.file);
+				BufferedReader br = new BufferedReader(fr);
+				Iterator<String> it = br.lines().iterator();
+				while (it.hasNext()) {
+					information.append(it.next()).append('\n');
+				}
+				information.append('\0');
+				br.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return information.toString();
+		} finally {
+			file.unlockRead();
+		}
+	}
+
+	// Writing
+
+	/**
+	 * Writes a value to its sorted position in the text file (or replaces the old
+	 * value)
+	 * 
+	 * @param key   the path for the value
+	 * @param value the value (an Integer, Float, Double, Boolean, Character or
+	 *              String)
+	 */
+	@Override
+	public void put(String key, Object value) {
+		changeLine(file.encode(key + ": "), file.encodeLine(key, value));
+	}
+
+	@Override
+	public void putAll(Map<String, Object> changes) {
+		long start = System.nanoTime();
+		TreeMap<String, String> lines = new TreeMap<String, String>();
+		for (Map.Entry<String, Object> change : changes.entrySet()) {
+			lines.put(file.encode(change.getKey() + ": "),
+					change.getValue() == null ? null : file.encodeLine(change.getKey(), change.getValue()));
+		}
+		file.metrics.addEncodeTime(System.nanoTime() - start);
+		commitLines(lines);
+	}
+
+	@Override
+	public void delete(String key) {
+		changeLine(file.encode(key + ": "), null);
+	}
+
+	/**
+	 * Clears the whole text file (and the write-ahead log)
+	 */
+	@Override
+	public void clear() {
+		file.lockWrite();
+		try {
+			try {
+				writeLines(new ArrayList<String>());
+				if (logFile != null && logFile.exists()) {
+					new FileWriter(logFile).close();
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			cache = null;
+			mappedIndex = null;
+			logEntries = null;
+			file.touchBloomFilter();
+		} finally {
+			file.unlockWrite();
+		}
+	}
+
+	/**
+	 * Writes the records of the write-ahead log into the file (if the file is in
+	 * write-ahead log mode)
+	 */
+	@Override
+	public void flush() {
+		if (logged) {
+			compact();
+		}
+	}
+
+	/**
+	 * Sets or removes a single line
+	 * 
+	 * @param encodedPath the encoded path of the line
+	 * @param line        the new encoded line or null to remove the line
+	 */
+	protected void changeLine(String encodedPath, String line) {
+		TreeMap<String, String> changes = new TreeMap<String, String>();
+		changes.put(encodedPath, line);
+		applyChanges(changes);
+	}
+
+	/**
+	 * Applies changes (with {@link Durability#GROUP} together with the changes of
+	 * other threads)
+	 * 
+	 * @param changes the changes (encoded path -> encoded line or null)
+	 */
+	protected void applyChanges(TreeMap<String, String> changes) {
+		GroupCommit group = file.groupCommit;
+		if (file.durability == Durability.GROUP && group != null) {
+			group.commit(changes);
+		} else {
+			applyChangesNow(changes);
+		}
+	}
+
+	/**
+	 * Applies changes, either directly to the file or (in write-ahead log mode) by
+	 * appending records to the log
+	 * 
+	 * @param changes the changes (encoded path -> encoded line or null)
+	 */
+	protected void applyChangesNow(TreeMap<String, String> changes) {
+		file.lockWrite();
+		try {
+			if (logged) {
+				appendLog(changes);
+			} else {
+				mergeLines(changes);
+			}
+		} finally {
+			file.unlockWrite();
+		}
+	}
+
+	/**
+	 * Applies changes to the text file atomically (together with the records of
+	 * the write-ahead log, if there are any)
+	 * 
+	 * @param changes the changes (encoded path -> encoded line or null)
+	 */
+	protected void commitLines(TreeMap<String, String> changes) {
+		file.lockWrite();
+		try {
+			if (!logged) {
+				mergeLines(changes);
+				return;
+			}
+			synchronized (this) {
+				refreshLog();
+				TreeMap<String, String> allChanges = new TreeMap<String, String>(logEntries);
+				allChanges.putAll(changes);
+				mergeLines(allChanges);
+				try {
+					new FileWriter(logFile).close();
+				} catch (IOException e) {
+					e.printStackTrace();
+					return;
+				}
+				logEntries = new TreeMap<String, String>();
+				logLength = logFile.length();
+				file.touchBloomFilter();
+			}
+		} finally {
+			file.unlockWrite();
+		}
+	}
+
+	/**
+	 * Merges a set of changes into the file in a single sorted pass. Lines whose
+	 * path is part of the changes are replaced (or removed, if the new line is
+	 * null), new lines are inserted at their sorted position.
+	 * 
+	 * @param changes the changes (encoded path -> encoded line or null), sorted
+	 *                like the file
+	 */
+	protected void mergeLines(TreeMap<String, String> changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+		boolean wasValid = isCacheValid();
+		try {
+			ArrayList<String> lines = new ArrayList<String>();
+			Iterator<Map.Entry<String, String>> pending = changes.entrySet().iterator();
+			Map.Entry<String, String> next = pending.next();
+			for (String oldText : readLines()) {
+				String oldPath = file.pathOf(oldText);
+				while (next != null && next.getKey().compareTo(oldPath) <= -1) {
+					if (next.getValue() != null) {
+						lines.add(next.getValue());
+					}
+					next = pending.hasNext() ? pending.next() : null;
+				}
+				if (!changes.containsKey(oldPath)) {
+					lines.add(oldText);
+				} else if (next != null && next.getKey().equals(oldPath)) {
+					if (next.getValue() != null) {
+						lines.add(next.getValue());
+					}
+					next = pending.hasNext() ? pending.next() : null;
+				}
+			}
+			while (next != null) {
+				if (next.getValue() != null) {
+					lines.add(next.getValue());
+				}
+				next = pending.hasNext() ? pending.next() : null;
+			}
+			writeLines(lines);
+		} catch (IOException e) {
+			e.printStackTrace();
+			wasValid = false;
+		}
+		mappedIndex = null;
+		if (wasValid) {
+			long start = System.nanoTime();
+			for (Map.Entry<String, String> change : changes.entrySet()) {
+				String key = file.keyOf(change.getKey());
+				if (change.getValue() == null) {
+					cache.remove(key);
+				} else {
+					cache.put(key, file.valueOf(change.getValue()));
+				}
+			}
+			file.metrics.addDecodeTime(System.nanoTime() - start);
+			stampCache();
+		} else {
+			cache = null;
+		}
+	}
+
+	/**
+	 * Replaces the file with the merge of its lines, the records of the
+	 * write-ahead log and other sorted sources in a single streaming pass and
+	 * clears the log. Of several lines with the same path, the line of the latest
+	 * source wins.
+	 * 
+	 * @param sources the sources (encoded path -> encoded line or null, if
+	 *                deleted), each sorted like the file
+	 * @throws IOException when a file couldn't be read or written
+	 */
+	protected void mergeSources(List<Iterator<Map.Entry<String, String>>> sources) throws IOException {
+		file.lockWrite();
+		try {
+			synchronized (this) {
+				BufferedReader reader = null;
+				try {
+					ArrayList<Cursor> cursors = new ArrayList<Cursor>();
+					if (file.file.exists()) {
+						reader = new BufferedReader(new FileReader(file.file));
+						cursors.add(new Cursor(fileLines(reader), 0));
+					}
+					if (logged) {
+						refreshLog();
+						cursors.add(new Cursor(new TreeMap<String, String>(logEntries).entrySet().iterator(), 1));
+					}
+					for (Iterator<Map.Entry<String, String>> source : sources) {
+						cursors.add(new Cursor(source, cursors.size()));
+					}
+					writeLines(mergedLines(cursors));
+				} finally {
+					if (reader != null) {
+						reader.close();
+					}
+				}
+				cache = null;
+				mappedIndex = null;
+				if (logged) {
+					new FileWriter(logFile).close();
+					logEntries = new TreeMap<String, String>();
+					logLength = logFile.length();
+					file.touchBloomFilter();
+				}
+			}
+		} finally {
+			file.unlockWrite();
+		}
+	}
+
+	/**
+	 * Merges sorted sources. Of several lines with the same path, the line of the
+	 * source with the highest priority wins (deleted lines are skipped).
+	 * 
+	 * @param cursors the sources
+	 * @return the merged lines
+	 */
+	protected Iterator<String> mergedLines(ArrayList<Cursor> cursors) {
+		PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>(Math.max(1, cursors.size()), (a, b) -> {
+			int comparison = a.current.getKey().compareTo(b.current.getKey());
+			return comparison != 0 ? comparison : Integer.compare(b.priority, a.priority);
+		});
+		for (Cursor cursor : cursors) {
+			if (cursor.advance()) {
+				queue.add(cursor);
+			}
+		}
+		return new Iterator<String>() {
+
+			/**
+			 * The next merged line
+			 */
+			private String next;
+
+			@Override
+			public boolean hasNext() {
+				while (next == null && !queue.isEmpty()) {
+					Cursor winner = queue.poll();
+					String path = winner.current.getKey();
+					next = winner.current.getValue();
+					if (winner.advance()) {
+						queue.add(winner);
+					}
+					while (!queue.isEmpty() && queue.peek().current.getKey().equals(path)) {
+						Cursor loser = queue.poll();
+						if (loser.advance()) {
+							queue.add(loser);
+						}
+					}
+				}
+				return next != null;
+			}
+
+			@Override
+			public String next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				String line = next;
+				next = null;
+				return line;
+			}
+
+		};
+	}
+
+	/**
+	 * @param reader the reader of the file
+	 * @return the lines of the file (encoded path -> encoded line)
+	 */
+	protected Iterator<Map.Entry<String, String>> fileLines(BufferedReader reader) {
+		Iterator<String> lines = reader.lines().iterator();
+		return new Iterator<Map.Entry<String, String>>() {
+
+			@Override
+			public boolean hasNext() {
+				return lines.hasNext();
+			}
+
+			@Override
+			public Map.Entry<String, String> next() {
+				String line = lines.next();
+				file.metrics.addBytesRead(line.length() + 1);
+				return new AbstractMap.SimpleImmutableEntry<String, String>(file.pathOf(line), line);
+			}
+
+		};
+	}
+
+	/**
+	 * Replaces the contents of the file atomically: the lines are written to a
+	 * temporary file, which is then renamed to the file. A crash can never leave
+	 * an empty or half-written file behind. Unless the durability is
+	 * {@link Durability#NONE}, the temporary file and the folder are forced to the
+	 * disk.
+	 * 
+	 * @param lines the (encoded) lines to write
+	 * @throws IOException when the file couldn't be written
+	 */
+	protected void writeLines(List<String> lines) throws IOException {
+		writeLines(lines.iterator());
+	}
+
+	/**
+	 * Replaces the contents of the file atomically with lines, which are produced
+	 * while they are written (see {@link #writeLines(List)})
+	 * 
+	 * @param lines the (encoded) lines to write
+	 * @throws IOException when the file couldn't be written
+	 */
+	protected void writeLines(Iterator<String> lines) throws IOException {
+		File folder = file.file.getAbsoluteFile().getParentFile();
+		File temp = EditableFile.createTempFile(folder, file.fileName, ".tmp");
+		try {
+			FileOutputStream fos = new FileOutputStream(temp);
+			PrintWriter pw = new PrintWriter(new OutputStreamWriter(fos));
+			long bytes = 0;
+			while (lines.hasNext()) {
+				String s = lines.next();
+				pw.println(s);
+				bytes += s.length() + 1;
+			}
+			pw.flush();
+			file.metrics.addBytesWritten(bytes);
+			if (file.durability != Durability.NONE) {
+				fos.getFD().sync();
+			}
+			pw.close();
+			try {
+				Files.setPosixFilePermissions(temp.toPath(), Files.getPosixFilePermissions(file.file.toPath()));
+			} catch (UnsupportedOperationException | IOException e) {
+				// keep the default permissions
+			}
+			try {
+				Files.move(temp.toPath(), file.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			if (file.durability != Durability.NONE) {
+				syncFolder(folder);
+			}
+			file.touchBloomFilter();
+		} finally {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Forces the entries of a folder to the disk (not supported on every system)
+	 * 
+	 * @param folder the folder
+	 */
+	protected void syncFolder(File folder) {
+		try {
+			FileChannel channel = FileChannel.open(folder.toPath(), StandardOpenOption.READ);
+			try {
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+		} catch (IOException e) {
+			// not supported on this system
+		}
+	}
+
+	/**
+	 * Forgets everything, which was read from the file (e.g. after the codec of
+	 * the file changed)
+	 */
+	protected synchronized void invalidate() {
+		logEntries = null;
+		cache = null;
+		mappedIndex = null;
+		sectionIndex = null;
+	}
+
+	/**
+	 * Stops the compaction, removes the write-ahead log and forgets everything,
+	 * which was read from the file (when the file is deleted)
+	 */
+	protected synchronized void discard() {
+		stopCompaction();
+		if (logFile != null) {
+			logFile.delete();
+		}
+		invalidate();
+	}
+
+	// Snapshots
+
+	/**
+	 * Takes a snapshot by linking the current version of the text file (see
+	 * {@link EditableFile#snapshot()}). The records of the write-ahead log are
+	 * copied into the snapshot.
+	 * 
+	 * @return the snapshot
+	 */
+	protected FileSnapshot snapshot() {
+		file.lockRead();
+		try {
+			synchronized (this) {
+				TreeMap<String, String> records = new TreeMap<String, String>();
+				if (logged) {
+					refreshLog();
+					records.putAll(logEntries);
+				}
+				try {
+					snapshotGeneration = FileSnapshot.link(file, snapshotGeneration);
+				} catch (IOException e) {
+					e.printStackTrace();
+					return new FileSnapshot(file, null, copyLines(records));
+				}
+				return new FileSnapshot(file, snapshotGeneration, records);
+			}
+		} finally {
+			file.unlockRead();
+		}
+	}
+
+	/**
+	 * Copies all lines of the text file into memory (for snapshots, if the file
+	 * couldn't be linked)
+	 * 
+	 * @param records the records of the write-ahead log, which overlay the lines
+	 * @return the lines (encoded path -> encoded line or null)
+	 */
+	protected TreeMap<String, String> copyLines(TreeMap<String, String> records) {
+		TreeMap<String, String> lines = new TreeMap<String, String>();
+		try {
+			if (file.file.exists()) {
+				for (String line : readLines()) {
+					lines.put(file.pathOf(line), line);
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		lines.putAll(records);
+		return lines;
+	}
+
+	// Sections
+
+	/**
+	 * Returns the index of the sections of the text file (the file is indexed
+	 * again, if it was changed since it was indexed)
+	 * 
+	 * @return the index
+	 * @throws IOException when the file couldn't be read
+	 */
+	protected SectionIndex sectionIndex() throws IOException {
+		SectionIndex index = sectionIndex;
+		if (index == null || !index.isValid(file.file)) {
+			index = new SectionIndex(file);
+			sectionIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Opens the text file together with an index, which fits the opened version
+	 * of the file
+	 * 
+	 * @param index receives the index
+	 * @return the opened file or null, if the file was changed too often while it
+	 *         was opened
+	 * @throws IOException when the file couldn't be read
+	 */
+	protected FileChannel openIndexed(SectionIndex[] index) throws IOException {
+		for (int attempt = 0; attempt < 3; attempt++) {
+			index[0] = sectionIndex();
+			FileChannel channel = FileChannel.open(file.file.toPath(), StandardOpenOption.READ);
+			if (index[0].isValid(file.file)) {
+				return channel;
+			}
+			channel.close();
+		}
+		return null;
+	}
+
+	/**
+	 * Opens the text file at the start of a section for a scan
+	 * 
+	 * @param section       the name of the section
+	 * @param encodedPrefix the encoded prefix of all paths of the section
+	 * @return the entries
+	 * @throws UncheckedIOException when the text file couldn't be read (the scan
+	 *                              would miss its values)
+	 */
+	protected EntryIterator openSection(String section, String encodedPrefix) {
+		file.lockRead();
+		try {
+			TreeMap<String, String> records = new TreeMap<String, String>();
+			if (logged) {
+				synchronized (this) {
+					refreshLog();
+					records.putAll(logEntries.tailMap(encodedPrefix));
+				}
+			}
+			BufferedReader reader = null;
+			if (file.file.exists()) {
+				FileChannel channel = null;
+				try {
+					SectionIndex[] index = new SectionIndex[1];
+					channel = openIndexed(index);
+					if (channel == null) {
+						reader = new BufferedReader(new FileReader(file.file));
+					} else {
+						SectionIndex.Section found = index[0].find(section);
+						if (found == null) {
+							channel.close();
+						} else {
+							channel.position(found.start);
+							reader = new BufferedReader(Channels.newReader(channel, Charset.defaultCharset().name()));
+						}
+					}
+				} catch (IOException e) {
+					if (channel != null) {
+						try {
+							channel.close();
+						} catch (IOException closeFailure) {
+							e.addSuppressed(closeFailure);
+						}
+					}
+					throw new UncheckedIOException(e);
+				}
+			}
+			return new EntryIterator(file, reader, records, null, null, encodedPrefix.isEmpty() ? null : encodedPrefix);
+		} finally {
+			file.unlockRead();
+		}
+	}
+
+	/**
+	 * Adds the children of a section with the index of the text file (only, if
+	 * the write-ahead log has no records in the section). When the index can't be
+	 * read, the failure is logged and the children are found with a scan.
+	 * 
+	 * @param section  the name of the section
+	 * @param prefix   the decoded prefix of all paths of the section
+	 * @param children the names of the children
+	 * @return false if the children have to be found with a scan
+	 */
+	protected boolean addIndexedChildren(String section, String prefix, Collection<String> children) {
+		file.lockRead();
+		try {
+			if (logged) {
+				synchronized (this) {
+					refreshLog();
+					String encodedPrefix = file.encode(prefix);
+					String first = logEntries.ceilingKey(encodedPrefix);
+					if (first != null && first.startsWith(encodedPrefix)) {
+						return false;
+					}
+				}
+			}
+			if (!file.file.exists()) {
+				return true;
+			}
+			SectionIndex[] index = new SectionIndex[1];
+			FileChannel channel = openIndexed(index);
+			if (channel == null) {
+				return false;
+			}
+			try {
+				SectionIndex.Section found = index[0].find(section);
+				if (found != null) {
+					index[0].addChildren(file, channel, found, prefix, children);
+				}
+			} finally {
+				channel.close();
+			}
+			return true;
+		} catch (IOException e) {
+			file.logger.log("Couldn't read the section index, scanning the section instead: " + e);
+			children.clear();
+			return false;
+		} finally {
+			file.unlockRead();
+		}
+	}
+
+	// Cached mode
+
+	/**
+	 * Turns the cached mode on or off (see {@link EditableFile#setCached(boolean)})
+	 * 
+	 * @param cached true to keep the contents of the file in memory
+	 */
+	public void setCached(boolean cached) {
+		this.cached = cached;
+		if (!cached) {
+			cache = null;
+		}
+	}
+
+	/**
+	 * @return true if the engine is in cached mode
+	 */
+	public boolean isCached() {
+		return cached;
+	}
+
+	/**
+	 * Forces the cache to be reloaded from the file on the next lookup
+	 */
+	public void refreshCache() {
+		cache = null;
+	}
+
+	/**
+	 * Checks if the cache still represents the contents of the file
+	 * 
+	 * @return true if the cache is loaded and the file didn't change since
+	 */
+	protected boolean isCacheValid() {
+		return cached && cache != null && file.file.lastModified() == cacheLastModified
+				&& file.file.length() == cacheLength;
+	}
+
+	/**
+	 * Parses the whole file into the cache
+	 */
+	protected void loadCache() {
+		TreeMap<String, Object> newCache = new TreeMap<String, Object>();
+		long lastModified = file.file.lastModified(), length = file.file.length();
+		try {
+			ArrayList<String> lines = readLines();
+			long start = System.nanoTime();
+			for (String text : lines) {
+				newCache.put(file.keyOf(file.pathOf(text)), file.valueOf(text));
+			}
+			file.metrics.addDecodeTime(System.nanoTime() - start);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		cache = newCache;
+		cacheLastModified = lastModified;
+		cacheLength = length;
+	}
+
+	/**
+	 * Remembers the current state of the file as the one represented by the cache
+	 */
+	protected void stampCache() {
+		cacheLastModified = file.file.lastModified();
+		cacheLength = file.file.length();
+	}
+
+	// Mapped mode
+
+	/**
+	 * Turns the mapped mode on or off (see {@link EditableFile#setMapped(boolean)})
+	 * 
+	 * @param mapped true to map the file into memory
+	 */
+	public void setMapped(boolean mapped) {
+		this.mapped = mapped;
+		if (!mapped) {
+			mappedIndex = null;
+		}
+	}
+
+	/**
+	 * @return true if the engine is in mapped mode
+	 */
+	public boolean isMapped() {
+		return mapped;
+	}
+
+	/**
+	 * Searches the value at a certain path with the index of the memory-mapped
+	 * file (the file is mapped again, if it was changed)
+	 * 
+	 * @param path the path to the value
+	 * @return the decoded value or null, if there is no value at that path
+	 * @throws IOException when the file couldn't be mapped
+	 */
+	protected Object findMappedValue(String path) throws IOException {
+		MappedIndex index = mappedIndex;
+		if (index == null || !index.isValid(file.file)) {
+			index = new MappedIndex(file.file, file.codec);
+			mappedIndex = index;
+		}
+		String line = index.find(file.encode(path + ": ").getBytes(Charset.defaultCharset()),
+				Charset.defaultCharset());
+		return line == null ? null : file.valueOf(line);
+	}
+
+	// Write-ahead log mode
+
+	/**
+	 * Turns the write-ahead log mode on or off (see
+	 * {@link EditableFile#setLogged(boolean)}). Turning the mode off compacts the
+	 * log.
+	 * 
+	 * @param logged true to use a write-ahead log
+	 */
+	public void setLogged(boolean logged) {
+		if (this.logged && !logged) {
+			compact();
+		}
+		this.logged = logged;
+	}
+
+	/**
+	 * @return true if the engine is in write-ahead log mode
+	 */
+	public boolean isLogged() {
+		return logged;
+	}
+
+	/**
+	 * Sets the amount of records in the log, which triggers a compaction
+	 * 
+	 * @param compactionThreshold the amount of records (smaller or equal 0 to
+	 *                            disable)
+	 */
+	public void setCompactionThreshold(int compactionThreshold) {
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	/**
+	 * Starts compacting the log in the background
+	 * 
+	 * @param interval the time between two compactions (in milliseconds)
+	 */
+	public synchronized void startCompaction(long interval) {
+		stopCompaction();
+		compactor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "EditableFile-compactor-" + file.fileName);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		compactor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				compact();
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops compacting the log in the background
+	 */
+	public synchronized void stopCompaction() {
+		if (compactor != null) {
+			compactor.shutdown();
+			compactor = null;
+		}
+	}
+
+	/**
+	 * Merges all records of the log into the file (in a single pass) and clears
+	 * the log
+	 */
+	public void compact() {
+		file.lockWrite();
+		try {
+			synchronized (this) {
+				refreshLog();
+				if (logEntries.isEmpty()) {
+					return;
+				}
+				mergeLines(logEntries);
+				try {
+					new FileWriter(logFile).close();
+				} catch (IOException e) {
+					e.printStackTrace();
+					return;
+				}
+				logEntries = new TreeMap<String, String>();
+				logLength = logFile.length();
+				file.touchBloomFilter();
+			}
+		} finally {
+			file.unlockWrite();
+		}
+	}
+
+	/**
+	 * Appends records to the log (with a single write)
+	 * 
+	 * @param changes the changes (encoded path -> encoded line or null)
+	 */
+	protected synchronized void appendLog(TreeMap<String, String> changes) {
+		refreshLog();
+		try {
+			FileOutputStream fos = new FileOutputStream(logFile, true);
+			PrintWriter pw = new PrintWriter(new OutputStreamWriter(fos));
+			long bytes = 0;
+			for (Map.Entry<String, String> change : changes.entrySet()) {
+				String record = change.getValue() == null ? LOG_DELETE + change.getKey() : LOG_SET + change.getValue();
+				pw.println(record);
+				bytes += record.length() + 1;
+			}
+			pw.flush();
+			file.metrics.addBytesWritten(bytes);
+			if (file.durability != Durability.NONE) {
+				fos.getFD().sync();
+			}
+			pw.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		logEntries.putAll(changes);
+		logLength = logFile.length();
+		file.touchBloomFilter();
+		if (compactionThreshold > 0 && logEntries.size() >= compactionThreshold) {
+			if (compactor != null) {
+				compactor.execute(new Runnable() {
+					@Override
+					public void run() {
+						compact();
+					}
+				});
+			} else {
+				compact();
+			}
+		}
+	}
+
+	/**
+	 * (Re-)Loads the records of the log, if it was changed by somebody else
+	 */
+	protected synchronized void refreshLog() {
+		if (logFile == null) {
+			logFile = new File(file.file.getPath() + ".log");
+		}
+		if (logEntries != null && logFile.length() == logLength) {
+			return;
+		}
+		TreeMap<String, String> entries = new TreeMap<String, String>();
+		long length = logFile.length();
+		if (logFile.exists()) {
+			try {
+				FileReader fr = new FileReader(logFile);
+				BufferedReader br = new BufferedReader(fr);
+				Iterator<String> it = br.lines().iterator();
+				while (it.hasNext()) {
+					String record = it.next();
+					if (record.isEmpty()) {
+						continue;
+					}
+					String line = record.substring(1);
+					if (record.charAt(0) == LOG_SET) {
+						entries.put(file.pathOf(line), line);
+					} else if (record.charAt(0) == LOG_DELETE) {
+						entries.put(line, null);
+					}
+				}
+				br.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		logEntries = entries;
+		logLength = length;
+	}
+
+}
@@ -0,0 +1,385 @@
+package de.rojer.editablefiles;
+
+/**
+ * Checks and parses values straight from a range of characters, without
+ * creating temporary strings and without throwing (and catching) exceptions.
+ * The accepted syntax is the same as the one of {@link Integer#parseInt},
+ * {@link Long#parseLong}, {@link Float#parseFloat}, {@link Double#parseDouble}
+ * and {@link Boolean#parseBoolean}. Numbers, which can't be converted exactly
+ * with a single multiplication or division, are handed over to the JDK.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public final class ValueParser {
+
+	/**
+	 * The powers of ten, which can be represented exactly as a double
+	 */
+	private static final double[] DOUBLE_POWERS = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * The powers of ten, which can be represented exactly as a float
+	 */
+	private static final float[] FLOAT_POWERS = { 1e0F, 1e1F, 1e2F, 1e3F, 1e4F, 1e5F, 1e6F, 1e7F, 1e8F, 1e9F,
+			1e10F };
+
+	private ValueParser() {
+	}
+
+	/**
+	 * Checks if a range can be parsed into an integer
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return true if the range is an integer
+	 */
+	public static boolean isInt(CharSequence text, int from, int to) {
+		return isWholeNumber(text, from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Checks if a range can be parsed into a long
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return true if the range is a long
+	 */
+	public static boolean isLong(CharSequence text, int from, int to) {
+		return isWholeNumber(text, from, to, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Parses a range into an integer (check it with
+	 * {@link #isInt(CharSequence, int, int)} first)
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return the integer value
+	 */
+	public static int parseInt(CharSequence text, int from, int to) {
+		return (int) parseLong(text, from, to);
+	}
+
+	/**
+	 * Parses a range into a long (check it with
+	 * {@link #isLong(CharSequence, int, int)} first)
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return the long value
+	 */
+	public static long parseLong(CharSequence text, int from, int to) {
+		boolean negative = text.charAt(from) == '-';
+		int i = (negative || text.charAt(from) == '+') ? from + 1 : from;
+		long result = 0;
+		for (; i < to; i++) {
+			result = result * 10 - Character.digit(text.charAt(i), 10);
+		}
+		return negative ? result : -result;
+	}
+
+	/**
+	 * Checks if a range is a whole number inside of some bounds
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @param min  the smallest allowed number
+	 * @param max  the greatest allowed number
+	 * @return true if the range is a whole number inside of the bounds
+	 */
+	private static boolean isWholeNumber(CharSequence text, int from, int to, long min, long max) {
+		if (from >= to) {
+			return false;
+		}
+		boolean negative = text.charAt(from) == '-';
+		int i = (negative || text.charAt(from) == '+') ? from + 1 : from;
+		if (i == to) {
+			return false;
+		}
+		long limit = negative ? min : -max;
+		long multiplyLimit = limit / 10;
+		long result = 0;
+		for (; i < to; i++) {
+			int digit = Character.digit(text.charAt(i), 10);
+			if (digit < 0 || result < multiplyLimit) {
+				return false;
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				return false;
+			}
+			result -= digit;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if a range can be parsed into a float/double
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return true if the range is a float/double
+	 */
+	public static boolean isFloat(CharSequence text, int from, int to) {
+		while (from < to && text.charAt(from) <= ' ') {
+			from++;
+		}
+		while (to > from && text.charAt(to - 1) <= ' ') {
+			to--;
+		}
+		if (from < to && (text.charAt(from) == '+' || text.charAt(from) == '-')) {
+			from++;
+		}
+		if (regionMatches(text, from, to, "NaN") || regionMatches(text, from, to, "Infinity")) {
+			return true;
+		}
+		if (from < to && isSuffix(text.charAt(to - 1))) {
+			to--;
+		}
+		if (to - from > 2 && text.charAt(from) == '0'
+				&& (text.charAt(from + 1) == 'x' || text.charAt(from + 1) == 'X')) {
+			return isHexFloat(text, from + 2, to);
+		}
+		int digits = 0, i = from;
+		for (; i < to && isDigit(text.charAt(i)); i++) {
+			digits++;
+		}
+		if (i < to && text.charAt(i) == '.') {
+			for (i++; i < to && isDigit(text.charAt(i)); i++) {
+				digits++;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (i < to && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+			return isExponent(text, i + 1, to);
+		}
+		return i == to;
+	}
+
+	/**
+	 * Checks the part of a hexadecimal float after "0x"
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character (without a suffix)
+	 * @return true if the range is a valid hexadecimal float
+	 */
+	private static boolean isHexFloat(CharSequence text, int from, int to) {
+		int digits = 0, i = from;
+		for (; i < to && Character.digit(text.charAt(i), 16) >= 0 && text.charAt(i) < 128; i++) {
+			digits++;
+		}
+		if (i < to && text.charAt(i) == '.') {
+			for (i++; i < to && Character.digit(text.charAt(i), 16) >= 0 && text.charAt(i) < 128; i++) {
+				digits++;
+			}
+		}
+		return digits > 0 && i < to && (text.charAt(i) == 'p' || text.charAt(i) == 'P')
+				&& isExponent(text, i + 1, to);
+	}
+
+	/**
+	 * Checks the digits of an exponent (with an optional sign)
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return true if the range is a valid exponent
+	 */
+	private static boolean isExponent(CharSequence text, int from, int to) {
+		if (from < to && (text.charAt(from) == '+' || text.charAt(from) == '-')) {
+			from++;
+		}
+		if (from == to) {
+			return false;
+		}
+		for (int i = from; i < to; i++) {
+			if (!isDigit(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parses a range into a double (check it with
+	 * {@link #isFloat(CharSequence, int, int)} first)
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return the double value
+	 */
+	public static double parseDouble(CharSequence text, int from, int to) {
+		double value = parseExactly(text, from, to, false);
+		if (value == value) {
+			return value;
+		}
+		return Double.parseDouble(text.subSequence(from, to).toString());
+	}
+
+	/**
+	 * Parses a range into a float (check it with
+	 * {@link #isFloat(CharSequence, int, int)} first)
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return the float value
+	 */
+	public static float parseFloat(CharSequence text, int from, int to) {
+		double value = parseExactly(text, from, to, true);
+		if (value == value) {
+			return (float) value;
+		}
+		return Float.parseFloat(text.subSequence(from, to).toString());
+	}
+
+	/**
+	 * Parses a decimal number, whose digits and power of ten are both exactly
+	 * representable, so the correctly rounded result is a single multiplication
+	 * or division
+	 * 
+	 * @param text    the characters
+	 * @param from    the index of the first character
+	 * @param to      the index after the last character
+	 * @param asFloat true to calculate the result as a float
+	 * @return the value or NaN, if the number can't be parsed this way
+	 */
+	private static double parseExactly(CharSequence text, int from, int to, boolean asFloat) {
+		while (from < to && text.charAt(from) <= ' ') {
+			from++;
+		}
+		while (to > from && text.charAt(to - 1) <= ' ') {
+			to--;
+		}
+		if (from < to && isSuffix(text.charAt(to - 1))) {
+			to--;
+		}
+		boolean negative = false;
+		if (from < to && (text.charAt(from) == '+' || text.charAt(from) == '-')) {
+			negative = text.charAt(from) == '-';
+			from++;
+		}
+		long mantissa = 0;
+		int digits = 0, power = 0, i = from;
+		boolean point = false;
+		for (; i < to; i++) {
+			char c = text.charAt(i);
+			if (isDigit(c)) {
+				if (mantissa != 0 || c != '0') {
+					if (++digits > 18) {
+						return Double.NaN;
+					}
+					mantissa = mantissa * 10 + (c - '0');
+				}
+				if (point) {
+					power--;
+				}
+			} else if (c == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+		if (i < to) {
+			if (text.charAt(i) != 'e' && text.charAt(i) != 'E') {
+				return Double.NaN;
+			}
+			boolean negativeExponent = false;
+			if (++i < to && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+				negativeExponent = text.charAt(i) == '-';
+				i++;
+			}
+			int exponent = 0;
+			for (; i < to; i++) {
+				if (!isDigit(text.charAt(i)) || exponent > 1000) {
+					return Double.NaN;
+				}
+				exponent = exponent * 10 + (text.charAt(i) - '0');
+			}
+			power += negativeExponent ? -exponent : exponent;
+		}
+		double value;
+		if (asFloat) {
+			if (digits > 7 || power < -10 || power > 10) {
+				return Double.NaN;
+			}
+			value = power < 0 ? mantissa / FLOAT_POWERS[-power] : mantissa * FLOAT_POWERS[power];
+		} else {
+			if (digits > 15 || power < -22 || power > 22) {
+				return Double.NaN;
+			}
+			value = power < 0 ? mantissa / DOUBLE_POWERS[-power] : mantissa * DOUBLE_POWERS[power];
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Checks if a range can be parsed into a boolean
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return true if the range is "true" or "false" (ignoring the case)
+	 */
+	public static boolean isBoolean(CharSequence text, int from, int to) {
+		return regionMatchesIgnoreCase(text, from, to, "true") || regionMatchesIgnoreCase(text, from, to, "false");
+	}
+
+	/**
+	 * Parses a range into a boolean
+	 * 
+	 * @param text the characters
+	 * @param from the index of the first character
+	 * @param to   the index after the last character
+	 * @return true if the range is "true" (ignoring the case)
+	 */
+	public static boolean parseBoolean(CharSequence text, int from, int to) {
+		return regionMatchesIgnoreCase(text, from, to, "true");
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isSuffix(char c) {
+		return c == 'f' || c == 'F' || c == 'd' || c == 'D';
+	}
+
+	private static boolean regionMatches(CharSequence text, int from, int to, String word) {
+		if (to - from != word.length()) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (text.charAt(from + i) != word.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean regionMatchesIgnoreCase(CharSequence text, int from, int to, String word) {
+		if (to - from != word.length()) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (Character.toLowerCase(text.charAt(from + i)) != word.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
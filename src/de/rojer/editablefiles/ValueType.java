@@ -0,0 +1,116 @@
+package de.rojer.editablefiles;
+
+/**
+ * The types of values, which can be stored in a file. Every type has a tag
+ * character, which identifies it in a file.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public enum ValueType {
+
+	INT('I'), FLOAT('F'), DOUBLE('D'), BOOLEAN('B'), CHAR('C'), STRING('S');
+
+	/**
+	 * The character, which identifies the type in a file
+	 */
+	private final char tag;
+
+	private ValueType(char tag) {
+		this.tag = tag;
+	}
+
+	/**
+	 * @return the character, which identifies the type in a file
+	 */
+	public char getTag() {
+		return tag;
+	}
+
+	/**
+	 * Returns the type of a tag
+	 * 
+	 * @param tag the character, which identifies the type
+	 * @return the type or null, if the tag is unknown
+	 */
+	public static ValueType of(char tag) {
+		for (ValueType type : values()) {
+			if (type.tag == tag) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the type of a value
+	 * 
+	 * @param value an Integer, Float, Double, Boolean, Character or String
+	 * @return the type (STRING for all other objects)
+	 */
+	public static ValueType of(Object value) {
+		if (value instanceof Integer) {
+			return INT;
+		} else if (value instanceof Float) {
+			return FLOAT;
+		} else if (value instanceof Double) {
+			return DOUBLE;
+		} else if (value instanceof Boolean) {
+			return BOOLEAN;
+		} else if (value instanceof Character) {
+			return CHAR;
+		}
+		return STRING;
+	}
+
+	/**
+	 * Converts the text of a value into a value of this type (check the text
+	 * first)
+	 * 
+	 * @param text the text of the value
+	 * @return the value
+	 */
+	public Object parse(String text) {
+		switch (this) {
+		case INT:
+			return ValueParser.parseInt(text, 0, text.length());
+		case FLOAT:
+			return ValueParser.parseFloat(text, 0, text.length());
+		case DOUBLE:
+			return ValueParser.parseDouble(text, 0, text.length());
+		case BOOLEAN:
+			return ValueParser.parseBoolean(text, 0, text.length());
+		case CHAR:
+			return text.charAt(0);
+		default:
+			return text;
+		}
+	}
+
+	/**
+	 * Guesses the type of an untyped text. Only types, which turn back into
+	 * exactly the same text, are chosen, so no information is lost.
+	 * 
+	 * @param text the text of the value
+	 * @return the typed value (the text itself, if no other type fits)
+	 */
+	public static Object infer(String text) {
+		int length = text.length();
+		if (ValueParser.isInt(text, 0, length)) {
+			Object value = INT.parse(text);
+			if (value.toString().equals(text)) {
+				return value;
+			}
+		} else if (ValueParser.isFloat(text, 0, length)) {
+			Object value = DOUBLE.parse(text);
+			if (value.toString().equals(text)) {
+				return value;
+			}
+		} else if (text.equals("true") || text.equals("false")) {
+			return BOOLEAN.parse(text);
+		}
+		return text;
+	}
+
+}
@@ -0,0 +1,384 @@
+package de.rojer.editablefiles;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds back the writes of another engine in a dirty buffer. Repeated writes
+ * to the same path only replace the buffered value, so a hot path costs a
+ * single write per flush instead of a rewrite of the file per change. The
+ * buffer is flushed with a single {@link StorageEngine#putAll(Map)} after an
+ * interval, as soon as it holds a certain amount of paths, on
+ * {@link #flush()}, on {@link #close()} and when the virtual machine shuts
+ * down. Reads see the buffered values. Only engines with buffered writes are
+ * kept for the shutdown, so idle engines and their files can be collected.
+ * 
+ * @author Rojer
+ * @version 17.10.2026
+ */
+
+public class WriteBehindEngine implements StorageEngine {
+
+	/**
+	 * Marks a removed path in the buffer
+	 */
+	protected static final Object REMOVED = new Object();
+
+	/**
+	 * The engines, which hold buffered writes (they are flushed, when the virtual
+	 * machine shuts down)
+	 */
+	protected static final IdentityHashMap<WriteBehindEngine, Boolean> PENDING = new IdentityHashMap<WriteBehindEngine, Boolean>();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+			@Override
+			public void run() {
+				ArrayList<WriteBehindEngine> engines;
+				synchronized (PENDING) {
+					engines = new ArrayList<WriteBehindEngine>(PENDING.keySet());
+				}
+				for (WriteBehindEngine engine : engines) {
+					try {
+						engine.flush();
+					} catch (RuntimeException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+		}, "WriteBehindEngine-shutdown"));
+	}
+
+	/**
+	 * The engine the writes are flushed to
+	 */
+	protected StorageEngine target;
+
+	/**
+	 * The buffered writes (path -> value or {@link #REMOVED})
+	 */
+	protected HashMap<String, Object> dirty;
+
+	/**
+	 * The writes, which are being flushed right now (null, if there is no flush)
+	 */
+	protected HashMap<String, Object> flushing;
+
+	/**
+	 * The amount of buffered paths, which triggers a flush
+	 */
+	protected int threshold;
+
+	/**
+	 * Flushes the buffer after the interval
+	 */
+	protected ScheduledExecutorService flusher;
+
+	/**
+	 * Indicates, whether the engine was closed (writes go straight to the
+	 * target). Only changed and checked together with the buffer.
+	 */
+	protected volatile boolean closed;
+
+	/**
+	 * Serializes the flushes
+	 */
+	protected final Object flushLock = new Object();
+
+	/**
+	 * Create a write-behind engine
+	 * 
+	 * @param target    the engine the writes are flushed to
+	 * @param interval  the time between two flushes (in milliseconds, 0 to flush
+	 *                  only on the threshold and on demand)
+	 * @param threshold the amount of buffered paths, which triggers a flush
+	 */
+	public WriteBehindEngine(StorageEngine target, long interval, int threshold) {
+		this.target = target;
+		this.dirty = new HashMap<String, Object>();
+		this.threshold = threshold;
+		setInterval(interval);
+	}
+
+	@Override
+	public Object get(String key) {
+		synchronized (this) {
+			Object value = dirty.get(key);
+			if (value == null && flushing != null) {
+				value = flushing.get(key);
+			}
+			if (value != null) {
+				return value == REMOVED ? null : value;
+			}
+		}
+		return target.get(key);
+	}
+
+	@Override
+	public Map<String, Object> getAll(Collection<String> keys) {
+		HashMap<String, Object> result = new HashMap<String, Object>();
+		ArrayList<String> missing = new ArrayList<String>();
+		synchronized (this) {
+			for (String key : keys) {
+				Object value = dirty.get(key);
+				if (value == null && flushing != null) {
+					value = flushing.get(key);
+				}
+				if (value == null) {
+					missing.add(key);
+				} else if (value != REMOVED) {
+					result.put(key, value);
+				}
+			}
+		}
+		if (!missing.isEmpty()) {
+			result.putAll(target.getAll(missing));
+		}
+		return result;
+	}
+
+	@Override
+	public void put(String key, Object value) {
+		buffer(key, value);
+	}
+
+	@Override
+	public void putAll(Map<String, Object> changes) {
+		boolean buffered, full = false;
+		synchronized (this) {
+			buffered = !closed;
+			if (buffered) {
+				for (Map.Entry<String, Object> change : changes.entrySet()) {
+					dirty.put(change.getKey(), change.getValue() == null ? REMOVED : change.getValue());
+				}
+				markPending();
+				full = dirty.size() >= threshold;
+			}
+		}
+		if (!buffered) {
+			synchronized (flushLock) {
+				target.putAll(changes);
+			}
+		} else if (full) {
+			flushBuffer();
+		}
+	}
+
+	@Override
+	public void delete(String key) {
+		buffer(key, REMOVED);
+	}
+
+	/**
+	 * Drops the buffered writes and clears the target
+	 */
+	@Override
+	public void clear() {
+		synchronized (flushLock) {
+			synchronized (this) {
+				dirty.clear();
+				markPending();
+			}
+			target.clear();
+		}
+	}
+
+	/**
+	 * Flushes the buffer first, then scans the target
+	 */
+	@Override
+	public EntryIterator scan(String fromKey, String toKey, String prefix) {
+		flushBuffer();
+		return target.scan(fromKey, toKey, prefix);
+	}
+
+	/**
+	 * Flushes the buffer and the target
+	 */
+	@Override
+	public void flush() {
+		flushBuffer();
+		target.flush();
+	}
+
+	/**
+	 * Stops the flushes after the interval, then flushes the buffer. Later
+	 * writes go straight to the target (once the buffer is written, so they
+	 * can't be overwritten by older buffered values).
+	 */
+	public void close() {
+		synchronized (flushLock) {
+			synchronized (this) {
+				closed = true;
+			}
+			setInterval(0);
+			flush();
+		}
+	}
+
+	/**
+	 * Buffers a single write (or writes it to the target, if the engine is
+	 * closed)
+	 * 
+	 * @param key   the path for the value
+	 * @param value the value or {@link #REMOVED}
+	 */
+	protected void buffer(String key, Object value) {
+		boolean buffered, full = false;
+		synchronized (this) {
+			buffered = !closed;
+			if (buffered) {
+				dirty.put(key, value);
+				markPending();
+				full = dirty.size() >= threshold;
+			}
+		}
+		if (!buffered) {
+			synchronized (flushLock) {
+				if (value == REMOVED) {
+					target.delete(key);
+				} else {
+					target.put(key, value);
+				}
+			}
+		} else if (full) {
+			flushBuffer();
+		}
+	}
+
+	/**
+	 * Writes the buffered writes to the target with a single
+	 * {@link StorageEngine#putAll(Map)}. Until the write is done, reads still
+	 * see the flushed values. If the write fails, the writes are put back into
+	 * the buffer (unless the path was written again since) and the failure is
+	 * rethrown.
+	 */
+	protected void flushBuffer() {
+		synchronized (flushLock) {
+			HashMap<String, Object> changes;
+			synchronized (this) {
+				if (dirty.isEmpty()) {
+					return;
+				}
+				changes = dirty;
+				flushing = changes;
+				dirty = new HashMap<String, Object>();
+			}
+			try {
+				HashMap<String, Object> writes = new HashMap<String, Object>();
+				for (Map.Entry<String, Object> change : changes.entrySet()) {
+					writes.put(change.getKey(), change.getValue() == REMOVED ? null : change.getValue());
+				}
+				target.putAll(writes);
+			} catch (RuntimeException | Error e) {
+				synchronized (this) {
+					// put the writes back, newer writes of the same paths win
+					for (Map.Entry<String, Object> change : changes.entrySet()) {
+						dirty.putIfAbsent(change.getKey(), change.getValue());
+					}
+				}
+				throw e;
+			} finally {
+				synchronized (this) {
+					flushing = null;
+					markPending();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Keeps this engine for the flush on shutdown, as long as it holds buffered
+	 * writes (has to be called, while the buffer is locked)
+	 */
+	protected void markPending() {
+		synchronized (PENDING) {
+			if (dirty.isEmpty()) {
+				PENDING.remove(this);
+			} else {
+				PENDING.put(this, Boolean.TRUE);
+			}
+		}
+	}
+
+	// Getters and setters
+
+	@Override
+	public boolean isPersistent() {
+		return target.isPersistent();
+	}
+
+	/**
+	 * @return the engine the writes are flushed to
+	 */
+	public StorageEngine getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return the amount of buffered paths
+	 */
+	public synchronized int size() {
+		return dirty.size();
+	}
+
+	/**
+	 * Sets the amount of buffered paths, which triggers a flush
+	 * 
+	 * @param threshold the amount of paths
+	 */
+	public void setThreshold(int threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Sets the time between two flushes (restarts the timer)
+	 * 
+	 * @param interval the time in milliseconds (0 to flush only on the threshold
+	 *                 and on demand)
+	 */
+	public synchronized void setInterval(long interval) {
+		if (flusher != null) {
+			flusher.shutdown();
+			flusher = null;
+		}
+		if (interval <= 0 || closed) {
+			return;
+		}
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "WriteBehindEngine-flusher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		// the timer only holds the engine weakly, so an idle engine can be collected
+		WeakReference<WriteBehindEngine> reference = new WeakReference<WriteBehindEngine>(this);
+		executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				WriteBehindEngine engine = reference.get();
+				if (engine == null) {
+					executor.shutdown();
+					return;
+				}
+				try {
+					engine.flushBuffer();
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
+		flusher = executor;
+	}
+
+}
@@ -0,0 +1,92 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the asynchronous file: writes wait for the reads issued
+ * before them and identical running reads are shared
+ */
+
+public class AsyncEditableFileTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ExecutorService executor;
+
+	private CountDownLatch release;
+
+	private AtomicInteger reads;
+
+	private EditableFile file;
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		executor = Executors.newCachedThreadPool();
+		release = new CountDownLatch(1);
+		reads = new AtomicInteger();
+		file = new EditableFile(folder.getRoot().getPath() + "/values.txt") {
+			@Override
+			protected Object readTypedValue(String path) {
+				reads.incrementAndGet();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.readTypedValue(path);
+			}
+		};
+		file.writeInt("a", 1);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void writesWaitForEarlierReads() throws Exception {
+		AsyncEditableFile async = new AsyncEditableFile(file, executor);
+		CompletableFuture<Integer> read = async.getInt("a");
+		CompletableFuture<Void> write = async.writeInt("a", 2);
+		Thread.sleep(100);
+		assertFalse(write.isDone());
+
+		release.countDown();
+		assertEquals(1, (int) read.get(10, TimeUnit.SECONDS));
+		write.get(10, TimeUnit.SECONDS);
+		assertEquals(2, (int) async.getInt("a").get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void identicalRunningReadsAreShared() throws Exception {
+		AsyncEditableFile async = new AsyncEditableFile(file, executor);
+		CompletableFuture<Integer> first = async.getInt("a");
+		CompletableFuture<Integer> second = async.getInt("a");
+		CompletableFuture<String> text = async.getString("a");
+
+		release.countDown();
+		assertEquals(1, (int) first.get(10, TimeUnit.SECONDS));
+		assertEquals(1, (int) second.get(10, TimeUnit.SECONDS));
+		assertEquals("1", text.get(10, TimeUnit.SECONDS));
+		assertEquals(2, reads.get());
+	}
+
+}
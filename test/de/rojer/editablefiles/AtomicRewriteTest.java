@@ -0,0 +1,96 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the atomic rewrite of the text file
+ */
+
+public class AtomicRewriteTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+	}
+
+	@Test
+	public void shortFileNamesCanBeWritten() throws Exception {
+		for (String name : new String[] { "a", "ab", "abc" }) {
+			EditableFile file = new EditableFile(folder.getRoot().getPath() + "/" + name);
+			file.writeInt("x", 1);
+			file.writeString("y", "two");
+			assertEquals(1, new EditableFile(folder.getRoot().getPath() + "/" + name).getInt("x"));
+		}
+	}
+
+	@Test
+	public void rewritesLeaveNoTemporaryFiles() throws Exception {
+		EditableFile file = new EditableFile(folder.getRoot().getPath() + "/a");
+		file.setDurability(Durability.GROUP);
+		for (int i = 0; i < 20; i++) {
+			file.writeInt("key" + i, i);
+		}
+		file.deleteLine("key0");
+		file.batch().commit();
+
+		assertArrayEquals(new String[] { "a" }, folder.getRoot().list());
+		assertEquals(19, Files.readAllLines(new File(folder.getRoot(), "a").toPath()).size());
+	}
+
+	@Test
+	public void rewritesReplaceTheWholeFile() throws Exception {
+		EditableFile file = new EditableFile(folder.getRoot().getPath() + "/values.txt");
+		file.writeString("b", "2");
+		file.writeString("a", "1");
+		file.writeString("b", "3");
+
+		assertEquals(Arrays.asList("a: 1", "b: 3"),
+				Files.readAllLines(new File(folder.getRoot(), "values.txt").toPath()));
+	}
+
+	@Test
+	public void shortBinaryFileNamesCanBeWritten() throws Exception {
+		EditableFile file = new EditableFile(folder.getRoot().getPath() + "/b", StorageEngine.BINARY);
+		file.writeInt("x", 1);
+		file.writeDouble("y", 2.5);
+		EditableFile reopened = new EditableFile(folder.getRoot().getPath() + "/b", StorageEngine.BINARY);
+		assertEquals(1, reopened.getInt("x"));
+		assertEquals(2.5, reopened.getDouble("y"), 0);
+	}
+
+	@Test
+	public void shortFileNamesCanBeBulkLoaded() throws Exception {
+		EditableFile file = new EditableFile(folder.getRoot().getPath() + "/c");
+		BulkLoader loader = file.bulkLoader();
+		loader.setRunSize(2);
+		TreeMap<String, Object> values = new TreeMap<String, Object>();
+		for (int i = 0; i < 5; i++) {
+			values.put("key" + i, i);
+		}
+		assertEquals(5, loader.load(values));
+		assertEquals(4, file.getInt("key4"));
+		assertArrayEquals(new String[] { "c" }, folder.getRoot().list());
+	}
+
+	@Test
+	public void temporaryPrefixesAreLongEnough() {
+		assertEquals("..tmp", EditableFile.tempPrefix(""));
+		assertEquals(".a.", EditableFile.tempPrefix("a"));
+		assertEquals(".values.txt.", EditableFile.tempPrefix("values.txt"));
+	}
+
+}
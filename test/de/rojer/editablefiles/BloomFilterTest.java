@@ -0,0 +1,105 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the Bloom filter: writes of other objects must never turn
+ * into false misses, writes of other processes not after the next check
+ */
+
+public class BloomFilterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String completePath;
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		completePath = folder.getRoot().getPath() + "/values.txt";
+	}
+
+	private EditableFile filtered() {
+		EditableFile file = new EditableFile(completePath);
+		file.writeInt("a", 1);
+		file.setBloomFiltered(true);
+		assertFalse(file.contains("b"));
+		return file;
+	}
+
+	@Test
+	public void writesOfAnotherObjectAreFound() throws Exception {
+		EditableFile file = filtered();
+		new EditableFile(completePath).writeInt("b", 2);
+
+		assertTrue(file.contains("b"));
+		assertEquals(2, file.getInt("b"));
+		assertEquals(2, file.getMany(Arrays.asList("a", "b")).size());
+	}
+
+	@Test
+	public void logRecordsOfAnotherObjectAreFound() throws Exception {
+		EditableFile file = filtered();
+		file.setLogged(true);
+		EditableFile other = new EditableFile(completePath);
+		other.setLogged(true);
+		other.writeInt("b", 2);
+
+		assertEquals(2, file.getInt("b"));
+	}
+
+	@Test
+	public void writesOfAnotherProcessAreFound() throws Exception {
+		EditableFile file = filtered();
+		Files.write(new File(completePath).toPath(), Arrays.asList("a: 1", "b: 2"));
+		file.refreshCache();
+
+		assertEquals(2, file.getInt("b"));
+	}
+
+	@Test
+	public void writesOfAnotherProcessAreFoundAfterTheCheckInterval() throws Exception {
+		EditableFile file = filtered();
+		file.setBloomCheckInterval(0);
+		Files.write(new File(completePath).toPath(), Arrays.asList("a: 1", "b: 2"));
+
+		assertEquals(2, file.getInt("b"));
+	}
+
+	@Test
+	public void lookupsTrustTheFilterWithinTheCheckInterval() throws Exception {
+		EditableFile file = filtered();
+		file.setBloomCheckInterval(TimeUnit.HOURS.toMillis(1));
+		file.getInt("a");
+		file.bloomVersion = null;
+
+		assertFalse(file.contains("b"));
+		assertEquals(null, file.bloomVersion);
+	}
+
+	@Test
+	public void ownWritesKeepTheFilterCurrent() throws Exception {
+		EditableFile file = filtered();
+		file.writeInt("c", 3);
+		file.deleteLine("a");
+		file.batch().commit();
+
+		assertEquals(file.getFileVersion(), file.bloomVersion);
+		assertEquals(3, file.getInt("c"));
+		assertFalse(file.contains("d"));
+	}
+
+}
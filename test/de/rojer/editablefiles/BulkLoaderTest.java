@@ -0,0 +1,78 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the bulk loader: a failed load is thrown and neither
+ * counted nor written
+ */
+
+public class BulkLoaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String completePath;
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		completePath = folder.getRoot().getPath() + "/values.txt";
+	}
+
+	@Test
+	public void loadsAndCountsAllValues() throws Exception {
+		EditableFile file = new EditableFile(completePath);
+		file.writeInt("a", 1);
+		TreeMap<String, Object> values = new TreeMap<String, Object>();
+		values.put("a", null);
+		values.put("b", 2);
+		values.put("c", "three");
+		BulkLoader loader = file.bulkLoader();
+		loader.setRunSize(1);
+		assertEquals(3, loader.load(values));
+		assertEquals(1, file.getMetrics().getDeletes());
+		assertEquals(3, file.getMetrics().getWrites());
+
+		EditableFile reread = new EditableFile(completePath);
+		assertFalse(reread.contains("a"));
+		assertEquals(2, reread.getInt("b"));
+		assertEquals("three", reread.getString("c"));
+	}
+
+	@Test
+	public void failedLoadIsThrown() throws Exception {
+		EditableFile file = new EditableFile(completePath);
+		file.writeInt("a", 1);
+		long writes = file.getMetrics().getWrites();
+		TreeMap<String, Object> values = new TreeMap<String, Object>();
+		values.put("b", 2);
+		values.put("c", 3);
+		BulkLoader loader = file.bulkLoader();
+		loader.setRunSize(1);
+		loader.setTempFolder(new File(folder.getRoot(), "missing"));
+		try {
+			loader.load(values);
+			fail("the failed spill must be thrown");
+		} catch (UncheckedIOException e) {
+			// expected
+		}
+		assertEquals(writes, file.getMetrics().getWrites());
+
+		EditableFile reread = new EditableFile(completePath);
+		assertEquals(1, reread.getInt("a"));
+		assertFalse(reread.contains("b"));
+	}
+
+}
@@ -0,0 +1,122 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.rojer.editablefiles.exceptions.WrongTypeException;
+
+/**
+ * Regression tests of the columnar table: duplicates don't leave values behind
+ * and the getters convert like the getters of the file, also in strict mode
+ */
+
+public class ColumnarTableTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+	}
+
+	@Test
+	public void buildSortsAndKeepsTheLastValue() throws Exception {
+		ColumnarTable table = new ColumnarTable.Builder().add("c", 3).add("a", 1).add("b", "x").add("a", 2).build();
+
+		assertEquals(3, table.size());
+		assertEquals("a", table.getKey(0));
+		assertEquals("b", table.getKey(1));
+		assertEquals("c", table.getKey(2));
+		assertEquals(2, table.getInt("a"));
+		assertEquals("x", table.getString("b"));
+		assertFalse(table.contains("d"));
+	}
+
+	@Test
+	public void droppedDuplicatesLeaveNoValues() {
+		ColumnarTable.Builder builder = new ColumnarTable.Builder();
+		for (int i = 0; i < 100; i++) {
+			builder.add("int", i).add("string", "value" + i).add("double", i + 0.5).add("boolean", i % 2 == 0);
+		}
+		ColumnarTable table = builder.build();
+
+		assertEquals(4, table.size());
+		assertEquals(1, table.ints.length);
+		assertEquals(1, table.doubles.length);
+		assertEquals("value99".length(), table.strings.length);
+		assertEquals(2, table.stringOffsets.length);
+		assertEquals(99, table.get("int"));
+		assertEquals("value99", table.get("string"));
+		assertEquals(99.5, table.get("double"));
+		assertEquals(false, table.get("boolean"));
+	}
+
+	@Test
+	public void gettersConvertLikeTheFile() throws Exception {
+		ColumnarTable table = new ColumnarTable.Builder().add("float", 2.7F).add("int", 3).addText("text", "1.5")
+				.addText("char", "x").addText("boolean", "true").add("long", 5000000000L).build();
+
+		assertEquals(2, table.getInt("float"));
+		assertEquals(1, table.getInt("text"));
+		assertEquals(3.0, table.getDouble("int"), 0.0);
+		assertEquals(2.7, table.getDouble("float"), 0.0);
+		assertEquals('x', table.getChar("char"));
+		assertTrue(table.getBoolean("boolean"));
+		assertEquals(5000000000L, table.getLong("long"));
+		assertEquals(0, table.getInt("missing"));
+	}
+
+	@Test
+	public void strictTablesDontConvert() throws Exception {
+		ColumnarTable table = new ColumnarTable.Builder().setStrictTypes(true).add("float", 2.7F).add("int", 3)
+				.addText("text", "1.5").addText("number", "5").build();
+
+		assertEquals(3, table.getInt("int"));
+		assertEquals(2.7F, table.getFloat("float"), 0.0F);
+		assertEquals(1.5F, table.getFloat("text"), 0.0F);
+		assertEquals(1.5, table.getDouble("text"), 0.0);
+		assertWrongType(() -> table.getInt("float"));
+		assertWrongType(() -> table.getDouble("float"));
+		assertWrongType(() -> table.getDouble("int"));
+		assertWrongType(() -> table.getInt("text"));
+		assertWrongType(() -> table.getFloat("number"));
+		assertWrongType(() -> table.getChar("number"));
+	}
+
+	@Test
+	public void tableOfAStrictFileIsStrict() throws Exception {
+		EditableFile file = new EditableFile(folder.getRoot().getPath() + "/values.txt");
+		file.writeFloat("float", 2.5F);
+		file.writeInt("int", 3);
+		file.setStrictTypes(true);
+		ColumnarTable table = ColumnarTable.of(file);
+
+		assertTrue(table.isStrictTypes());
+		assertEquals(file.getFloat("float"), table.getFloat("float"), 0.0F);
+		assertEquals(file.getInt("int"), table.getInt("int"));
+		assertWrongType(() -> file.getInt("float"));
+		assertWrongType(() -> table.getInt("float"));
+	}
+
+	private interface Getter {
+		void get() throws WrongTypeException;
+	}
+
+	private static void assertWrongType(Getter getter) {
+		try {
+			getter.get();
+			fail("expected a WrongTypeException");
+		} catch (WrongTypeException e) {
+			// expected
+		}
+	}
+
+}
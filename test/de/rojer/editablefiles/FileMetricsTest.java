@@ -0,0 +1,62 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the metrics: the time spent in the codec is measured by
+ * the bulk operations and exposed again
+ */
+
+public class FileMetricsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private EditableFile file;
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		file = new EditableFile(folder.getRoot().getPath() + "/values.txt");
+	}
+
+	@Test
+	public void bulkOperationsMeasureTheCodec() {
+		Batch batch = file.batch();
+		for (int i = 0; i < 1000; i++) {
+			batch.writeInt("key" + i, i);
+		}
+		batch.commit();
+		assertTrue(file.getMetrics().getEncodeTime() > 0);
+
+		int entries = 0;
+		EntryIterator scan = file.scan();
+		try {
+			while (scan.hasNext()) {
+				scan.next();
+				entries++;
+			}
+		} finally {
+			scan.close();
+		}
+		assertEquals(1000, entries);
+		assertTrue(file.getMetrics().getDecodeTime() > 0);
+
+		Map<String, Long> snapshot = file.getMetrics().snapshot();
+		assertEquals(file.getMetrics().getEncodeTime(), (long) snapshot.get("encodeTime"));
+		assertEquals(file.getMetrics().getDecodeTime(), (long) snapshot.get("decodeTime"));
+
+		file.getMetrics().reset();
+		assertEquals(0, file.getMetrics().getEncodeTime());
+		assertEquals(0, file.getMetrics().getDecodeTime());
+	}
+
+}
@@ -0,0 +1,97 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of group commits: a single writer doesn't wait for the
+ * window and a failed write reaches every writer of its group
+ */
+
+public class GroupCommitTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String completePath;
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		completePath = folder.getRoot().getPath() + "/values.txt";
+	}
+
+	private static TreeMap<String, String> change(String path) {
+		TreeMap<String, String> changes = new TreeMap<String, String>();
+		changes.put(path, path + "=1");
+		return changes;
+	}
+
+	@Test
+	public void singleWriterDoesNotWaitForTheWindow() throws Exception {
+		EditableFile file = new EditableFile(completePath);
+		file.setDurability(Durability.GROUP);
+		file.setGroupCommitWindow(60000);
+		long start = System.nanoTime();
+		file.writeInt("a", 1);
+		assertTrue(System.nanoTime() - start < 10000000000L);
+		assertEquals(1, new EditableFile(completePath).getInt("a"));
+	}
+
+	@Test
+	public void failuresReachEveryWriter() throws Exception {
+		final AtomicInteger writes = new AtomicInteger();
+		EditableFile file = new EditableFile(completePath) {
+			@Override
+			protected void applyChangesNow(TreeMap<String, String> changes) {
+				writes.incrementAndGet();
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new IllegalStateException("disk full");
+			}
+		};
+		final GroupCommit group = new GroupCommit(file, 50);
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger failures = new AtomicInteger();
+		List<Thread> writers = new ArrayList<Thread>();
+		for (int i = 0; i < 8; i++) {
+			final String path = "p" + i;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						group.commit(change(path));
+					} catch (IllegalStateException e) {
+						failures.incrementAndGet();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			});
+			thread.start();
+			writers.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : writers) {
+			thread.join();
+		}
+		assertEquals(8, failures.get());
+		assertTrue(writes.get() < 8);
+	}
+
+}
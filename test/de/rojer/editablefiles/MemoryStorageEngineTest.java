@@ -0,0 +1,87 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the memory engine: the file is never created or written
+ */
+
+public class MemoryStorageEngineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+	}
+
+	@Test
+	public void fileIsNeverCreated() throws Exception {
+		File missing = new File(folder.getRoot(), "missing");
+		EditableFile file = new EditableFile(missing.getPath() + "/values.txt", StorageEngine.MEMORY);
+		file.writeInt("a", 1);
+
+		assertEquals(1, file.getInt("a"));
+		assertTrue(file.contains("a"));
+		assertFalse(missing.exists());
+	}
+
+	@Test
+	public void scansMatchTheTextEngine() throws Exception {
+		EditableFile memory = new EditableFile(folder.getRoot().getPath() + "/memory.txt", StorageEngine.MEMORY);
+		EditableFile text = new EditableFile(folder.getRoot().getPath() + "/text.txt");
+		for (EditableFile file : new EditableFile[] { memory, text }) {
+			Batch batch = file.batch();
+			for (int i = 0; i < 50; i++) {
+				batch.writeInt("a" + i, i);
+				batch.writeString("b.c" + i, "v" + i);
+			}
+			batch.writeBoolean("b", true);
+			batch.writeInt("b.", 1);
+			batch.commit();
+		}
+
+		assertEquals(keys(text.scan()), keys(memory.scan()));
+		assertEquals(keys(text.scanPrefix("b.")), keys(memory.scanPrefix("b.")));
+		assertEquals(keys(text.scanPrefix("a1")), keys(memory.scanPrefix("a1")));
+		assertEquals(keys(text.scan("a2", "b.c3")), keys(memory.scan("a2", "b.c3")));
+		assertEquals(keys(text.scan("b", null)), keys(memory.scan("b", null)));
+		assertEquals(keys(text.scan(null, "a3")), keys(memory.scan(null, "a3")));
+		assertEquals(0, keys(memory.scan("b", "a")).size());
+		assertEquals(11, keys(memory.scanPrefix("a1")).size());
+		assertEquals(Integer.valueOf(7), memory.getAll().get("a7"));
+	}
+
+	private static List<String> keys(EntryIterator entries) {
+		List<String> keys = new ArrayList<String>();
+		try {
+			while (entries.hasNext()) {
+				keys.add(entries.next().getKey());
+			}
+		} finally {
+			entries.close();
+		}
+		return keys;
+	}
+
+	@Test
+	public void textFilesAreStillCreated() throws Exception {
+		File created = new File(folder.getRoot(), "created");
+		new EditableFile(created.getPath() + "/values.txt", StorageEngine.TEXT);
+
+		assertTrue(new File(created, "values.txt").exists());
+	}
+
+}
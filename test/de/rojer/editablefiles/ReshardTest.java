@@ -0,0 +1,121 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.rojer.editablefiles.exceptions.WrongTypeException;
+
+/**
+ * Regression tests of resharding: the values keep their types and the old
+ * shards are released with all their files
+ */
+
+public class ReshardTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String path;
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		path = folder.getRoot().getPath();
+	}
+
+	private void writeTyped(ShardedFile store) {
+		for (String key : new String[] { "text", "float", "int", "double" }) {
+			store.getShard(key).setTypeTags(true);
+		}
+		store.writeString("text", "7");
+		store.writeFloat("float", 1.5F);
+		store.writeInt("int", 3);
+		store.writeDouble("double", 0.25);
+		store.close();
+	}
+
+	private void assertTypes(ShardedFile store) throws WrongTypeException {
+		assertEquals(String.class, typeOf(store, "text"));
+		assertEquals(Float.class, typeOf(store, "float"));
+		assertEquals(Integer.class, typeOf(store, "int"));
+		assertEquals(Double.class, typeOf(store, "double"));
+		for (String key : new String[] { "text", "float", "int", "double" }) {
+			store.getShard(key).setStrictTypes(true);
+		}
+		assertEquals("7", store.getString("text"));
+		assertEquals(1.5F, store.getFloat("float"), 0);
+		assertEquals(3, store.getTrueInt("int"));
+		assertEquals(0.25, store.getDouble("double"), 0);
+	}
+
+	private Class<?> typeOf(ShardedFile store, String key) {
+		return store.getShard(key).getAll().get(key).getClass();
+	}
+
+	@Test
+	public void taggedValuesKeepTheirTypes() throws Exception {
+		writeTyped(new ShardedFile(path, 4));
+		ShardedFile.reshard(path, 3);
+		assertTypes(new ShardedFile(path));
+	}
+
+	@Test
+	public void binaryValuesKeepTheirTypes() throws Exception {
+		writeTyped(new ShardedFile(path, 4, StorageEngine.BINARY));
+		ShardedFile.reshard(path, 2, StorageEngine.BINARY);
+		assertTypes(new ShardedFile(path, 0, StorageEngine.BINARY));
+	}
+
+	@Test
+	public void allValuesAreMovedAndTheOldShardsDeleted() throws Exception {
+		ShardedFile store = new ShardedFile(path, 4);
+		for (int i = 0; i < 100; i++) {
+			store.writeInt("key" + i, i);
+		}
+		store.close();
+		ShardedFile.reshard(path, 7);
+
+		ShardedFile resharded = new ShardedFile(path);
+		assertEquals(7, resharded.getShardCount());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, resharded.getInt("key" + i));
+		}
+		for (String name : folder.getRoot().list()) {
+			assertFalse(name, name.contains("-of-4."));
+		}
+	}
+
+	@Test
+	public void sideFilesOfTheOldShardsAreDeleted() throws Exception {
+		ShardedFile store = new ShardedFile(path, 4);
+		for (int i = 0; i < 100; i++) {
+			EditableFile shard = store.getShard("key" + i);
+			shard.setConcurrent(true);
+			shard.setLogged(true);
+			shard.setBloomFiltered(true);
+			store.writeInt("key" + i, i);
+		}
+		store.close();
+		for (String suffix : new String[] { "", ".log", ".bloom", ".lock" }) {
+			assertTrue(suffix, new File(path, ShardedFile.shardName(0, 4) + suffix).exists());
+		}
+		ShardedFile.reshard(path, 2);
+
+		ShardedFile resharded = new ShardedFile(path);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, resharded.getInt("key" + i));
+		}
+		for (String name : folder.getRoot().list()) {
+			assertFalse(name, name.contains("-of-4."));
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the sections: listings and scans must include the
+ * records of the write-ahead log and changes of other objects
+ */
+
+public class SectionTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String completePath;
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		completePath = folder.getRoot().getPath() + "/values.txt";
+	}
+
+	private EditableFile fill() {
+		EditableFile file = new EditableFile(completePath);
+		Batch batch = file.batch();
+		batch.writeInt("db.pool.max", 10);
+		batch.writeInt("db.pool.min", 1);
+		batch.writeString("db.host", "localhost");
+		batch.writeString("name", "test");
+		batch.commit();
+		return file;
+	}
+
+	@Test
+	public void childrenAreListedFromTheIndex() throws Exception {
+		EditableFile file = fill();
+
+		assertEquals(Arrays.asList("host", "pool"), file.listChildren("db"));
+		assertEquals(Arrays.asList("max", "min"), file.listChildren("db.pool"));
+		assertEquals(Arrays.asList("db", "name"), file.listChildren(""));
+	}
+
+	@Test
+	public void childrenIncludeLogRecords() throws Exception {
+		EditableFile file = fill();
+		file.listChildren("db");
+		file.setLogged(true);
+		file.writeInt("db.pool.timeouts.idle", 5);
+		file.writeInt("db.port", 5432);
+		file.deleteLine("db.host");
+
+		assertEquals(Arrays.asList("pool", "port"), file.listChildren("db"));
+		assertEquals(Arrays.asList("max", "min", "timeouts"), file.listChildren("db.pool"));
+	}
+
+	@Test
+	public void sectionsIncludeLogRecords() throws Exception {
+		EditableFile file = fill();
+		file.setLogged(true);
+		file.writeInt("db.pool.max", 20);
+		file.deleteLine("db.pool.min");
+		file.writeInt("db.pool.size", 5);
+
+		TreeMap<String, Object> expected = new TreeMap<String, Object>();
+		expected.put("db.pool.max", 20);
+		expected.put("db.pool.size", 5);
+		assertEquals(expected, file.getSection("db.pool"));
+
+		file.compact();
+		assertEquals(expected, file.getSection("db.pool"));
+		assertEquals(Arrays.asList("max", "size"), file.listChildren("db.pool"));
+	}
+
+	@Test
+	public void sectionsSeeWritesOfAnotherObject() throws Exception {
+		EditableFile file = fill();
+		assertEquals(Arrays.asList("max", "min"), file.listChildren("db.pool"));
+		new EditableFile(completePath).writeInt("db.pool.idle", 3);
+
+		assertEquals(Arrays.asList("idle", "max", "min"), file.listChildren("db.pool"));
+		assertEquals(3, file.getSection("db.pool").size());
+	}
+
+}
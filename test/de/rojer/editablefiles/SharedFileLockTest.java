@@ -0,0 +1,68 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the shared lock: a lock file, which can't be locked, must
+ * fail the lock instead of silently dropping the exclusion of other processes
+ */
+
+public class SharedFileLockTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private SharedFileLock brokenLock() {
+		File file = new File(folder.getRoot(), "values.txt");
+		assertTrue(new File(folder.getRoot(), "values.txt.lock").mkdir());
+		return SharedFileLock.of(file);
+	}
+
+	@Test
+	public void failedWriteLocksAreReleased() throws Exception {
+		SharedFileLock lock = brokenLock();
+		try {
+			lock.lockWrite();
+			fail();
+		} catch (UncheckedIOException e) {
+			// expected
+		}
+		assertFalse(lock.lock.isWriteLocked());
+		assertEquals(0, lock.getWrites());
+	}
+
+	@Test
+	public void failedReadLocksAreReleased() throws Exception {
+		SharedFileLock lock = brokenLock();
+		try {
+			lock.lockRead();
+			fail();
+		} catch (UncheckedIOException e) {
+			// expected
+		}
+		assertEquals(0, lock.lock.getReadLockCount());
+		assertEquals(0, lock.readers);
+	}
+
+	@Test
+	public void locksWork() throws Exception {
+		SharedFileLock lock = SharedFileLock.of(new File(folder.getRoot(), "other.txt"));
+		lock.lockRead();
+		lock.unlockRead();
+		lock.lockWrite();
+		lock.unlockWrite();
+		assertEquals(1, lock.getReads());
+		assertEquals(1, lock.getWrites());
+	}
+
+}
@@ -0,0 +1,142 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the snapshots: isolation from later writes and cleanup
+ * of the generations
+ */
+
+public class SnapshotTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+	}
+
+	private EditableFile fill(EditableFile file) {
+		Batch batch = file.batch();
+		for (int i = 0; i < 100; i++) {
+			batch.writeInt("key" + i, i);
+		}
+		batch.commit();
+		return file;
+	}
+
+	private int countSnapshotFiles() {
+		int count = 0;
+		for (File file : folder.getRoot().listFiles()) {
+			if (file.getName().endsWith(".snap")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void assertIsolated(EditableFile file) throws Exception {
+		FileSnapshot snapshot = file.snapshot();
+		TreeMap<String, Object> before = snapshot.getAll();
+		file.writeInt("key0", -1);
+		file.deleteLine("key1");
+		file.writeString("new", "value");
+
+		assertEquals(0, snapshot.getInt("key0"));
+		assertTrue(snapshot.contains("key1"));
+		assertFalse(snapshot.contains("new"));
+		assertEquals(before, snapshot.getAll());
+		assertEquals(-1, file.getInt("key0"));
+		assertFalse(file.contains("key1"));
+		snapshot.close();
+	}
+
+	@Test
+	public void snapshotsDontSeeLaterWrites() throws Exception {
+		assertIsolated(fill(new EditableFile(folder.getRoot().getPath() + "/values.txt")));
+	}
+
+	@Test
+	public void snapshotsDontSeeLaterLogRecords() throws Exception {
+		EditableFile file = fill(new EditableFile(folder.getRoot().getPath() + "/values.txt"));
+		file.setLogged(true);
+		file.writeInt("key2", 20);
+		assertIsolated(file);
+		file.compact();
+	}
+
+	@Test
+	public void snapshotsOfMemoryFilesAreCopies() throws Exception {
+		assertIsolated(fill(new EditableFile(folder.getRoot().getPath() + "/values.txt", StorageEngine.MEMORY)));
+	}
+
+	@Test
+	public void snapshotsOfShortFileNames() throws Exception {
+		EditableFile file = fill(new EditableFile(folder.getRoot().getPath() + "/a"));
+		assertIsolated(file);
+	}
+
+	@Test
+	public void generationsAreSharedAndDeletedWithTheLastSnapshot() throws Exception {
+		EditableFile file = fill(new EditableFile(folder.getRoot().getPath() + "/values.txt"));
+		FileSnapshot first = file.snapshot();
+		FileSnapshot second = file.snapshot();
+		assertEquals(1, countSnapshotFiles());
+
+		file.writeInt("key0", -1);
+		FileSnapshot third = file.snapshot();
+		assertEquals(2, countSnapshotFiles());
+
+		first.close();
+		assertEquals(2, countSnapshotFiles());
+		second.close();
+		third.close();
+		assertEquals(0, countSnapshotFiles());
+	}
+
+	@Test
+	public void openScansSurviveWrites() throws Exception {
+		EditableFile file = fill(new EditableFile(folder.getRoot().getPath() + "/values.txt"));
+		FileSnapshot snapshot = file.snapshot();
+		EntryIterator entries = snapshot.scan();
+		file.clearFile();
+		int count = 0;
+		while (entries.hasNext()) {
+			entries.next();
+			count++;
+		}
+		assertEquals(100, count);
+		snapshot.close();
+	}
+
+	@Test(expected = UncheckedIOException.class)
+	public void scansOfLostVersionsFail() throws Exception {
+		FileSnapshot snapshot = fill(new EditableFile(folder.getRoot().getPath() + "/values.txt")).snapshot();
+		assertTrue(snapshot.generation.link.delete());
+		try {
+			snapshot.scan();
+		} finally {
+			snapshot.close();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void closedSnapshotsCantBeRead() throws Exception {
+		FileSnapshot snapshot = fill(new EditableFile(folder.getRoot().getPath() + "/values.txt")).snapshot();
+		snapshot.close();
+		snapshot.get("key0");
+	}
+
+}
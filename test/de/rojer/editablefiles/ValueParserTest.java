@@ -0,0 +1,141 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Compares the parser with the JDK: the same texts must be accepted and parsed
+ * into exactly the same values
+ */
+
+public class ValueParserTest {
+
+	private static final String[] FLOATS = { "0", "-0", "+0", "0.0", "-0.0", "1", "-1", "+1", "1.", ".5", "-.5", "0.1",
+			"0.2", "0.3", "1.5", "3.14159", "2.7182818", "1234567", "12345678", "123456789", "9999999", "16777216",
+			"16777217", "0.1234567", "0.12345678", "1e10", "1e11", "1e-10", "1e-11", "1e22", "1e23", "1e-22", "1e-23",
+			"1E5", "1e+5", "1e-5", "1.5e3", "-1.5e-3", "123456789012345", "1234567890123456", "12345678901234567",
+			"0.123456789012345", "0.1234567890123456", "9007199254740993", "1.7976931348623157e308", "1.8e308",
+			"4.9e-324", "2e-324", "3.4028235e38", "3.5e38", "1.4e-45", "7e-46", "1e400", "1e-400", "0e999999999999",
+			"000123.4500", "0.000001", "100000000000000000000000", "1f", "1F", "1d", "1D", "1.5e3f", "-2.5D", " 1.5",
+			"1.5 ", "\t1.5\n", "NaN", "-NaN", "+NaN", "Infinity", "-Infinity", "+Infinity", "0x1p3", "0X1P-3",
+			"-0x1.8p1", "0x.8p1", "0x1p3f", "0xAp0", "0x1", "0xp1", "0x1p", "", " ", "+", "-", ".", "e5", "1e", "1e+",
+			"1e-", "1.2.3", "1e5.5", "1ee5", "--1", "+-1", "1-", "abc", "1a", "NaNf", "Infinityd", "nan", "infinity",
+			"1 5", "1_000", "١", "1e١", "0x1g1p1", "1,5" };
+
+	private static final String[] INTS = { "0", "-0", "+0", "1", "-1", "2147483647", "2147483648", "-2147483648",
+			"-2147483649", "9223372036854775807", "9223372036854775808", "-9223372036854775808",
+			"-9223372036854775809", "007", "", "+", "-", " 1", "1 ", "1.0", "1e3", "abc", "١٢", "99999999999999999999" };
+
+	@Test
+	public void floatsMatchTheJdk() {
+		for (String text : FLOATS) {
+			assertFloat(text);
+		}
+	}
+
+	@Test
+	public void exactNumbersMatchTheJdk() {
+		Random random = new Random(42);
+		List<String> texts = new ArrayList<String>();
+		for (int i = 0; i < 20000; i++) {
+			int digits = 1 + random.nextInt(i % 2 == 0 ? 7 : 15);
+			StringBuilder text = new StringBuilder();
+			if (random.nextBoolean()) {
+				text.append('-');
+			}
+			for (int d = 0; d < digits; d++) {
+				text.append((char) ('0' + random.nextInt(10)));
+			}
+			int point = random.nextInt(digits + 1);
+			text.insert(text.length() - point, '.');
+			if (random.nextBoolean()) {
+				text.append('e').append(random.nextInt(51) - 25);
+			}
+			texts.add(text.toString());
+		}
+		for (String text : texts) {
+			assertFloat(text);
+		}
+	}
+
+	@Test
+	public void limitsOfTheFastPathMatchTheJdk() {
+		for (int power = -25; power <= 25; power++) {
+			for (String mantissa : new String[] { "1", "9", "1234567", "9999999", "12345678", "123456789012345",
+					"999999999999999", "1234567890123456", "4503599627370497" }) {
+				assertFloat(mantissa + "e" + power);
+				assertFloat("-" + mantissa + "e" + power);
+				assertFloat("0." + mantissa + "e" + power);
+			}
+		}
+	}
+
+	@Test
+	public void wholeNumbersMatchTheJdk() {
+		for (String text : INTS) {
+			Integer expectedInt = null;
+			try {
+				expectedInt = Integer.parseInt(text);
+			} catch (NumberFormatException e) {
+				// not an integer
+			}
+			assertEquals(text, expectedInt != null, ValueParser.isInt(text, 0, text.length()));
+			if (expectedInt != null) {
+				assertEquals(text, expectedInt.intValue(), ValueParser.parseInt(text, 0, text.length()));
+			}
+			Long expectedLong = null;
+			try {
+				expectedLong = Long.parseLong(text);
+			} catch (NumberFormatException e) {
+				// not a long
+			}
+			assertEquals(text, expectedLong != null, ValueParser.isLong(text, 0, text.length()));
+			if (expectedLong != null) {
+				assertEquals(text, expectedLong.longValue(), ValueParser.parseLong(text, 0, text.length()));
+			}
+		}
+	}
+
+	@Test
+	public void rangesInsideLongerTexts() {
+		String text = "key: -12.5e1;";
+		assertEquals(true, ValueParser.isFloat(text, 5, 12));
+		assertEquals(-125.0, ValueParser.parseDouble(text, 5, 12), 0.0);
+		assertEquals(-125.0F, ValueParser.parseFloat(text, 5, 12), 0.0F);
+		assertEquals(true, ValueParser.isInt(text, 6, 8));
+		assertEquals(12, ValueParser.parseInt(text, 6, 8));
+	}
+
+	@Test
+	public void booleans() {
+		for (String text : new String[] { "true", "TRUE", "True", "false", "FALSE", "yes", "", "truee", " true" }) {
+			boolean valid = text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false");
+			assertEquals(text, valid, ValueParser.isBoolean(text, 0, text.length()));
+			assertEquals(text, Boolean.parseBoolean(text), ValueParser.parseBoolean(text, 0, text.length()));
+		}
+	}
+
+	private static void assertFloat(String text) {
+		Double expectedDouble = null;
+		Float expectedFloat = null;
+		try {
+			expectedDouble = Double.parseDouble(text);
+			expectedFloat = Float.parseFloat(text);
+		} catch (NumberFormatException e) {
+			// not a number
+		}
+		assertEquals(text, expectedDouble != null, ValueParser.isFloat(text, 0, text.length()));
+		if (expectedDouble != null) {
+			assertEquals(text, Double.doubleToRawLongBits(expectedDouble),
+					Double.doubleToRawLongBits(ValueParser.parseDouble(text, 0, text.length())));
+			assertEquals(text, Float.floatToRawIntBits(expectedFloat),
+					Float.floatToRawIntBits(ValueParser.parseFloat(text, 0, text.length())));
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the write-ahead log mode: replaying the log and merging
+ * it back into the file
+ */
+
+public class WriteAheadLogTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String completePath;
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		completePath = folder.getRoot().getPath() + "/values.txt";
+	}
+
+	@Test
+	public void writesOnlyAppendToTheLog() throws Exception {
+		EditableFile file = new EditableFile(completePath);
+		file.writeInt("a", 1);
+		file.setLogged(true);
+		file.writeInt("b", 2);
+		file.deleteLine("a");
+
+		assertEquals(Arrays.asList("a: 1"), Files.readAllLines(new File(completePath).toPath()));
+		assertTrue(new File(completePath + ".log").length() > 0);
+		assertFalse(file.contains("a"));
+		assertEquals(2, file.getInt("b"));
+	}
+
+	@Test
+	public void anotherObjectReplaysTheLog() throws Exception {
+		EditableFile writer = new EditableFile(completePath);
+		writer.setLogged(true);
+		writer.writeInt("a", 1);
+		writer.writeString("b", "old");
+		writer.writeString("b", "new");
+		writer.deleteLine("a");
+
+		EditableFile reader = new EditableFile(completePath);
+		reader.setLogged(true);
+		assertFalse(reader.contains("a"));
+		assertEquals("new", reader.getString("b"));
+		assertEquals(1, reader.getAll().size());
+	}
+
+	@Test
+	public void compactionMergesTheLogIntoTheFile() throws Exception {
+		EditableFile file = new EditableFile(completePath);
+		file.writeInt("c", 3);
+		file.writeInt("a", 1);
+		file.setLogged(true);
+		file.writeInt("b", 2);
+		file.deleteLine("c");
+		file.writeInt("a", 10);
+		file.compact();
+
+		assertEquals(Arrays.asList("a: 10", "b: 2"), Files.readAllLines(new File(completePath).toPath()));
+		assertEquals(0, new File(completePath + ".log").length());
+		assertEquals(10, file.getInt("a"));
+	}
+
+	@Test
+	public void turningTheLogOffCompactsIt() throws Exception {
+		EditableFile file = new EditableFile(completePath);
+		file.setLogged(true);
+		file.writeInt("b", 2);
+		file.writeInt("a", 1);
+		file.setLogged(false);
+
+		assertEquals(Arrays.asList("a: 1", "b: 2"), Files.readAllLines(new File(completePath).toPath()));
+		assertEquals(2, new EditableFile(completePath).getInt("b"));
+	}
+
+	@Test
+	public void reachingTheThresholdCompactsTheLog() throws Exception {
+		EditableFile file = new EditableFile(completePath);
+		file.setLogged(true);
+		file.setCompactionThreshold(3);
+		for (int i = 0; i < 10; i++) {
+			file.writeInt("key" + i, i);
+		}
+		file.compact();
+
+		assertEquals(10, Files.readAllLines(new File(completePath).toPath()).size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, file.getInt("key" + i));
+		}
+	}
+
+}
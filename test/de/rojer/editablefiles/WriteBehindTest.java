@@ -0,0 +1,227 @@
+package de.rojer.editablefiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Regression tests of the write-behind mode: no write may be lost on close, on
+ * turning the mode off or by a failed flush, and only engines with buffered
+ * writes are kept for the shutdown
+ */
+
+public class WriteBehindTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String completePath;
+
+	@Before
+	public void setUp() {
+		EditableFile.setDefaultLogger(FileLogger.NONE);
+		completePath = folder.getRoot().getPath() + "/values.txt";
+	}
+
+	@Test
+	public void writesRacingCloseAreKept() throws Exception {
+		for (int round = 0; round < 20; round++) {
+			String roundPath = folder.getRoot().getPath() + "/round" + round + ".txt";
+			EditableFile file = new EditableFile(roundPath);
+			final WriteBehindEngine engine = new WriteBehindEngine(file.engine, 0, Integer.MAX_VALUE);
+			final CountDownLatch start = new CountDownLatch(1);
+			List<Thread> writers = new ArrayList<Thread>();
+			for (int t = 0; t < 4; t++) {
+				final int writer = t;
+				Thread thread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							start.await();
+						} catch (InterruptedException e) {
+							return;
+						}
+						for (int i = 0; i < 50; i++) {
+							engine.put("w" + writer + "." + i, Integer.toString(i));
+						}
+					}
+				});
+				thread.start();
+				writers.add(thread);
+			}
+			start.countDown();
+			engine.close();
+			for (Thread thread : writers) {
+				thread.join();
+			}
+
+			EditableFile reread = new EditableFile(roundPath);
+			for (int t = 0; t < 4; t++) {
+				for (int i = 0; i < 50; i++) {
+					assertEquals(i, reread.getInt("w" + t + "." + i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void onlyEnginesWithBufferedWritesArePending() throws Exception {
+		EditableFile file = new EditableFile(completePath);
+		file.setWriteBehind(true);
+		WriteBehindEngine engine = (WriteBehindEngine) file.engine;
+		assertFalse(isPending(engine));
+
+		file.writeInt("a", 1);
+		assertTrue(isPending(engine));
+
+		file.flush();
+		assertFalse(isPending(engine));
+		assertEquals(1, new EditableFile(completePath).getInt("a"));
+
+		file.writeInt("b", 2);
+		file.close();
+		assertFalse(isPending(engine));
+		assertEquals(2, new EditableFile(completePath).getInt("b"));
+	}
+
+	@Test
+	public void writesRacingTurningTheModeOffAreKept() throws Exception {
+		for (int round = 0; round < 20; round++) {
+			String roundPath = folder.getRoot().getPath() + "/round" + round + ".txt";
+			final EditableFile file = new EditableFile(roundPath);
+			// the writes after the switch reach the text engine directly
+			file.setConcurrent(true);
+			file.setFlushInterval(0);
+			file.setWriteBehind(true);
+			final CountDownLatch start = new CountDownLatch(1);
+			List<Thread> writers = new ArrayList<Thread>();
+			for (int t = 0; t < 4; t++) {
+				final int writer = t;
+				Thread thread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							start.await();
+						} catch (InterruptedException e) {
+							return;
+						}
+						for (int i = 0; i < 50; i++) {
+							file.writeInt("w" + writer + "." + i, i);
+						}
+					}
+				});
+				thread.start();
+				writers.add(thread);
+			}
+			start.countDown();
+			file.setWriteBehind(false);
+			for (Thread thread : writers) {
+				thread.join();
+			}
+			assertFalse(file.isWriteBehind());
+
+			EditableFile reread = new EditableFile(roundPath);
+			for (int t = 0; t < 4; t++) {
+				for (int i = 0; i < 50; i++) {
+					assertEquals(i, reread.getInt("w" + t + "." + i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void failedFlushKeepsTheWrites() throws Exception {
+		final Map<String, Object> stored = new HashMap<String, Object>();
+		final boolean[] failing = { true };
+		final WriteBehindEngine[] engine = new WriteBehindEngine[1];
+		StorageEngine target = new StorageEngine() {
+			@Override
+			public Object get(String key) {
+				return stored.get(key);
+			}
+
+			@Override
+			public void put(String key, Object value) {
+				stored.put(key, value);
+			}
+
+			@Override
+			public void putAll(Map<String, Object> changes) {
+				if (failing[0]) {
+					// a newer write of the same path arrives during the flush
+					engine[0].put("a", "newer");
+					throw new IllegalStateException("disk full");
+				}
+				for (Map.Entry<String, Object> change : changes.entrySet()) {
+					if (change.getValue() == null) {
+						stored.remove(change.getKey());
+					} else {
+						stored.put(change.getKey(), change.getValue());
+					}
+				}
+			}
+
+			@Override
+			public void delete(String key) {
+				stored.remove(key);
+			}
+
+			@Override
+			public void clear() {
+				stored.clear();
+			}
+
+			@Override
+			public EntryIterator scan(String fromKey, String toKey, String prefix) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void flush() {
+			}
+		};
+		engine[0] = new WriteBehindEngine(target, 0, Integer.MAX_VALUE);
+		stored.put("c", "old");
+		engine[0].put("a", "older");
+		engine[0].put("b", "1");
+		engine[0].delete("c");
+		try {
+			engine[0].flushBuffer();
+			fail("the failure of the target must be rethrown");
+		} catch (IllegalStateException e) {
+			assertEquals("disk full", e.getMessage());
+		}
+		assertEquals(3, engine[0].size());
+		assertTrue(isPending(engine[0]));
+		assertEquals("newer", engine[0].get("a"));
+		assertEquals("1", engine[0].get("b"));
+		assertEquals(null, engine[0].get("c"));
+
+		failing[0] = false;
+		engine[0].flushBuffer();
+		assertEquals(0, engine[0].size());
+		assertEquals("newer", stored.get("a"));
+		assertEquals("1", stored.get("b"));
+		assertFalse(stored.containsKey("c"));
+		engine[0].close();
+	}
+
+	private static boolean isPending(WriteBehindEngine engine) {
+		synchronized (WriteBehindEngine.PENDING) {
+			return WriteBehindEngine.PENDING.containsKey(engine);
+		}
+	}
+
+}